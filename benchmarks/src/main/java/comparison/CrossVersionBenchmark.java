@@ -0,0 +1,163 @@
+package comparison;
+
+import java.util.ArrayList;
+
+/**
+ * This class runs the same synthetic Workload through version 1, version 2 and version 3 of the Library and prints
+ * their load time, heap footprint, throughput and latency percentiles side by side for each catalogue size, so the
+ * cost or benefit of each redesign can be measured rather than guessed.
+ * 
+ * Usage (from the benchmarks module's shaded jar):
+ * 
+ * 		java -cp benchmarks/target/benchmarks.jar comparison.CrossVersionBenchmark [sizes] [operations] [time limit seconds] [versions]
+ * 
+ * 		sizes		- comma separated catalogue sizes in Materials (default 1000,10000,100000,1000000)
+ * 		operations	- how many operations to time at each size (default 1000000)
+ * 		time limit	- how long loading may take before a version is skipped at that size (default 120)
+ * 		versions	- comma separated list from version1, version2 and version3 (default all three)
+ * 
+ * Every version is warmed up on a small Workload first so that the JIT has compiled its hot paths. Heap footprint is
+ * the difference in used heap, after requesting garbage collections, between an empty Library and a loaded one; it is
+ * an estimate, so give the JVM a fixed heap (-Xms equal to -Xmx) for steadier numbers.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class CrossVersionBenchmark {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** String value holding the default catalogue sizes*/
+	private static final String DEFAULT_SIZES = "1000,10000,100000,1000000";
+	/** int value denoting the default number of timed operations*/
+	private static final int DEFAULT_OPERATIONS = 1000000;
+	/** int value denoting the default time limit for loading, in seconds*/
+	private static final int DEFAULT_LIMIT = 120;
+	/** int value denoting the catalogue size used to warm each version up*/
+	private static final int WARMUP_SIZE = 1000;
+	/** int value denoting how many times the warm up Workload is run*/
+	private static final int WARMUP_ROUNDS = 20;
+	/** long value used to seed every Workload, so that runs can be compared across machines and commits*/
+	private static final long SEED = 3721;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that runs the comparison with the settings given on the command line and prints the results.
+	 * 
+	 * @param args - String[] object holding the optional sizes, operations, time limit and versions arguments
+	 */
+	
+	public static void main(String[] args) {
+		String[] sizes = (args.length > 0 ? args[0] : DEFAULT_SIZES).split(",");
+		int operations = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_OPERATIONS;
+		long limit = (args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_LIMIT) * 1000000000L;
+		ArrayList<LibraryAdapter> versions = selectVersions(args.length > 3 ? args[3] : "version1,version2,version3");
+		
+		Workload warmup = new Workload(WARMUP_SIZE, WARMUP_SIZE * 10, SEED);
+		for(LibraryAdapter library : versions) {
+			for(int i = 0; i < WARMUP_ROUNDS; i++) {
+				run(library, warmup, Long.MAX_VALUE);
+			}
+		}
+		
+		for(String size : sizes) {
+			Workload workload = new Workload(Integer.parseInt(size.trim()), operations, SEED);
+			System.out.println();
+			System.out.println("Materials: " + size.trim() + ", operations: " + operations);
+			System.out.println(RunResult.getHeader());
+			for(LibraryAdapter library : versions) {
+				System.out.println(run(library, workload, limit).getRow());
+			}
+		}
+	}
+	
+	/**
+	 * Function that loads one version with a Workload and times every operation of it.
+	 * 
+	 * @param library - LibraryAdapter object for the version being measured
+	 * @param workload - Workload object to run
+	 * @param limit - long value representing how long loading may take, in nanoseconds
+	 * @return - Returns a RunResult object holding the measurements
+	 */
+	
+	public static RunResult run(LibraryAdapter library, Workload workload, long limit) {
+		library.reset();
+		long before = usedHeap();
+		long start = System.nanoTime();
+		boolean loaded = workload.load(library, limit == Long.MAX_VALUE ? Long.MAX_VALUE : start + limit);
+		long loadMillis = (System.nanoTime() - start) / 1000000;
+		if(!loaded) {
+			library.reset();
+			return new RunResult(library.getName(), loadMillis);
+		}
+		long heap = usedHeap() - before;
+		
+		long[] times = new long[workload.getOperationCount()];
+		int successes = 0;
+		long began = System.nanoTime();
+		for(int i = 0; i < times.length; i++) {
+			long t = System.nanoTime();
+			successes += workload.perform(library, i) ? 1 : 0;
+			times[i] = System.nanoTime() - t;
+		}
+		long elapsed = System.nanoTime() - began;
+		library.reset();
+		return new RunResult(library.getName(), loadMillis, heap, elapsed, times, successes);
+	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that builds the adapters for the named versions.
+	 * 
+	 * @param names - String object holding a comma separated list of version names
+	 * @return - Returns an ArrayList<<r>LibraryAdapter> object with an adapter for each recognised name, in the order given
+	 */
+	
+	private static ArrayList<LibraryAdapter> selectVersions(String names){
+		ArrayList<LibraryAdapter> out = new ArrayList<LibraryAdapter>();
+		for(String name : names.split(",")) {
+			switch(name.trim()) {
+				case "version1":
+					out.add(new Version1Adapter());
+					break;
+				case "version2":
+					out.add(new Version2Adapter());
+					break;
+				case "version3":
+					out.add(new Version3Adapter());
+					break;
+				default:
+					System.out.println("Unknown version \"" + name.trim() + "\" ignored");
+					break;
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * Helper method that estimates the heap in use after asking for garbage collection a few times.
+	 * 
+	 * @return - Returns a long value representing the used heap in bytes
+	 */
+	
+	private static long usedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for(int i = 0; i < 4; i++) {
+			System.gc();
+			try {
+				Thread.sleep(50);
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+	
+}
@@ -0,0 +1,89 @@
+package comparison;
+
+/**
+ * This interface gives the three versions of the Library one shape, so that CrossVersionBenchmark can drive exactly
+ * the same workload through each of them. Material types are passed as an index into TYPES, since version 1 names
+ * its types with int constants while versions 2 and 3 use registered names.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public interface LibraryAdapter {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** String[] object naming the three MaterialTypes of the problem statement, in version 1's constant order*/
+	public static final String[] TYPES = new String[] {"Book", "Journal", "DVD"};
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that replaces the adapted Library with a new, empty one (registering the MaterialTypes if the version needs that).
+	 * 
+	 */
+	
+	public void reset();
+	
+	/**
+	 * Function that stocks a Material.
+	 * 
+	 * @param materialId - int value representing the id of the new Material
+	 * @param type - int value representing the Material's type as an index into TYPES
+	 * @return - Returns a boolean value representing whether the Library accepted the Material
+	 */
+	
+	public boolean stockMaterial(int materialId, int type);
+	
+	/**
+	 * Function that enrols a User (and adds their Organization if it is new).
+	 * 
+	 * @param userId - int value representing the id of the new User
+	 * @param organization - String object naming the User's Organization
+	 * @return - Returns a boolean value representing whether the Library accepted the User
+	 */
+	
+	public boolean enrolUser(int userId, String organization);
+	
+	/**
+	 * Function that has a User check out a Material.
+	 * 
+	 * @param userId - int value representing the id of the User
+	 * @param materialId - int value representing the id of the Material
+	 * @return - Returns a boolean value representing whether the checkout happened
+	 */
+	
+	public boolean checkoutMaterial(int userId, int materialId);
+	
+	/**
+	 * Function that has a User return a Material.
+	 * 
+	 * @param userId - int value representing the id of the User
+	 * @param materialId - int value representing the id of the Material
+	 * @return - Returns a boolean value representing whether the return happened
+	 */
+	
+	public boolean returnMaterial(int userId, int materialId);
+	
+	/**
+	 * Function that pays part of an Organization's fines.
+	 * 
+	 * @param organization - String object naming the Organization
+	 * @param amount - int value representing the amount paid
+	 * @return - Returns a boolean value representing whether the payment was accepted
+	 */
+	
+	public boolean payFee(String organization, int amount);
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the name this version is reported under.
+	 * 
+	 * @return - Returns a String object naming the adapted version
+	 */
+	
+	public String getName();
+	
+}
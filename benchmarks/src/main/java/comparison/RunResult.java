@@ -0,0 +1,110 @@
+package comparison;
+
+import java.util.Arrays;
+
+/**
+ * This class holds what CrossVersionBenchmark measured for one version at one catalogue size, and formats it as a
+ * row of the comparison table.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class RunResult {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** String object naming the version that was measured*/
+	private String version;
+	/** boolean value signifying that the run was abandoned because loading passed the time limit*/
+	private boolean skipped;
+	/** long value representing how long loading took, in milliseconds*/
+	private long loadMillis;
+	/** long value representing how much more heap was in use after loading than before, in bytes*/
+	private long heapBytes;
+	/** double value representing how many operations were performed per second*/
+	private double throughput;
+	/** long[] object holding the latency of every measured operation in nanoseconds, sorted*/
+	private long[] latencies;
+	/** int value representing how many operations the Library reported as successful*/
+	private int successes;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the RunResult class for a run that completed.
+	 * 
+	 * @param name - String object naming the version that was measured
+	 * @param load - long value representing how long loading took, in milliseconds
+	 * @param heap - long value representing how much more heap was in use after loading, in bytes
+	 * @param elapsed - long value representing how long the operations took in total, in nanoseconds
+	 * @param times - long[] object holding the latency of each operation in nanoseconds; it is sorted in place
+	 * @param success - int value representing how many operations succeeded
+	 */
+	
+	public RunResult(String name, long load, long heap, long elapsed, long[] times, int success) {
+		version = name;
+		loadMillis = load;
+		heapBytes = heap;
+		throughput = times.length / (elapsed / 1e9);
+		latencies = times;
+		Arrays.sort(latencies);
+		successes = success;
+	}
+	
+	/**
+	 * Constructor for the RunResult class for a run that was skipped because loading took too long.
+	 * 
+	 * @param name - String object naming the version that was skipped
+	 * @param load - long value representing how long loading ran before it was abandoned, in milliseconds
+	 */
+	
+	public RunResult(String name, long load) {
+		version = name;
+		loadMillis = load;
+		skipped = true;
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the header line matching the rows produced by getRow().
+	 * 
+	 * @return - Returns a String object containing the table header
+	 */
+	
+	public static String getHeader() {
+		return String.format("%-10s %10s %10s %12s %9s %9s %9s %9s %10s %10s", "version", "load ms", "heap MB", "ops/s", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us", "successes");
+	}
+	
+	/**
+	 * Getter method that requests this result formatted as a row of the comparison table.
+	 * 
+	 * @return - Returns a String object containing this result's row
+	 */
+	
+	public String getRow() {
+		if(skipped) {
+			return String.format("%-10s %10d  skipped: loading did not finish within the time limit", version, loadMillis);
+		}
+		return String.format("%-10s %10d %10.1f %12.0f %9.2f %9.2f %9.2f %9.2f %10.2f %10d", version, loadMillis, heapBytes / (1024.0 * 1024.0), throughput,
+				getPercentile(50), getPercentile(90), getPercentile(99), getPercentile(99.9), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1000.0, successes);
+	}
+	
+	/**
+	 * Getter method that requests a latency percentile.
+	 * 
+	 * @param percent - double value representing the percentile, from 0 to 100
+	 * @return - Returns a double value representing that percentile of the operation latencies, in microseconds
+	 */
+	
+	public double getPercentile(double percent) {
+		if(latencies.length == 0) {
+			return 0;
+		}
+		int index = (int)Math.ceil(percent / 100.0 * latencies.length) - 1;
+		return latencies[Math.max(0, Math.min(latencies.length - 1, index))] / 1000.0;
+	}
+	
+}
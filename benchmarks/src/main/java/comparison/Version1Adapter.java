@@ -0,0 +1,59 @@
+package comparison;
+
+import version1.example.Library;
+
+/**
+ * This class adapts version 1's single-class Library, which stores every record as an ArrayList<<r>String>.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class Version1Adapter implements LibraryAdapter {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** Library object being adapted*/
+	private Library library;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	@Override
+	public void reset() {
+		library = new Library();
+	}
+	
+	@Override
+	public boolean stockMaterial(int materialId, int type) {
+		return library.stockMaterial(materialId, type);
+	}
+	
+	@Override
+	public boolean enrolUser(int userId, String organization) {
+		return library.enrolUser(userId, organization);
+	}
+	
+	@Override
+	public boolean checkoutMaterial(int userId, int materialId) {
+		return library.checkoutMaterial(userId, materialId);
+	}
+	
+	@Override
+	public boolean returnMaterial(int userId, int materialId) {
+		return library.returnMaterial(userId, materialId);
+	}
+	
+	@Override
+	public boolean payFee(String organization, int amount) {
+		return library.payFee(organization, amount);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public String getName() {
+		return "version1";
+	}
+	
+}
@@ -0,0 +1,63 @@
+package comparison;
+
+import version2.library.Library;
+import version2.registry.MaterialTypeRegistry;
+
+/**
+ * This class adapts version 2's Library, which split the version 1 class into Catalogues of model objects.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class Version2Adapter implements LibraryAdapter {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** Library object being adapted*/
+	private Library library;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	@Override
+	public void reset() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType(TYPES[0], 4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType(TYPES[1], 2, 3));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType(TYPES[2], 1, 5));
+		library = new Library();
+	}
+	
+	@Override
+	public boolean stockMaterial(int materialId, int type) {
+		return library.stockMaterial(materialId, TYPES[type]);
+	}
+	
+	@Override
+	public boolean enrolUser(int userId, String organization) {
+		return library.enrolUser(userId, organization);
+	}
+	
+	@Override
+	public boolean checkoutMaterial(int userId, int materialId) {
+		return library.checkoutMaterial(userId, materialId);
+	}
+	
+	@Override
+	public boolean returnMaterial(int userId, int materialId) {
+		return library.returnMaterial(userId, materialId);
+	}
+	
+	@Override
+	public boolean payFee(String organization, int amount) {
+		return library.payFee(organization, amount);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public String getName() {
+		return "version2";
+	}
+	
+}
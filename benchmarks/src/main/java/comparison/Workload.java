@@ -0,0 +1,170 @@
+package comparison;
+
+import java.util.Random;
+
+/**
+ * This class generates the synthetic workload that CrossVersionBenchmark drives through every version: the Materials,
+ * Users and Organizations to load, followed by a sequence of operations. The sequence is generated once from a seed
+ * and stored in flat arrays, so every version sees exactly the same calls in the same order.
+ * 
+ * The generator tracks which Materials each User holds, so the sequence is a realistic front-desk mix (mostly
+ * successful checkouts and returns of held Materials, plus some fee payments and refused checkouts) rather than a
+ * stream of calls that would all fail. Since every version follows the same rules, they should all report the
+ * same number of successful operations, which CrossVersionBenchmark prints as a check.
+ * 
+ * Material ids start after the last User id. Version 1 removes a returned Material from a User's record by its text,
+ * which also matches the User's own id when the two are equal and corrupts the record; keeping the ranges apart lets
+ * version 1 run the workload without changing it.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class Workload {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value identifying a checkout in the operation sequence*/
+	public static final int OP_CHECKOUT = 0;
+	/** int value identifying a return in the operation sequence*/
+	public static final int OP_RETURN = 1;
+	/** int value identifying a fee payment in the operation sequence*/
+	public static final int OP_PAY = 2;
+	/** int value denoting how many Materials there are for each User*/
+	private static final int MATERIALS_PER_USER = 10;
+	/** int value denoting how many Users share each Organization*/
+	private static final int USERS_PER_ORGANIZATION = 50;
+	/** int value denoting the most Materials a User may hold, in every version*/
+	private static final int CHECKOUT_LIMIT = 5;
+	/** int value denoting the chance, in percent, that an operation is a fee payment*/
+	private static final int PAY_PERCENT = 5;
+	
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** int value representing how many Materials are loaded*/
+	private int materials;
+	/** int value representing the id of the first Material; Materials are numbered upwards from here*/
+	private int firstMaterial;
+	/** int value representing how many Users are loaded*/
+	private int users;
+	/** String[] object naming the Organizations*/
+	private String[] organizations;
+	/** int[] object holding the OP_... code of each operation*/
+	private int[] codes;
+	/** int[] object holding the User id of each checkout or return, or the Organization index of each payment*/
+	private int[] subjects;
+	/** int[] object holding the Material id of each checkout or return, or the amount of each payment*/
+	private int[] objects;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the Workload class that generates the data to load and the operation sequence.
+	 * 
+	 * @param size - int value representing how many Materials to load
+	 * @param operations - int value representing how many operations to generate
+	 * @param seed - long value used to seed the generator, so a workload can be reproduced exactly
+	 */
+	
+	public Workload(int size, int operations, long seed) {
+		materials = size;
+		users = Math.max(1, size / MATERIALS_PER_USER);
+		firstMaterial = users;
+		organizations = new String[Math.max(1, users / USERS_PER_ORGANIZATION)];
+		for(int i = 0; i < organizations.length; i++) {
+			organizations[i] = "Organization " + i;
+		}
+		codes = new int[operations];
+		subjects = new int[operations];
+		objects = new int[operations];
+		Random random = new Random(seed);
+		int[][] held = new int[users][CHECKOUT_LIMIT];
+		int[] count = new int[users];
+		boolean[] out = new boolean[materials];
+		for(int i = 0; i < operations; i++) {
+			int user = random.nextInt(users);
+			if(random.nextInt(100) < PAY_PERCENT) {
+				codes[i] = OP_PAY;
+				subjects[i] = user % organizations.length;
+				objects[i] = 1 + random.nextInt(10);
+			}
+			else if(count[user] == CHECKOUT_LIMIT || (count[user] > 0 && random.nextBoolean())) {
+				int pick = random.nextInt(count[user]);
+				codes[i] = OP_RETURN;
+				subjects[i] = user;
+				objects[i] = held[user][pick];
+				out[objects[i] - firstMaterial] = false;
+				held[user][pick] = held[user][--count[user]];
+			}
+			else {
+				codes[i] = OP_CHECKOUT;
+				subjects[i] = user;
+				objects[i] = firstMaterial + random.nextInt(materials);
+				if(!out[objects[i] - firstMaterial]) {
+					out[objects[i] - firstMaterial] = true;
+					held[user][count[user]++] = objects[i];
+				}
+			}
+		}
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that loads the Organizations, Users and Materials into the provided Library, giving up early if the
+	 * time limit passes (the early versions can take a very long time to load large catalogues).
+	 * 
+	 * @param library - LibraryAdapter object to load
+	 * @param deadline - long value representing the System.nanoTime() after which loading gives up
+	 * @return - Returns a boolean value; true if everything was loaded, false if the deadline passed first
+	 */
+	
+	public boolean load(LibraryAdapter library, long deadline) {
+		for(int i = 0; i < users; i++) {
+			library.enrolUser(i, organizations[i % organizations.length]);
+			if((i & 1023) == 0 && System.nanoTime() > deadline) {
+				return false;
+			}
+		}
+		for(int i = 0; i < materials; i++) {
+			library.stockMaterial(firstMaterial + i, i % LibraryAdapter.TYPES.length);
+			if((i & 1023) == 0 && System.nanoTime() > deadline) {
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Function that performs one operation of the sequence on the provided Library.
+	 * 
+	 * @param library - LibraryAdapter object to perform the operation on
+	 * @param index - int value representing which operation to perform
+	 * @return - Returns a boolean value representing whether the Library reported the operation as successful
+	 */
+	
+	public boolean perform(LibraryAdapter library, int index) {
+		switch(codes[index]) {
+			case OP_CHECKOUT:
+				return library.checkoutMaterial(subjects[index], objects[index]);
+			case OP_RETURN:
+				return library.returnMaterial(subjects[index], objects[index]);
+			default:
+				return library.payFee(organizations[subjects[index]], objects[index]);
+		}
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests how many operations the sequence holds.
+	 * 
+	 * @return - Returns an int value representing the length of the operation sequence
+	 */
+	
+	public int getOperationCount() {
+		return codes.length;
+	}
+	
+}
@@ -0,0 +1,152 @@
+package version3.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import version3.model.library.Library;
+import version3.model.organization.Organization;
+
+/**
+ * This class measures the Library operations that a busy front desk performs constantly: checking Materials out and
+ * back in, paying fees, and finding a User's Organization. Each is measured as throughput and as sampled latency
+ * (which gives the percentile table), at catalogue sizes from one thousand to ten million Materials, against both
+ * the plain Library and the ConcurrentLibrary. Run with "-prof gc" to add the allocation rate of every benchmark.
+ * 
+ * A checkout on its own cannot be repeated forever (the User reaches their limit and the Materials run out), so it is
+ * measured together with the return that undoes it; the rejected checkout and return benchmarks measure the validation
+ * paths by themselves.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class LibraryBenchmark {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** String object naming which Library implementation is measured*/
+	@Param({LibraryFixture.IMPLEMENTATION_LIBRARY, LibraryFixture.IMPLEMENTATION_CONCURRENT})
+	public String implementation;
+	/** int value representing how many Materials the Library is stocked with*/
+	@Param({"1000", "100000", "1000000", "10000000"})
+	public int size;
+	/** Library object being measured*/
+	private Library library;
+	/** int value representing how many Users the Library has*/
+	private int users;
+	/** Organization object whose fees are paid by the payFee benchmark*/
+	private Organization payer;
+	/** int value used to walk through different Users and Materials on each call*/
+	private int cursor;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that builds the Library before the measurements start; User 0 checks out Materials 0 to 4 so that
+	 * the rejected checkout benchmark has unavailable Materials to ask for.
+	 * 
+	 */
+	
+	@Setup
+	public void setup() {
+		library = LibraryFixture.build(implementation, size);
+		users = LibraryFixture.countUsers(size);
+		for(int i = 0; i < 5; i++) {
+			library.checkoutMaterial(0, i);
+		}
+		payer = library.getOrganizationCatalogue().getOrganization(LibraryFixture.organizationName(1));
+	}
+	
+	/**
+	 * Benchmark of a successful checkout followed by the return of the same Material.
+	 * 
+	 * @return - Returns a boolean value, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public boolean checkoutAndReturn() {
+		int step = next();
+		int user = 1 + step % (users - 1);
+		int material = 5 + step % (size - 5);
+		return library.checkoutMaterial(user, material) & library.returnMaterial(user, material);
+	}
+	
+	/**
+	 * Benchmark of a checkout that is refused because the Material is already checked out.
+	 * 
+	 * @return - Returns a boolean value, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public boolean checkoutRejected() {
+		int step = next();
+		return library.checkoutMaterial(1 + step % (users - 1), step % 5);
+	}
+	
+	/**
+	 * Benchmark of a return that is refused because the User does not have the Material.
+	 * 
+	 * @return - Returns a boolean value, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public boolean returnNotHeld() {
+		int step = next();
+		return library.returnMaterial(1 + step % (users - 1), step % size);
+	}
+	
+	/**
+	 * Benchmark of paying a fee; the fine is added first so that every payment is allowed and the balance stays steady.
+	 * 
+	 * @return - Returns a boolean value, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public boolean payFee() {
+		payer.addFines(1);
+		return library.payFee(LibraryFixture.organizationName(1), 1);
+	}
+	
+	/**
+	 * Benchmark of finding the Organization a User belongs to.
+	 * 
+	 * @return - Returns the Organization object found, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public Organization getOrganizationByUser() {
+		return library.getOrganizationCatalogue().getOrganizationByUser(next() % users);
+	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that advances the cursor; it is not thread-safe, which is fine as the cursor only spreads calls around.
+	 * 
+	 * @return - Returns an int value, never negative, that is different on each call
+	 */
+	
+	private int next() {
+		cursor = (cursor + 1) & Integer.MAX_VALUE;
+		return cursor;
+	}
+	
+}
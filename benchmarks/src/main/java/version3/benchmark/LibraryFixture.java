@@ -0,0 +1,88 @@
+package version3.benchmark;
+
+import version3.model.library.ConcurrentLibrary;
+import version3.model.library.Library;
+import version3.model.material.materialtype.MaterialTypeRegistry;
+
+/**
+ * This class builds the Libraries that the benchmarks run against, so that every benchmark measures the
+ * same shape of data: the three MaterialTypes from the problem statement, a fixed number of Organizations,
+ * one User for every ten Materials, and Materials numbered 0 to size - 1 with the types in rotation.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibraryFixture {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** String value naming the plain Library implementation for a benchmark's implementation parameter*/
+	public static final String IMPLEMENTATION_LIBRARY = "library";
+	/** String value naming the ConcurrentLibrary implementation for a benchmark's implementation parameter*/
+	public static final String IMPLEMENTATION_CONCURRENT = "concurrent";
+	/** String[] object containing the names of the MaterialTypes the fixture registers*/
+	public static final String[] TYPES = new String[] {"Book", "Journal", "DVD"};
+	/** int value denoting how many Organizations the Users are spread across*/
+	public static final int ORGANIZATIONS = 64;
+	/** int value denoting how many Materials there are for each User*/
+	public static final int MATERIALS_PER_USER = 10;
+	/** int value denoting the fewest Users a fixture is built with, however small*/
+	private static final int MINIMUM_USERS = 16;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that builds and fills a Library of the requested implementation and size.
+	 * 
+	 * @param implementation - String object naming the implementation, IMPLEMENTATION_LIBRARY or IMPLEMENTATION_CONCURRENT
+	 * @param size - int value representing how many Materials to stock
+	 * @return - Returns the filled Library object
+	 */
+	
+	public static Library build(String implementation, int size) {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book", 4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Journal", 2, 3));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD", 1, 5));
+		Library out = IMPLEMENTATION_CONCURRENT.equals(implementation) ? new ConcurrentLibrary() : new Library();
+		int users = countUsers(size);
+		out.getMaterialCatalogue().ensureCapacity(size);
+		out.getUserCatalogue().ensureCapacity(users);
+		for(int i = 0; i < ORGANIZATIONS; i++) {
+			out.addOrganization(organizationName(i));
+		}
+		for(int i = 0; i < users; i++) {
+			out.enrolUser(i, organizationName(i % ORGANIZATIONS));
+		}
+		for(int i = 0; i < size; i++) {
+			out.stockMaterial(i, TYPES[i % TYPES.length]);
+		}
+		return out;
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests how many Users a fixture of the provided size is built with.
+	 * 
+	 * @param size - int value representing how many Materials the fixture has
+	 * @return - Returns an int value representing how many Users the fixture has, numbered from 0
+	 */
+	
+	public static int countUsers(int size) {
+		return Math.max(MINIMUM_USERS, size / MATERIALS_PER_USER);
+	}
+	
+	/**
+	 * Getter method that requests the name of the Organization with the provided index.
+	 * 
+	 * @param index - int value representing an Organization from 0 to ORGANIZATIONS - 1
+	 * @return - Returns a String object naming that Organization
+	 */
+	
+	public static String organizationName(int index) {
+		return "Organization " + index;
+	}
+	
+}
@@ -0,0 +1,126 @@
+package version3.benchmark;
+
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import version3.controller.conversion.ConvertModel;
+import version3.controller.conversion.DisplayFormat;
+import version3.model.library.Library;
+import version3.view.CommandLineInterface;
+
+/**
+ * This class measures the ConvertModel functions that turn a whole Catalogue into DisplayFormat objects for the View
+ * (the "View Materials/Users/Organizations" commands). These walk every item, so they are measured as the average
+ * time of one full listing at catalogue sizes from one thousand to ten million Materials. Run with "-prof gc" to add
+ * the allocation rate, which is most of the cost of a listing. streamMaterials() measures the streamed listing that
+ * the CommandLineInterface actually prints, which keeps memory constant however large the Catalogue is.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+public class ListingBenchmark {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** int value representing how many Materials the Library is stocked with*/
+	@Param({"1000", "100000", "1000000", "10000000"})
+	public int size;
+	/** Library object being listed*/
+	private Library library;
+	/** ConvertModel object whose listings are measured*/
+	private ConvertModel convert;
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that builds the Library, and checks out one Material for every User so their listings include a loan.
+	 * 
+	 */
+	
+	@Setup
+	public void setup() {
+		library = LibraryFixture.build(LibraryFixture.IMPLEMENTATION_LIBRARY, size);
+		convert = new ConvertModel(library);
+		int users = LibraryFixture.countUsers(size);
+		for(int i = 0; i < users && i < size; i++) {
+			library.checkoutMaterial(i, i);
+		}
+	}
+	
+	/**
+	 * Benchmark of listing every Material.
+	 * 
+	 * @return - Returns the listing, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public ArrayList<DisplayFormat> materialData() {
+		return convert.getMaterialData();
+	}
+	
+	/**
+	 * Benchmark of listing every User (which also formats each User's checked out Materials). The View collects each
+	 * User's held Material formats from the ConvertModel after listing them, so the benchmark does too; otherwise the
+	 * ConvertModel would keep every one of them between calls.
+	 * 
+	 * @return - Returns the listing, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public ArrayList<DisplayFormat> userData() {
+		ArrayList<DisplayFormat> out = convert.getUserData();
+		for(DisplayFormat d : out) {
+			for(int i = 2; i < d.getData().size(); i++) {
+				convert.getHeldDisplayFormat(d.getIndexData(i));
+			}
+		}
+		return out;
+	}
+	
+	/**
+	 * Benchmark of listing every Organization.
+	 * 
+	 * @return - Returns the listing, so that the work cannot be optimised away
+	 */
+	
+	@Benchmark
+	public ArrayList<DisplayFormat> organizationData() {
+		return convert.getOrganizationData();
+	}
+	
+	/**
+	 * Benchmark of printing every Material the way the "View Materials" command does, streaming each row through
+	 * the CommandLineInterface into a Writer that discards it; compare with materialData() to see the cost of building
+	 * the whole list first.
+	 * 
+	 */
+	
+	@Benchmark
+	public void streamMaterials() {
+		CommandLineInterface.assignConvertModel(convert);
+		CommandLineInterface.assignOutput(Writer.nullWriter());
+		CommandLineInterface.displayMaterials();
+	}
+	
+}
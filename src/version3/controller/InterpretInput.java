@@ -1,7 +1,12 @@
 package version3.controller;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
+import version3.controller.bulk.BulkLoader;
+import version3.controller.bulk.LoadReport;
+
 import version3.model.library.Library;
 import version3.view.CommandLineInterface;
 
@@ -30,6 +35,13 @@ import version3.view.CommandLineInterface;
 
 public class InterpretInput {
 	
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value representing how many rows a page holds when the user does not give a page size*/
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	/** int value representing the most Materials a search displays*/
+	private static final int SEARCH_LIMIT = 50;
+	
 //---  Instance Variables   -------------------------------------------------------------------
 	
 	/** Library object that provides a reference to the Model for the InterpretInput class to manipulate when the user input directs such to happen*/
@@ -80,6 +92,24 @@ public class InterpretInput {
 			case "view organizations":
 				CommandLineInterface.displayOrganizations();
 				break;
+			case "page users":
+			case "page materials":
+			case "page organizations":
+				CommandLineInterface.displayText("Please provide the page size and, to continue a listing, the cursor shown after its last page in a single, space separated, line.");
+				String[] page = sc.nextLine().trim().split("\\s+");
+				try {
+					int size = page[0].isEmpty() ? DEFAULT_PAGE_SIZE : Integer.parseInt(page[0]);
+					String cursor = page.length > 1 ? page[1] : null;
+					switch(input.toLowerCase()) {
+						case "page users": CommandLineInterface.displayUserPage(cursor, size); break;
+						case "page materials": CommandLineInterface.displayMaterialPage(cursor, size); break;
+						default: CommandLineInterface.displayOrganizationPage(cursor, size); break;
+					}
+				}
+				catch(NumberFormatException e) {
+					CommandLineInterface.displayText("System failed to display page: Invalid page size or cursor");
+				}
+				break;
 			case "add material": 
 				CommandLineInterface.displayText("Please provide the Material ID Number and the Material Type (Book, DVD, or Journal) in a single, space separated, line.");
 				input = sc.nextLine();
@@ -91,6 +121,29 @@ public class InterpretInput {
 					CommandLineInterface.displayText("System failed to add Material, please try again.");
 				}
 				break;
+			case "describe material":
+				CommandLineInterface.displayText("Please provide the Material ID Number, its title, its author, and its keywords (separated by commas) on separate lines.");
+				try {
+					int id = Integer.parseInt(sc.nextLine().trim());
+					String title = sc.nextLine().trim();
+					String author = sc.nextLine().trim();
+					String keywords = sc.nextLine().trim();
+					result = library.describeMaterial(id, title.isEmpty() ? null : title, author.isEmpty() ? null : author, keywords.isEmpty() ? null : keywords.split("\\s*,\\s*"));
+					if(result) {
+						CommandLineInterface.displayText("Material successfully described, please use the command 'search materials' to find it.");
+					}
+					else {
+						CommandLineInterface.displayText("System failed to describe Material, please try again.");
+					}
+				}
+				catch(NumberFormatException e) {
+					CommandLineInterface.displayText("System failed to describe Material: Invalid integer entry");
+				}
+				break;
+			case "search materials":
+				CommandLineInterface.displayText("Please provide the words to search for in a single, space separated, line; end a word with '*' to match any word starting with it.");
+				CommandLineInterface.displayMaterialSearch(sc.nextLine(), SEARCH_LIMIT);
+				break;
 			case "add user": 
 				CommandLineInterface.displayText("Please provide the User ID Number and their Organization in a single, space separated, line.");
 				input = sc.nextLine();
@@ -135,6 +188,22 @@ public class InterpretInput {
 					CommandLineInterface.displayText("System failed to return Material, please try again.");
 				}
 				break;
+			case "reserve material": 
+				CommandLineInterface.displayText("Please provide the User ID Number that is reserving the Material and Material ID Number of the Material being reserved in a single, space separated, line.");
+				input = sc.nextLine();
+				try {
+					result = library.reserveMaterial(Integer.parseInt(input.split(" ")[0]), Integer.parseInt(input.split(" ")[1]));
+					if(result) {
+						CommandLineInterface.displayText("Material successfully reserved, it will be checked out to this User when it is their turn.");
+					}
+					else {
+						CommandLineInterface.displayText("System failed to reserve Material, please try again.");
+					}
+				}
+				catch(NumberFormatException | ArrayIndexOutOfBoundsException e) {
+					CommandLineInterface.displayText("System failed to reserve Material: Please provide a User ID Number and a Material ID Number, such as '7 12'");
+				}
+				break;
 			case "pay fee": 
 				CommandLineInterface.displayText("Please provide the Organization name and the amount being paid to their account on separate lines.");
 				try {
@@ -150,6 +219,32 @@ public class InterpretInput {
 					CommandLineInterface.displayText("System failed to pay fee: Invalid integer entry");
 				}
 				break;
+			case "bulk load":
+				CommandLineInterface.displayText("Please provide what is being loaded (Materials, Users, or Organizations) and the path of the file in a single, space separated, line.");
+				input = sc.nextLine();
+				try {
+					String kind = input.split(" ", 2)[0].toLowerCase();
+					BulkLoader loader = new BulkLoader(library);
+					LoadReport report;
+					switch(kind) {
+						case "materials": report = loader.loadMaterials(Paths.get(input.split(" ", 2)[1])); break;
+						case "users": report = loader.loadUsers(Paths.get(input.split(" ", 2)[1])); break;
+						case "organizations": report = loader.loadOrganizations(Paths.get(input.split(" ", 2)[1])); break;
+						default: report = null; break;
+					}
+					if(report == null) {
+						CommandLineInterface.displayText("System failed to load: unrecognized kind '" + kind + "', please try again.");
+						break;
+					}
+					CommandLineInterface.displayText("Loaded " + report.getRowsLoaded() + " " + kind + ", rejected " + report.getRowsRejected() + ".");
+					for(String error : report.getErrors()) {
+						CommandLineInterface.displayText(" - " + error);
+					}
+				}
+				catch(IOException | ArrayIndexOutOfBoundsException e) {
+					CommandLineInterface.displayText("System failed to load file, please try again.");
+				}
+				break;
 			case "help": 
 				CommandLineInterface.libraryInputCommands();
 				break;
@@ -1,7 +1,11 @@
 package version3.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Scanner;
 
+import version3.controller.batch.BatchInterpreter;
 import version3.controller.conversion.ConvertModel;
 import version3.model.library.Library;
 import version3.view.CommandLineInterface;
@@ -31,6 +35,9 @@ import version3.view.CommandLineInterface;
  * MainController assume it will receive a prepared Library for usage as a Model. It's a case-by-case basis
  * on whether or not you want the Controller to generate the Model or not, do what works in your project.
  * 
+ * The second constructor skips the View and the prompts entirely and hands a stream of one-line commands to a
+ * BatchInterpreter, for driving the Library from scripts (migrations, replays) as fast as it can go.
+ * 
  * @author Ada Clevinger
  * @version 3.0
  *
@@ -67,6 +74,21 @@ public class MainController {
 		runProgram();
 	}
 	
+	/**
+	 * Constructor for the MainController Class that runs the Library in batch mode instead of interactively: the
+	 * commands are read from the provided InputStream one per line with no prompts, and answered with result codes
+	 * on the provided OutputStream (see BatchInterpreter for the format). The View is not used at all.
+	 * 
+	 * @param in - Library object representing the Model that the commands are run against
+	 * @param input - InputStream object, such as System.in or a script file, that commands are read from
+	 * @param output - OutputStream object that the result codes are written to
+	 * @throws IOException - Thrown if either stream fails
+	 */
+	
+	public MainController(Library in, InputStream input, OutputStream output) throws IOException {
+		new BatchInterpreter(in).run(input, output);
+	}
+	
 //---  Operations   ---------------------------------------------------------------------------
 	
 	/**
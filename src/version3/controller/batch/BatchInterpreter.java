@@ -0,0 +1,478 @@
+package version3.controller.batch;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import version3.model.library.Library;
+
+/**
+ * This Class serves as the portion of the Controller that runs a stream of commands against the Library without any
+ * prompts, for scripted migrations and for replaying recorded traffic. Where InterpretInput asks for each command's
+ * arguments on a second line and answers in sentences, this reads one whole command per line and answers each with a
+ * line of result codes.
+ *
+ * Fields are separated by spaces or tabs; blank lines and lines starting with '#' are skipped, and a line reading 'end'
+ * stops the run:
+ *
+ * 		stock id type					(for example: stock 12 Book)
+ * 		enrol id organization			(for example: enrol 7 Frontier Militia)
+ * 		organization name				(for example: organization Frontier Militia)
+ * 		checkout userId materialId...	(for example: checkout 7 12 13)
+ * 		return userId materialId...		(for example: return 7 12)
+ * 		pay amount organization			(for example: pay 20 Frontier Militia)
+ *
+ * An Organization name is always the rest of the line, so it may contain spaces. A checkout or return of one Material
+ * is answered with one code; one of several Materials is done as an all-or-nothing batch and answered with a code for
+ * each Material, separated by spaces. The codes are the Library's RESULT_... values, plus CODE_REFUSED for a stock,
+ * enrol, organization or pay command that the Library refused and CODE_MALFORMED for a line that could not be read;
+ * these two follow on from the last RESULT_... value so that no code means two things.
+ * A command that fails with an exception inside the Library is also answered with CODE_MALFORMED, and the run carries
+ * on with the next line rather than ending (which, on a LibraryServer, would drop the client's whole session).
+ *
+ * To keep up with hundreds of thousands of commands a second, the input is parsed straight from a byte buffer (numbers
+ * are never turned into Strings first), the most recent MaterialType and Organization names are reused rather than
+ * decoded again, and the codes are written into a byte buffer that is only sent when it fills up or when there is no
+ * more input waiting, so that someone typing (or a client waiting on a socket) still sees each answer straight away.
+ *
+ * A BatchInterpreter is not safe to share between threads; give each stream its own (they may share a Library if it
+ * is a ConcurrentLibrary).
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class BatchInterpreter {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value reported when the Library refused a stock, enrol, organization or pay command; the first code past the Library's RESULT_... values*/
+	public static final int CODE_REFUSED = Library.RESULT_RESERVED + 1;
+	/** int value reported when a line was not a command this class knows, its arguments could not be read, or it failed*/
+	public static final int CODE_MALFORMED = CODE_REFUSED + 1;
+	/** int value denoting the size, in bytes, of the input and output buffers (the input buffer grows for longer lines)*/
+	private static final int BUFFER_SIZE = 64 * 1024;
+	/** byte[] holding the keyword of the stock command*/
+	private static final byte[] STOCK = bytes("stock");
+	/** byte[] holding the keyword of the enrol command*/
+	private static final byte[] ENROL = bytes("enrol");
+	/** byte[] holding the keyword of the organization command*/
+	private static final byte[] ORGANIZATION = bytes("organization");
+	/** byte[] holding the keyword of the checkout command*/
+	private static final byte[] CHECKOUT = bytes("checkout");
+	/** byte[] holding the keyword of the return command*/
+	private static final byte[] RETURN = bytes("return");
+	/** byte[] holding the keyword of the pay command*/
+	private static final byte[] PAY = bytes("pay");
+	/** byte[] holding the keyword that ends a run*/
+	private static final byte[] END = bytes("end");
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** Library object that commands are run against*/
+	private Library library;
+	/** InputStream object that commands are being read from*/
+	private InputStream source;
+	/** OutputStream object that result codes are being written to*/
+	private OutputStream sink;
+	/** byte[] holding input that has been read but not yet run, between start and limit*/
+	private byte[] input;
+	/** int value representing the offset in input of the first byte not yet run*/
+	private int start;
+	/** int value representing the offset in input just past the last byte read*/
+	private int limit;
+	/** int value representing the offset in input that the line being run has been read up to*/
+	private int at;
+	/** int value representing the offset in input just past the end of the line being run*/
+	private int end;
+	/** byte[] holding result codes waiting to be written*/
+	private byte[] output;
+	/** int value representing how many bytes of output are waiting to be written*/
+	private int pending;
+	/** int[] holding the Material ids of the checkout or return being run*/
+	private int[] items;
+	/** byte[] holding the name that typeName was decoded from*/
+	private byte[] typeBytes;
+	/** String object representing the MaterialType name most recently read*/
+	private String typeName;
+	/** byte[] holding the name that organizationName was decoded from*/
+	private byte[] organizationBytes;
+	/** String object representing the Organization name most recently read*/
+	private String organizationName;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the BatchInterpreter class that assigns the Library that commands are run against.
+	 *
+	 * @param in - Library object that this BatchInterpreter runs commands against
+	 */
+
+	public BatchInterpreter(Library in) {
+		library = in;
+		input = new byte[BUFFER_SIZE];
+		output = new byte[BUFFER_SIZE];
+		items = new int[16];
+		typeBytes = new byte[0];
+		organizationBytes = new byte[0];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that runs every command read from the provided InputStream, writing a line of result codes for each to
+	 * the provided OutputStream, until the input ends or a line reads 'end'. Neither stream is closed.
+	 *
+	 * @param in - InputStream object that commands are read from
+	 * @param out - OutputStream object that result codes are written to
+	 * @return - Returns a long value representing how many commands were run (skipped lines are not counted)
+	 * @throws IOException - Thrown if either stream fails
+	 */
+
+	public long run(InputStream in, OutputStream out) throws IOException {
+		source = in;
+		sink = out;
+		start = 0;
+		limit = 0;
+		pending = 0;
+		long count = 0;
+		try {
+			while(nextLine()) {
+				at = start;
+				skipSpaces();
+				if(at == end || input[at] == '#') {
+					start = end + 1;
+					continue;
+				}
+				int first = at;
+				if(matchWord(END) && atEnd()) {
+					break;
+				}
+				at = first;
+				try {
+					interpret();
+				}
+				catch(RuntimeException e) {
+					writeCode(CODE_MALFORMED);
+				}
+				writeByte('\n');
+				start = end + 1;
+				count++;
+			}
+		}
+		finally {
+			flush();
+		}
+		return count;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that runs the command on the current line (between at and end) and writes its result codes.
+	 *
+	 * @throws IOException - Thrown if the result codes cannot be written
+	 */
+
+	private void interpret() throws IOException {
+		if(matchWord(STOCK)) {
+			int id = readInt();
+			String type = readType();
+			writeCode(id == Integer.MIN_VALUE || type == null || !atEnd() ? CODE_MALFORMED : refusal(library.stockMaterial(id, type)));
+		}
+		else if(matchWord(ENROL)) {
+			int id = readInt();
+			String organization = readOrganization();
+			writeCode(id == Integer.MIN_VALUE || organization == null ? CODE_MALFORMED : refusal(library.enrolUser(id, organization)));
+		}
+		else if(matchWord(ORGANIZATION)) {
+			String organization = readOrganization();
+			writeCode(organization == null ? CODE_MALFORMED : refusal(library.addOrganization(organization)));
+		}
+		else if(matchWord(PAY)) {
+			int amount = readInt();
+			String organization = readOrganization();
+			writeCode(amount == Integer.MIN_VALUE || organization == null ? CODE_MALFORMED : refusal(library.payFee(organization, amount)));
+		}
+		else {
+			boolean checkout = matchWord(CHECKOUT);
+			if(!checkout && !matchWord(RETURN)) {
+				writeCode(CODE_MALFORMED);
+				return;
+			}
+			int user = readInt();
+			int count = readItems();
+			if(user == Integer.MIN_VALUE || count <= 0) {
+				writeCode(CODE_MALFORMED);
+			}
+			else if(count == 1) {
+				writeCode(checkout ? library.checkoutMaterialResult(user, items[0]) : library.returnMaterialResult(user, items[0]));
+			}
+			else {
+				int[] batch = Arrays.copyOf(items, count);
+				int[] results = checkout ? library.checkoutMaterials(user, batch) : library.returnMaterials(user, batch);
+				for(int i = 0; i < results.length; i++) {
+					if(i > 0) {
+						writeByte(' ');
+					}
+					writeCode(results[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Helper method that finds the next line of input, reading more from the source as needed, and sets end to the
+	 * offset of its terminating newline (or of the end of the input if the last line has none).
+	 *
+	 * @return - Returns a boolean value; true if there is another line, false if the input has ended
+	 * @throws IOException - Thrown if the source cannot be read
+	 */
+
+	private boolean nextLine() throws IOException {
+		int scan = start;
+		while(true) {
+			for(; scan < limit; scan++) {
+				if(input[scan] == '\n') {
+					end = scan;
+					return true;
+				}
+			}
+			if(start > 0) {
+				System.arraycopy(input, start, input, 0, limit - start);
+				scan -= start;
+				limit -= start;
+				start = 0;
+			}
+			if(limit == input.length) {
+				input = Arrays.copyOf(input, input.length * 2);
+			}
+			if(source.available() <= 0) {
+				flush();
+			}
+			int read = source.read(input, limit, input.length - limit);
+			if(read < 0) {
+				if(limit > start) {
+					input[limit] = '\n';
+					end = limit++;
+					return true;
+				}
+				return false;
+			}
+			limit += read;
+		}
+	}
+
+	/**
+	 * Helper method that moves at past any spaces, tabs or carriage returns on the current line.
+	 *
+	 */
+
+	private void skipSpaces() {
+		while(at < end && (input[at] == ' ' || input[at] == '\t' || input[at] == '\r')) {
+			at++;
+		}
+	}
+
+	/**
+	 * Helper method that reports whether nothing but spaces is left on the current line.
+	 *
+	 * @return - Returns a boolean value; true if the rest of the line is blank, false otherwise
+	 */
+
+	private boolean atEnd() {
+		skipSpaces();
+		return at == end;
+	}
+
+	/**
+	 * Helper method that checks, ignoring case, whether the next field on the current line is the provided keyword; if
+	 * so, at is moved past it.
+	 *
+	 * @param word - byte[] holding the keyword, in lower case
+	 * @return - Returns a boolean value; true if the keyword was matched, false otherwise
+	 */
+
+	private boolean matchWord(byte[] word) {
+		if(end - at < word.length) {
+			return false;
+		}
+		for(int i = 0; i < word.length; i++) {
+			if((input[at + i] | 0x20) != word[i]) {
+				return false;
+			}
+		}
+		int after = at + word.length;
+		if(after < end && input[after] != ' ' && input[after] != '\t' && input[after] != '\r') {
+			return false;
+		}
+		at = after;
+		return true;
+	}
+
+	/**
+	 * Helper method that reads an int field from the current line.
+	 *
+	 * @return - Returns the int value read, or Integer.MIN_VALUE if the next field is not an int
+	 */
+
+	private int readInt() {
+		skipSpaces();
+		boolean negative = at < end && input[at] == '-';
+		int from = negative ? at + 1 : at;
+		long value = 0;
+		int i = from;
+		for(; i < end && input[i] >= '0' && input[i] <= '9'; i++) {
+			value = value * 10 + (input[i] - '0');
+			if(value > Integer.MAX_VALUE) {
+				return Integer.MIN_VALUE;
+			}
+		}
+		if(i == from || (i < end && input[i] != ' ' && input[i] != '\t' && input[i] != '\r')) {
+			return Integer.MIN_VALUE;
+		}
+		at = i;
+		return (int)(negative ? -value : value);
+	}
+
+	/**
+	 * Helper method that reads the Material ids of a checkout or return into items.
+	 *
+	 * @return - Returns an int value representing how many ids were read, or -1 if a field was not an int
+	 */
+
+	private int readItems() {
+		int count = 0;
+		while(!atEnd()) {
+			int id = readInt();
+			if(id == Integer.MIN_VALUE) {
+				return -1;
+			}
+			if(count == items.length) {
+				items = Arrays.copyOf(items, count * 2);
+			}
+			items[count++] = id;
+		}
+		return count;
+	}
+
+	/**
+	 * Helper method that reads a MaterialType name (a single field) from the current line, reusing the last name read
+	 * if it is the same.
+	 *
+	 * @return - Returns a String object representing the name, or null if there is no field left
+	 */
+
+	private String readType() {
+		skipSpaces();
+		int from = at;
+		while(at < end && input[at] != ' ' && input[at] != '\t' && input[at] != '\r') {
+			at++;
+		}
+		if(at == from) {
+			return null;
+		}
+		if(!Arrays.equals(input, from, at, typeBytes, 0, typeBytes.length)) {
+			typeBytes = Arrays.copyOfRange(input, from, at);
+			typeName = new String(typeBytes, StandardCharsets.UTF_8);
+		}
+		return typeName;
+	}
+
+	/**
+	 * Helper method that reads an Organization name (the rest of the line, without surrounding spaces), reusing the last
+	 * name read if it is the same.
+	 *
+	 * @return - Returns a String object representing the name, or null if the rest of the line is blank
+	 */
+
+	private String readOrganization() {
+		skipSpaces();
+		int to = end;
+		while(to > at && (input[to - 1] == ' ' || input[to - 1] == '\t' || input[to - 1] == '\r')) {
+			to--;
+		}
+		if(to == at) {
+			return null;
+		}
+		if(!Arrays.equals(input, at, to, organizationBytes, 0, organizationBytes.length)) {
+			organizationBytes = Arrays.copyOfRange(input, at, to);
+			organizationName = new String(organizationBytes, StandardCharsets.UTF_8);
+		}
+		at = end;
+		return organizationName;
+	}
+
+	/**
+	 * Helper method that turns the boolean result of a stock, enrol, organization or pay command into a code.
+	 *
+	 * @param success - boolean value representing whether the Library carried out the command
+	 * @return - Returns an int value of Library.RESULT_SUCCESS or CODE_REFUSED
+	 */
+
+	private static int refusal(boolean success) {
+		return success ? Library.RESULT_SUCCESS : CODE_REFUSED;
+	}
+
+	/**
+	 * Helper method that writes a result code, as decimal digits, to the output buffer.
+	 *
+	 * @param code - int value representing a non-negative result code
+	 * @throws IOException - Thrown if the output buffer was full and could not be written
+	 */
+
+	private void writeCode(int code) throws IOException {
+		if(code < 10) {
+			writeByte('0' + code);
+		}
+		else {
+			byte[] digits = bytes(Integer.toString(code));
+			for(byte b : digits) {
+				writeByte(b);
+			}
+		}
+	}
+
+	/**
+	 * Helper method that adds a byte to the output buffer, writing the buffer out first if it is full.
+	 *
+	 * @param b - int value holding the byte to add
+	 * @throws IOException - Thrown if the output buffer was full and could not be written
+	 */
+
+	private void writeByte(int b) throws IOException {
+		if(pending == output.length) {
+			flush();
+		}
+		output[pending++] = (byte)b;
+	}
+
+	/**
+	 * Helper method that writes out and flushes whatever is waiting in the output buffer.
+	 *
+	 * @throws IOException - Thrown if the output cannot be written
+	 */
+
+	private void flush() throws IOException {
+		if(pending > 0) {
+			sink.write(output, 0, pending);
+			pending = 0;
+		}
+		sink.flush();
+	}
+
+	/**
+	 * Helper method that encodes a keyword as bytes.
+	 *
+	 * @param text - String object holding the keyword
+	 * @return - Returns a byte[] holding the keyword's UTF-8 bytes
+	 */
+
+	private static byte[] bytes(String text) {
+		return text.getBytes(StandardCharsets.UTF_8);
+	}
+
+}
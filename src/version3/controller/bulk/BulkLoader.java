@@ -0,0 +1,525 @@
+package version3.controller.bulk;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import version3.model.library.Library;
+
+/**
+ * This Class serves as the portion of the Controller that loads a Library from files in one go, instead
+ * of having every Material, User and Organization typed in through the prompts of InterpretInput.
+ *
+ * Each file holds one record per line, with fields separated by a comma or a tab (whichever comes first
+ * on the line); blank lines and lines starting with '#' are skipped:
+ *
+ * 		Materials:		id, type			(for example: 12, Book)
+ * 		Users:			id, organization	(for example: 7, Frontier Militia)
+ * 		Organizations:	name
+ *
+ * The text field is always the rest of the line, so Organization names may contain commas or spaces.
+ *
+ * The file is split into chunks that end on line boundaries, and each chunk is memory-mapped and parsed
+ * into plain int and String arrays on the common ForkJoinPool. Parsing runs ahead of loading by at most
+ * PARSE_AHEAD chunks: the calling thread waits for the oldest chunk, grows the Library's Catalogues for its
+ * rows, adds them in file order (the Catalogues are not safe to add to from several threads), drops the
+ * chunk and starts parsing the next one. Only a few chunks are ever held at once, so a file of tens of
+ * millions of rows is streamed through in the memory of a few chunks. Within a chunk, a type or organization
+ * name that repeats a recent one reuses the same String rather than decoding a new one for every row.
+ * Rows go through the same Library functions that the interactive commands use, so a bulk-loaded Library
+ * obeys the same rules.
+ *
+ * Rows that can't be parsed or that the Library refuses (duplicate ids, unknown Material types) are
+ * skipped and described in the returned LoadReport with their line number.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class BulkLoader {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting the approximate size, in bytes, of each chunk of a file that is parsed on its own*/
+	private static final int CHUNK_SIZE = 16 * 1024 * 1024;
+	/** int value denoting how many bytes past a tentative chunk end are mapped at once while looking for the end of the line*/
+	private static final int BOUNDARY_WINDOW = 64 * 1024;
+	/** int value denoting how many chunks may be parsed, or waiting to be added, at once*/
+	private static final int PARSE_AHEAD = Runtime.getRuntime().availableProcessors() + 1;
+	/** int value denoting how many recently read names each chunk remembers so that repeats share one String*/
+	private static final int RECENT_TEXTS = 8;
+	/** int value denoting a file of Materials (id and type on each line)*/
+	private static final int KIND_MATERIAL = 0;
+	/** int value denoting a file of Users (id and organization on each line)*/
+	private static final int KIND_USER = 1;
+	/** int value denoting a file of Organizations (a name on each line)*/
+	private static final int KIND_ORGANIZATION = 2;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** Library object that rows are loaded into*/
+	private Library library;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the BulkLoader class that assigns the Library that files will be loaded into.
+	 *
+	 * @param in - Library object that this BulkLoader adds Materials, Users and Organizations to
+	 */
+
+	public BulkLoader(Library in) {
+		library = in;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that stocks the Library with every Material described in the provided file.
+	 *
+	 * @param file - Path object representing a file of 'id, type' lines
+	 * @return - Returns a LoadReport object describing how many Materials were stocked and which rows were rejected
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	public LoadReport loadMaterials(Path file) throws IOException {
+		return load(file, KIND_MATERIAL);
+	}
+
+	/**
+	 * Function that enrols every User described in the provided file into the Library, adding their
+	 * Organizations as needed.
+	 *
+	 * @param file - Path object representing a file of 'id, organization' lines
+	 * @return - Returns a LoadReport object describing how many Users were enrolled and which rows were rejected
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	public LoadReport loadUsers(Path file) throws IOException {
+		return load(file, KIND_USER);
+	}
+
+	/**
+	 * Function that adds every Organization named in the provided file to the Library.
+	 *
+	 * @param file - Path object representing a file with one Organization name per line
+	 * @return - Returns a LoadReport object describing how many Organizations were added and which rows were rejected
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	public LoadReport loadOrganizations(Path file) throws IOException {
+		return load(file, KIND_ORGANIZATION);
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that runs a load: chunks of the file are parsed on the common ForkJoinPool, at most PARSE_AHEAD at
+	 * a time, and each is added to the Library in file order as soon as it and every chunk before it are done.
+	 *
+	 * @param file - Path object representing the file being loaded
+	 * @param kind - int value representing which KIND_... of records the file holds
+	 * @return - Returns a LoadReport object describing the outcome of the load
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	private LoadReport load(Path file, int kind) throws IOException {
+		LoadReport report = new LoadReport(file.getFileName().toString());
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			List<long[]> bounds = findChunks(channel);
+			ArrayDeque<Future<ParsedChunk>> parsing = new ArrayDeque<Future<ParsedChunk>>();
+			int next = 0;
+			long firstLine = 1;
+			try {
+				while(next < bounds.size() || !parsing.isEmpty()) {
+					while(next < bounds.size() && parsing.size() < PARSE_AHEAD) {
+						long[] b = bounds.get(next++);
+						parsing.add(ForkJoinPool.commonPool().submit(() -> parseChunk(channel, b[0], b[1], kind)));
+					}
+					ParsedChunk c = await(parsing.poll());
+					ensureCapacity(kind, c.count);
+					firstLine = applyChunk(c, kind, firstLine, report);
+				}
+			}
+			finally {
+				for(Future<ParsedChunk> f : parsing) {
+					f.cancel(true);
+				}
+			}
+		}
+		return report;
+	}
+
+	/**
+	 * Helper method that adds the rows of a parsed chunk to the Library in order, reporting each rejected row and each
+	 * line that failed to parse at its absolute line number.
+	 *
+	 * @param c - ParsedChunk object holding the rows and errors of the chunk
+	 * @param kind - int value representing which KIND_... of records the file holds
+	 * @param firstLine - long value representing the line number of the first line of the chunk
+	 * @param report - LoadReport object that the outcome of each row is recorded in
+	 * @return - Returns a long value representing the line number of the first line of the next chunk
+	 */
+
+	private long applyChunk(ParsedChunk c, int kind, long firstLine, LoadReport report) {
+		int error = 0;
+		for(int i = 0; i < c.count; i++) {
+			while(error < c.errorCount && c.errorLines[error] < c.lines[i]) {
+				report.recordRejected(firstLine + c.errorLines[error], c.errorMessages.get(error));
+				error++;
+			}
+			if(apply(kind, c.ids[i], c.texts[i])) {
+				report.recordLoaded();
+			}
+			else {
+				report.recordRejected(firstLine + c.lines[i], kind == KIND_MATERIAL ? "duplicate id or unknown Material type" : "duplicate entry");
+			}
+		}
+		while(error < c.errorCount) {
+			report.recordRejected(firstLine + c.errorLines[error], c.errorMessages.get(error));
+			error++;
+		}
+		return firstLine + c.lineCount;
+	}
+
+	/**
+	 * Helper method that grows the Catalogue being loaded so that the provided number of new rows fit without it
+	 * resizing part way through a chunk.
+	 *
+	 * @param kind - int value representing which KIND_... of records the file holds
+	 * @param rows - int value representing how many rows are about to be added
+	 */
+
+	private void ensureCapacity(int kind, int rows) {
+		if(kind == KIND_MATERIAL) {
+			library.getMaterialCatalogue().ensureCapacity(library.getMaterialCatalogue().getSize() + rows);
+		}
+		else if(kind == KIND_USER) {
+			library.getUserCatalogue().ensureCapacity(library.getUserCatalogue().getSize() + rows);
+		}
+		else {
+			library.getOrganizationCatalogue().ensureCapacity(library.getOrganizationCatalogue().getSize() + rows);
+		}
+	}
+
+	/**
+	 * Helper method that waits for a chunk to be parsed, passing on whatever stopped it.
+	 *
+	 * @param parsing - Future<<r>ParsedChunk> object representing the chunk being parsed
+	 * @return - Returns the ParsedChunk object holding the chunk's rows and errors
+	 * @throws IOException - Thrown if the chunk could not be read, or if the wait was interrupted
+	 */
+
+	private static ParsedChunk await(Future<ParsedChunk> parsing) throws IOException {
+		try {
+			return parsing.get();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while parsing a bulk load");
+		}
+		catch(ExecutionException e) {
+			Throwable cause = e.getCause();
+			if(cause instanceof IOException) {
+				throw (IOException)cause;
+			}
+			if(cause instanceof Error) {
+				throw (Error)cause;
+			}
+			throw (RuntimeException)cause;
+		}
+	}
+
+	/**
+	 * Helper method that adds a single parsed row to the Library.
+	 *
+	 * @param kind - int value representing which KIND_... of record the row is
+	 * @param id - int value representing the id field of the row (unused for Organizations)
+	 * @param text - String object representing the text field of the row
+	 * @return - Returns a boolean value signifying whether or not the Library accepted the row
+	 */
+
+	private boolean apply(int kind, int id, String text) {
+		switch(kind) {
+			case KIND_MATERIAL:
+				return library.stockMaterial(id, text);
+			case KIND_USER:
+				return library.enrolUser(id, text);
+			default:
+				return library.addOrganization(text);
+		}
+	}
+
+	/**
+	 * Helper method that splits a file into chunks of roughly CHUNK_SIZE bytes, moving the end of each chunk
+	 * forward to just after the next line break so that no line is split between two chunks.
+	 *
+	 * @param channel - FileChannel object open on the file being split
+	 * @return - Returns a List<<r>long[]> object whose entries are the {start, end} byte offsets of each chunk
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	private static List<long[]> findChunks(FileChannel channel) throws IOException {
+		List<long[]> out = new ArrayList<long[]>();
+		long size = channel.size();
+		long start = 0;
+		while(start < size) {
+			long end = Math.min(start + CHUNK_SIZE, size);
+			while(end < size) {
+				MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, end, Math.min(BOUNDARY_WINDOW, size - end));
+				int found = -1;
+				for(int i = 0; i < window.limit() && found < 0; i++) {
+					if(window.get(i) == '\n') {
+						found = i;
+					}
+				}
+				if(found >= 0) {
+					end += found + 1;
+					break;
+				}
+				end += window.limit();
+			}
+			out.add(new long[] {start, end});
+			start = end;
+		}
+		return out;
+	}
+
+	/**
+	 * Helper method that maps one chunk of the file and parses each of its lines into the id and text fields
+	 * of a row, recording a message for any line that cannot be parsed. Line numbers are kept relative to the
+	 * chunk and are made absolute when the chunk is added, once every chunk before it has been.
+	 *
+	 * @param channel - FileChannel object open on the file being loaded
+	 * @param start - long value representing the byte offset at which the chunk starts
+	 * @param end - long value representing the byte offset just past the end of the chunk
+	 * @param kind - int value representing which KIND_... of records the file holds
+	 * @return - Returns a ParsedChunk object holding the rows and errors found in the chunk
+	 * @throws IOException - Thrown if the chunk cannot be mapped
+	 */
+
+	private static ParsedChunk parseChunk(FileChannel channel, long start, long end, int kind) throws IOException {
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+		ParsedChunk out = new ParsedChunk();
+		byte[] scratch = new byte[256];
+		int limit = buffer.limit();
+		int pos = 0;
+		while(pos < limit) {
+			int lineEnd = pos;
+			while(lineEnd < limit && buffer.get(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			int next = lineEnd + 1;
+			if(lineEnd > pos && buffer.get(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+			int line = out.lineCount++;
+			pos = skipSpaces(buffer, pos, lineEnd);
+			if(pos < lineEnd && buffer.get(pos) != '#') {
+				int split = pos;
+				if(kind != KIND_ORGANIZATION) {
+					while(split < lineEnd && buffer.get(split) != ',' && buffer.get(split) != '\t') {
+						split++;
+					}
+				}
+				if(kind == KIND_ORGANIZATION) {
+					out.addRow(line, 0, readText(buffer, pos, lineEnd, scratch, out));
+				}
+				else if(split == lineEnd) {
+					out.addError(line, "expected two fields separated by a comma or tab");
+				}
+				else {
+					long id = parseInt(buffer, pos, split);
+					String text = readText(buffer, split + 1, lineEnd, scratch, out);
+					if(id == Long.MIN_VALUE) {
+						out.addError(line, "id is not a valid integer");
+					}
+					else if(text.isEmpty()) {
+						out.addError(line, kind == KIND_MATERIAL ? "missing Material type" : "missing organization");
+					}
+					else {
+						out.addRow(line, (int)id, text);
+					}
+				}
+			}
+			pos = next;
+		}
+		return out;
+	}
+
+	/**
+	 * Helper method that parses the bytes between two offsets (ignoring surrounding spaces) as a signed int.
+	 *
+	 * @param buffer - MappedByteBuffer object holding the chunk being parsed
+	 * @param from - int value representing the offset of the first byte of the field
+	 * @param to - int value representing the offset just past the last byte of the field
+	 * @return - Returns a long value holding the parsed int, or Long.MIN_VALUE if the field is not a valid int
+	 */
+
+	private static long parseInt(MappedByteBuffer buffer, int from, int to) {
+		from = skipSpaces(buffer, from, to);
+		while(to > from && buffer.get(to - 1) == ' ') {
+			to--;
+		}
+		boolean negative = from < to && buffer.get(from) == '-';
+		if(negative) {
+			from++;
+		}
+		if(from == to) {
+			return Long.MIN_VALUE;
+		}
+		long value = 0;
+		for(int i = from; i < to; i++) {
+			int digit = buffer.get(i) - '0';
+			if(digit < 0 || digit > 9) {
+				return Long.MIN_VALUE;
+			}
+			value = value * 10 + digit;
+			if(value > (long)Integer.MAX_VALUE + 1) {
+				return Long.MIN_VALUE;
+			}
+		}
+		value = negative ? -value : value;
+		return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+	}
+
+	/**
+	 * Helper method that decodes the bytes between two offsets (ignoring surrounding spaces) as UTF-8 text, reusing
+	 * the String of a recent field of the chunk with the same bytes.
+	 *
+	 * @param buffer - MappedByteBuffer object holding the chunk being parsed
+	 * @param from - int value representing the offset of the first byte of the field
+	 * @param to - int value representing the offset just past the last byte of the field
+	 * @param scratch - byte[] used to copy the bytes out of the buffer when the field is small enough to fit
+	 * @param chunk - ParsedChunk object whose recently read names are checked first
+	 * @return - Returns a String object holding the text of the field
+	 */
+
+	private static String readText(MappedByteBuffer buffer, int from, int to, byte[] scratch, ParsedChunk chunk) {
+		from = skipSpaces(buffer, from, to);
+		while(to > from && buffer.get(to - 1) == ' ') {
+			to--;
+		}
+		byte[] bytes = to - from <= scratch.length ? scratch : new byte[to - from];
+		buffer.get(from, bytes, 0, to - from);
+		return chunk.intern(bytes, to - from);
+	}
+
+	/**
+	 * Helper method that moves an offset past any spaces.
+	 *
+	 * @param buffer - MappedByteBuffer object holding the chunk being parsed
+	 * @param from - int value representing the offset to start from
+	 * @param to - int value representing the offset that must not be passed
+	 * @return - Returns an int value representing the offset of the first non-space byte (or to, if there is none)
+	 */
+
+	private static int skipSpaces(MappedByteBuffer buffer, int from, int to) {
+		while(from < to && buffer.get(from) == ' ') {
+			from++;
+		}
+		return from;
+	}
+
+	/**
+	 * This private Class holds the rows and errors parsed from one chunk of a file in flat arrays, so that
+	 * chunks can be parsed in parallel and then applied to the Library in order afterwards.
+	 *
+	 */
+
+	private static class ParsedChunk {
+
+		/** int[] object containing the id field of each parsed row*/
+		private int[] ids = new int[1024];
+		/** String[] object containing the text field of each parsed row*/
+		private String[] texts = new String[1024];
+		/** int[] object containing the chunk-relative line index of each parsed row*/
+		private int[] lines = new int[1024];
+		/** int value representing how many rows have been parsed*/
+		private int count;
+		/** int[] object containing the chunk-relative line index of each line that failed to parse*/
+		private int[] errorLines = new int[16];
+		/** ArrayList<<r>String> object containing a message for each line that failed to parse*/
+		private ArrayList<String> errorMessages = new ArrayList<String>();
+		/** int value representing how many lines failed to parse*/
+		private int errorCount;
+		/** int value representing how many lines (of any kind) the chunk contains*/
+		private int lineCount;
+		/** byte[][] object holding the bytes of the names most recently decoded in this chunk*/
+		private byte[][] recentBytes = new byte[RECENT_TEXTS][];
+		/** String[] object holding the names most recently decoded in this chunk, matching recentBytes*/
+		private String[] recentTexts = new String[RECENT_TEXTS];
+		/** int value representing the entry of recentTexts that the next new name replaces*/
+		private int recentNext;
+
+		/**
+		 * Function that records a successfully parsed row.
+		 *
+		 * @param line - int value representing the chunk-relative line index of the row
+		 * @param id - int value representing the id field of the row
+		 * @param text - String object representing the text field of the row
+		 */
+
+		private void addRow(int line, int id, String text) {
+			if(count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+				texts = Arrays.copyOf(texts, count * 2);
+				lines = Arrays.copyOf(lines, count * 2);
+			}
+			ids[count] = id;
+			texts[count] = text;
+			lines[count++] = line;
+		}
+
+		/**
+		 * Function that records a line that could not be parsed.
+		 *
+		 * @param line - int value representing the chunk-relative line index of the line
+		 * @param message - String object describing what was wrong with the line
+		 */
+
+		private void addError(int line, String message) {
+			if(errorCount == errorLines.length) {
+				errorLines = Arrays.copyOf(errorLines, errorCount * 2);
+			}
+			errorLines[errorCount++] = line;
+			errorMessages.add(message);
+		}
+
+		/**
+		 * Function that turns the bytes of a field into a String, returning the same String as a recent field with
+		 * the same bytes so that a type or organization repeated on every row is only decoded now and then.
+		 *
+		 * @param bytes - byte[] holding the field's UTF-8 bytes in its first length entries
+		 * @param length - int value representing how many bytes the field has
+		 * @return - Returns a String object holding the text of the field
+		 */
+
+		private String intern(byte[] bytes, int length) {
+			for(int i = 0; i < RECENT_TEXTS; i++) {
+				if(recentBytes[i] != null && Arrays.equals(recentBytes[i], 0, recentBytes[i].length, bytes, 0, length)) {
+					return recentTexts[i];
+				}
+			}
+			String text = new String(bytes, 0, length, StandardCharsets.UTF_8);
+			recentBytes[recentNext] = Arrays.copyOf(bytes, length);
+			recentTexts[recentNext] = text;
+			recentNext = (recentNext + 1) % RECENT_TEXTS;
+			return text;
+		}
+
+	}
+
+}
@@ -0,0 +1,105 @@
+package version3.controller.bulk;
+
+import java.util.ArrayList;
+
+/**
+ * This class collects the outcome of a BulkLoader run: how many rows were loaded, how many were rejected,
+ * and a message for each rejected row saying which line of which file it was and why it was rejected.
+ * 
+ * Only the first MAXIMUM_ERRORS messages are kept so that a badly formatted file with millions of bad rows
+ * doesn't fill the heap with error Strings; the rejected count still includes every rejected row.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LoadReport {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value denoting the largest number of error messages kept by a LoadReport*/
+	public static final int MAXIMUM_ERRORS = 1000;
+	
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** String object representing the name of the file this LoadReport describes*/
+	private String source;
+	/** long value representing how many rows were successfully loaded*/
+	private long loaded;
+	/** long value representing how many rows were rejected*/
+	private long rejected;
+	/** ArrayList<<r>String> object containing a description of each rejected row (up to MAXIMUM_ERRORS of them)*/
+	private ArrayList<String> errors;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the LoadReport class that starts an empty report about the named file.
+	 * 
+	 * @param name - String object representing the name of the file being loaded
+	 */
+	
+	public LoadReport(String name) {
+		source = name;
+		errors = new ArrayList<String>();
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that records that a row was loaded successfully.
+	 * 
+	 */
+	
+	public void recordLoaded() {
+		loaded++;
+	}
+	
+	/**
+	 * Function that records that a row was rejected, keeping a message about it if there is room.
+	 * 
+	 * @param line - long value representing the (1-based) line number of the rejected row in the file
+	 * @param reason - String object describing why the row was rejected
+	 */
+	
+	public void recordRejected(long line, String reason) {
+		rejected++;
+		if(errors.size() < MAXIMUM_ERRORS) {
+			errors.add(source + ":" + line + ": " + reason);
+		}
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests how many rows were loaded.
+	 * 
+	 * @return - Returns a long value representing the number of rows loaded
+	 */
+	
+	public long getRowsLoaded() {
+		return loaded;
+	}
+	
+	/**
+	 * Getter method that requests how many rows were rejected.
+	 * 
+	 * @return - Returns a long value representing the number of rows rejected
+	 */
+	
+	public long getRowsRejected() {
+		return rejected;
+	}
+	
+	/**
+	 * Getter method that requests the messages describing rejected rows.
+	 * 
+	 * @return - Returns an ArrayList<<r>String> object containing a message per rejected row, in file order (up to MAXIMUM_ERRORS of them)
+	 */
+	
+	public ArrayList<String> getErrors(){
+		return errors;
+	}
+	
+}
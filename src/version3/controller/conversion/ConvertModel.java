@@ -2,7 +2,11 @@ package version3.controller.conversion;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.function.Function;
 
+import version3.model.catalogue.Catalogue;
+import version3.model.catalogue.CatalogueItem;
 import version3.model.library.Library;
 import version3.model.material.Material;
 import version3.model.organization.Organization;
@@ -36,6 +40,11 @@ import version3.model.user.User;
  * Or I could just make DisplayFormat objects hold other DisplayFormat objects. It's a choice. (That I am aware I'm making
  * and writing down in my documentation so other people know a) what I did and b) why I did it).
  * 
+ * The get[type]Data() functions build the whole list of DisplayFormat objects before returning it, which is fine for a
+ * small Library; the iterate[type]Data() functions instead convert each object as the View asks for it, which is what
+ * the CommandLineInterface uses so that viewing millions of Materials never holds them all in memory at once. The
+ * get[type]Page() functions list a Catalogue in id order a page at a time, each page returning a cursor to continue from.
+ * 
  * @author Ada Clevinger
  * @version 3.0
  *
@@ -117,6 +126,8 @@ public class ConvertModel {
 		form.add(m.getMaterialType());
 		int days = m.getDaysCheckedOut();
 		form.add(days == -1 ? null : days + "");
+		form.add(m.getTitle());
+		form.add(m.getAuthor());
 		return new DisplayFormat(TYPE_MATERIAL, form);
 	}
 	
@@ -150,8 +161,9 @@ public class ConvertModel {
 	
 	public ArrayList<DisplayFormat> getUserData(){
 		ArrayList<DisplayFormat> out = new ArrayList<DisplayFormat>();
-		for(User u : library.getUserCatalogue().getUsers()) {
-			out.add(compileUserData(u));
+		Iterator<DisplayFormat> rows = iterateUserData();
+		while(rows.hasNext()) {
+			out.add(rows.next());
 		}
 		return out;
 	}
@@ -166,8 +178,9 @@ public class ConvertModel {
 	
 	public ArrayList<DisplayFormat> getMaterialData(){
 		ArrayList<DisplayFormat> out = new ArrayList<DisplayFormat>();
-		for(Material u : library.getMaterialCatalogue().getMaterials()) {
-			out.add(compileMaterialData(u));
+		Iterator<DisplayFormat> rows = iterateMaterialData();
+		while(rows.hasNext()) {
+			out.add(rows.next());
 		}
 		return out;
 	}
@@ -182,8 +195,99 @@ public class ConvertModel {
 	
 	public ArrayList<DisplayFormat> getOrganizationData(){
 		ArrayList<DisplayFormat> out = new ArrayList<DisplayFormat>();
-		for(Organization u : library.getOrganizationCatalogue().getOrganizations()) {
-			out.add(compileOrganizationData(u));
+		Iterator<DisplayFormat> rows = iterateOrganizationData();
+		while(rows.hasNext()) {
+			out.add(rows.next());
+		}
+		return out;
+	}
+	
+	/**
+	 * Getter method that provides the same DisplayFormat objects as getUserData(), but one at a time as the View asks for
+	 * them, converting each User as it is read from the UserCatalogue; a View that prints each row before asking for the
+	 * next can therefore display any number of Users in constant memory.
+	 * 
+	 * @return - Returns an Iterator<<r>DisplayFormat> over generic data on the User objects in the Model
+	 */
+	
+	public Iterator<DisplayFormat> iterateUserData(){
+		return convert(library.getUserCatalogue().getItems(), item -> compileUserData((User)item));
+	}
+	
+	/**
+	 * Getter method that provides the same DisplayFormat objects as getMaterialData(), but one at a time as the View asks
+	 * for them, converting each Material as it is read from the MaterialsCatalogue.
+	 * 
+	 * @return - Returns an Iterator<<r>DisplayFormat> over generic data on the Material objects in the Model
+	 */
+	
+	public Iterator<DisplayFormat> iterateMaterialData(){
+		return convert(library.getMaterialCatalogue().getItems(), item -> compileMaterialData((Material)item));
+	}
+	
+	/**
+	 * Getter method that provides the same DisplayFormat objects as getOrganizationData(), but one at a time as the View
+	 * asks for them, converting each Organization as it is read from the OrganizationCatalogue.
+	 * 
+	 * @return - Returns an Iterator<<r>DisplayFormat> over generic data on the Organization objects in the Model
+	 */
+	
+	public Iterator<DisplayFormat> iterateOrganizationData(){
+		return convert(library.getOrganizationCatalogue().getItems(), item -> compileOrganizationData((Organization)item));
+	}
+	
+	/**
+	 * Getter method that requests one page of the User listing, in ascending id order, starting from the provided cursor.
+	 * 
+	 * @param cursor - String object representing the cursor returned with the previous page, or null for the first page
+	 * @param size - int value representing the most rows the page may hold
+	 * @return - Returns a DisplayPage object containing the page's rows and the cursor for the next page
+	 * @throws NumberFormatException - Thrown if the cursor was not produced by this class
+	 */
+	
+	public DisplayPage getUserPage(String cursor, int size) {
+		return page(library.getUserCatalogue(), cursor, size, item -> compileUserData((User)item));
+	}
+	
+	/**
+	 * Getter method that requests one page of the Material listing, in ascending id order, starting from the provided cursor.
+	 * 
+	 * @param cursor - String object representing the cursor returned with the previous page, or null for the first page
+	 * @param size - int value representing the most rows the page may hold
+	 * @return - Returns a DisplayPage object containing the page's rows and the cursor for the next page
+	 * @throws NumberFormatException - Thrown if the cursor was not produced by this class
+	 */
+	
+	public DisplayPage getMaterialPage(String cursor, int size) {
+		return page(library.getMaterialCatalogue(), cursor, size, item -> compileMaterialData((Material)item));
+	}
+	
+	/**
+	 * Getter method that requests one page of the Organization listing, in ascending id order, starting from the provided cursor.
+	 * 
+	 * @param cursor - String object representing the cursor returned with the previous page, or null for the first page
+	 * @param size - int value representing the most rows the page may hold
+	 * @return - Returns a DisplayPage object containing the page's rows and the cursor for the next page
+	 * @throws NumberFormatException - Thrown if the cursor was not produced by this class
+	 */
+	
+	public DisplayPage getOrganizationPage(String cursor, int size) {
+		return page(library.getOrganizationCatalogue(), cursor, size, item -> compileOrganizationData((Organization)item));
+	}
+	
+	/**
+	 * Getter method that requests the Materials whose title, author or keywords match every word of the provided query,
+	 * converted into DisplayFormat objects in ascending id order.
+	 * 
+	 * @param query - String object holding the words to search for; a word ending in '*' matches any word starting with it
+	 * @param limit - int value representing the most rows to return
+	 * @return - Returns an ArrayList<<r>DisplayFormat> object containing a row for each matching Material
+	 */
+	
+	public ArrayList<DisplayFormat> searchMaterialData(String query, int limit){
+		ArrayList<DisplayFormat> out = new ArrayList<DisplayFormat>();
+		for(int id : library.searchMaterials(query, limit)) {
+			out.add(compileMaterialData(library.getMaterialCatalogue().getMaterial(id)));
 		}
 		return out;
 	}
@@ -203,5 +307,52 @@ public class ConvertModel {
 		hold.remove(val);
 		return d;
 	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that builds one page of a Catalogue's listing; one id more than the page holds is requested so that
+	 * the first id of the next page can be handed back as the cursor.
+	 * 
+	 * @param catalogue - Catalogue object being listed
+	 * @param cursor - String object representing the id to start from, or null to start from the lowest id
+	 * @param size - int value representing the most rows the page may hold
+	 * @param compile - Function<<r>CatalogueItem, DisplayFormat> object that converts a single item
+	 * @return - Returns a DisplayPage object containing the page's rows and the cursor for the next page
+	 */
+	
+	private DisplayPage page(Catalogue catalogue, String cursor, int size, Function<CatalogueItem, DisplayFormat> compile) {
+		int from = cursor == null ? Integer.MIN_VALUE : Integer.parseInt(cursor.trim());
+		size = Math.max(1, Math.min(size, Integer.MAX_VALUE - 1));
+		int[] ids = catalogue.getIdsFrom(from, size + 1);
+		ArrayList<DisplayFormat> rows = new ArrayList<DisplayFormat>();
+		for(int i = 0; i < ids.length && i < size; i++) {
+			rows.add(compile.apply(catalogue.getResource(ids[i])));
+		}
+		return new DisplayPage(rows, ids.length > size ? ids[size] + "" : null);
+	}
+	
+	/**
+	 * Helper method that wraps an Iterator over CatalogueItems in one that converts each item to a DisplayFormat object
+	 * only when it is asked for.
+	 * 
+	 * @param items - Iterator<<r>CatalogueItem> object over the items being converted
+	 * @param compile - Function<<r>CatalogueItem, DisplayFormat> object that converts a single item
+	 * @return - Returns an Iterator<<r>DisplayFormat> over the converted items
+	 */
+	
+	private Iterator<DisplayFormat> convert(Iterator<CatalogueItem> items, Function<CatalogueItem, DisplayFormat> compile){
+		return new Iterator<DisplayFormat>() {
+			@Override
+			public boolean hasNext() {
+				return items.hasNext();
+			}
+
+			@Override
+			public DisplayFormat next() {
+				return compile.apply(items.next());
+			}
+		};
+	}
 
 }
@@ -0,0 +1,63 @@
+package version3.controller.conversion;
+
+import java.util.ArrayList;
+
+/**
+ * This Class serves as a support Class holding one page of a paged listing: the DisplayFormat objects for that page's
+ * rows, in ascending id order, and the cursor that asks ConvertModel for the page after it.
+ *
+ * The cursor is just the id of the first row of the next page written as a String; the View shouldn't care what is
+ * in it, only hand it back to ConvertModel to continue the listing. It being an id rather than a page number means
+ * a listing carries on from the right place even if items are added to the Catalogue between pages.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class DisplayPage {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** ArrayList<<r>DisplayFormat> object containing the rows of this page*/
+	private ArrayList<DisplayFormat> rows;
+	/** String object representing the cursor for the next page, or null if this is the last page*/
+	private String cursor;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the DisplayPage class that takes the page's rows and the cursor for the page after it.
+	 *
+	 * @param inRows - ArrayList<<r>DisplayFormat> object containing the rows of this page
+	 * @param inCursor - String object representing the cursor for the next page, or null if there is no next page
+	 */
+
+	public DisplayPage(ArrayList<DisplayFormat> inRows, String inCursor) {
+		rows = inRows;
+		cursor = inCursor;
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the rows of this page.
+	 *
+	 * @return - Returns an ArrayList<<r>DisplayFormat> object containing the rows of this page, in ascending id order
+	 */
+
+	public ArrayList<DisplayFormat> getRows(){
+		return rows;
+	}
+
+	/**
+	 * Getter method that requests the cursor to pass back to ConvertModel for the next page.
+	 *
+	 * @return - Returns a String object representing the cursor for the next page, or null if this is the last page
+	 */
+
+	public String getCursor() {
+		return cursor;
+	}
+
+}
@@ -0,0 +1,285 @@
+package version3.controller.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import version3.controller.batch.BatchInterpreter;
+import version3.model.library.ConcurrentLibrary;
+
+/**
+ * This Class serves as the portion of the Controller that lets many circulation desks use one Library at once over
+ * the network, instead of everyone sharing the single terminal that MainController reads from.
+ *
+ * Each connection is a session that speaks the same one-line commands as a BatchInterpreter (stock, enrol,
+ * organization, checkout, return, pay), answered with result codes; a desk's terminal program turns those into
+ * whatever it shows its user. The prompting, sentence-answering form of InterpretInput isn't served because it writes
+ * through the static CommandLineInterface, which only has one output.
+ *
+ * Every session gets its own thread and simply blocks while it waits for its client, which keeps the code as plain
+ * as the single-user loop. On Java 21 and later these are virtual threads, so thousands of idle sessions cost a few
+ * kilobytes each rather than a platform thread each; on older versions a cached pool of platform threads is used
+ * instead, which still works but costs far more per session. The server only accepts a ConcurrentLibrary, since every
+ * session changes the same Library at the same time.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibraryServer implements Closeable {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many connections may wait to be accepted at once*/
+	private static final int ACCEPT_BACKLOG = 4096;
+	/** int value denoting how long, in milliseconds, the acceptor waits after a failed accept before trying again*/
+	private static final int ACCEPT_RETRY = 50;
+	/** int value denoting how long, in seconds, close() waits for sessions to finish*/
+	private static final int SHUTDOWN_WAIT = 5;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** ConcurrentLibrary object that every session runs its commands against*/
+	private ConcurrentLibrary library;
+	/** ServerSocket object that connections are accepted from*/
+	private ServerSocket server;
+	/** ExecutorService object that runs one session per task, on virtual threads where the Java version has them*/
+	private ExecutorService sessions;
+	/** Thread object that accepts connections and hands them to sessions*/
+	private Thread acceptor;
+	/** Set<<r>Socket> object holding the connection of every session still open, so that close() can end them*/
+	private Set<Socket> open;
+	/** AtomicLong object counting how many sessions have been accepted*/
+	private AtomicLong accepted;
+	/** boolean value representing whether close() has been called*/
+	private volatile boolean closed;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the LibraryServer class that listens on the provided port of every network interface; start()
+	 * must be called before connections are served.
+	 *
+	 * @param in - ConcurrentLibrary object that every session runs its commands against
+	 * @param port - int value representing the TCP port to listen on, or 0 to let the system choose one
+	 * @throws IOException - Thrown if the port cannot be listened on
+	 */
+
+	public LibraryServer(ConcurrentLibrary in, int port) throws IOException {
+		this(in, port, null);
+	}
+
+	/**
+	 * Constructor for the LibraryServer class that listens on the provided port of a single address, such as the
+	 * loopback address for a server that only local programs may use; start() must be called before connections
+	 * are served.
+	 *
+	 * @param in - ConcurrentLibrary object that every session runs its commands against
+	 * @param port - int value representing the TCP port to listen on, or 0 to let the system choose one
+	 * @param address - InetAddress object representing the address to listen on, or null for every address
+	 * @throws IOException - Thrown if the port cannot be listened on
+	 */
+
+	public LibraryServer(ConcurrentLibrary in, int port, InetAddress address) throws IOException {
+		library = in;
+		server = new ServerSocket(port, ACCEPT_BACKLOG, address);
+		open = ConcurrentHashMap.newKeySet();
+		accepted = new AtomicLong();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that starts accepting connections, serving each on its own thread until its client disconnects or
+	 * sends 'end'.
+	 *
+	 */
+
+	public synchronized void start() {
+		if(acceptor != null) {
+			return;
+		}
+		sessions = createExecutor();
+		acceptor = new Thread(this::acceptConnections, "LibraryServer-accept-" + server.getLocalPort());
+		acceptor.setDaemon(true);
+		acceptor.start();
+	}
+
+	/**
+	 * Function that stops the server: no more connections are accepted, every open session is disconnected, and the
+	 * sessions are given a few seconds to finish the command they were running.
+	 *
+	 * @throws IOException - Thrown if the listening socket cannot be closed
+	 */
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		server.close();
+		for(Socket s : open) {
+			closeQuietly(s);
+		}
+		Thread accepting;
+		synchronized(this) {
+			accepting = acceptor;
+		}
+		if(accepting == null) {
+			return;
+		}
+		try {
+			accepting.join();
+			sessions.shutdown();
+			sessions.awaitTermination(SHUTDOWN_WAIT, TimeUnit.SECONDS);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the port this server is listening on, which is useful when it was created with port 0.
+	 *
+	 * @return - Returns an int value representing the TCP port being listened on
+	 */
+
+	public int getPort() {
+		return server.getLocalPort();
+	}
+
+	/**
+	 * Getter method that requests how many sessions are currently connected.
+	 *
+	 * @return - Returns an int value representing the number of open sessions
+	 */
+
+	public int getOpenSessions() {
+		return open.size();
+	}
+
+	/**
+	 * Getter method that requests how many sessions have been accepted since the server started.
+	 *
+	 * @return - Returns a long value representing the number of sessions accepted
+	 */
+
+	public long getAcceptedSessions() {
+		return accepted.get();
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method run by the acceptor Thread that accepts connections until the server is closed.
+	 *
+	 */
+
+	private void acceptConnections() {
+		while(!closed) {
+			Socket client;
+			try {
+				client = server.accept();
+			}
+			catch(IOException e) {
+				if(closed) {
+					return;
+				}
+				pause();
+				continue;
+			}
+			accepted.incrementAndGet();
+			open.add(client);
+			try {
+				sessions.execute(() -> serve(client));
+			}
+			catch(RuntimeException e) {
+				open.remove(client);
+				closeQuietly(client);
+			}
+		}
+	}
+
+	/**
+	 * Helper method that runs one session: the client's commands are run by a BatchInterpreter of its own until the
+	 * client disconnects or sends 'end', and then the connection is closed. A command that throws is answered with
+	 * CODE_MALFORMED by the BatchInterpreter, so one bad command does not end the session.
+	 *
+	 * @param client - Socket object representing the session's connection
+	 */
+
+	private void serve(Socket client) {
+		try {
+			client.setTcpNoDelay(true);
+			new BatchInterpreter(library).run(client.getInputStream(), client.getOutputStream());
+		}
+		catch(IOException e) {
+			//The client disconnected or close() ended the session; either way there is no one left to report to
+		}
+		finally {
+			open.remove(client);
+			closeQuietly(client);
+		}
+	}
+
+	/**
+	 * Helper method that creates the ExecutorService sessions run on: one virtual thread per task if this Java version
+	 * has them (looked up by reflection, as this project is compiled for versions that do not), otherwise a cached pool
+	 * of daemon platform threads.
+	 *
+	 * @return - Returns an ExecutorService object that starts a new thread (or reuses an idle one) for every task
+	 */
+
+	private static ExecutorService createExecutor() {
+		try {
+			return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		}
+		catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool(task -> {
+				Thread t = new Thread(task, "LibraryServer-session");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+
+	/**
+	 * Helper method that waits briefly after a failed accept (such as when the process has run out of file handles) so
+	 * that the acceptor does not spin while the problem lasts.
+	 *
+	 */
+
+	private static void pause() {
+		try {
+			Thread.sleep(ACCEPT_RETRY);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Helper method that closes a connection, ignoring any failure to do so.
+	 *
+	 * @param s - Socket object being closed
+	 */
+
+	private static void closeQuietly(Socket s) {
+		try {
+			s.close();
+		}
+		catch(IOException e) {
+			//Already closed or broken; either way it is finished with
+		}
+	}
+
+}
@@ -1,7 +1,8 @@
 package version3.model.catalogue;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Iterator;
 
 /**
  * 
@@ -13,6 +14,10 @@ import java.util.HashMap;
  * Catalogues are used by the Library to map various stored data items to an integer id, such as Users
  * or Materials.
  * 
+ * How the items are actually held is decided by a CatalogueStorage object; by default this is an
+ * IntCatalogueStorage (an open-addressing table keyed by primitive ints), but a subclass or caller can
+ * provide any other CatalogueStorage through the second constructor.
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -22,8 +27,10 @@ public abstract class Catalogue{
 
 //---  Instance Variables   -------------------------------------------------------------------
 	
-	/** HashMap<<r>Integer, CatalogueItem> object matching CatalogueItems to their integer id values for regularized access*/
-	private HashMap<Integer, CatalogueItem> registry;
+	/** CatalogueStorage object matching CatalogueItems to their integer id values for regularized access*/
+	private CatalogueStorage registry;
+	/** OrderedIdIndex object keeping the ids in ascending order for paged listings; null until the first page is requested*/
+	private OrderedIdIndex ordered;
 	
 //---  Constructors   -------------------------------------------------------------------------
 	
@@ -36,7 +43,18 @@ public abstract class Catalogue{
 	 */
 	
 	public Catalogue() {
-		registry = new HashMap<Integer, CatalogueItem>();
+		this(new IntCatalogueStorage());
+	}
+	
+	/**
+	 * Constructor for the Catalogue abstract class that uses the provided CatalogueStorage object as
+	 * the registry instead of the default IntCatalogueStorage.
+	 * 
+	 * @param in - CatalogueStorage object that this Catalogue will store its CatalogueItems in
+	 */
+	
+	public Catalogue(CatalogueStorage in) {
+		registry = in;
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
@@ -50,7 +68,24 @@ public abstract class Catalogue{
 	 */
 	
 	public void addResource(CatalogueItem in) {
-		registry.put(in.getId(), in);
+		synchronized(this) {
+			int before = registry.size();
+			registry.put(in);
+			if(ordered != null && registry.size() > before) {
+				ordered.add(in.getId());
+			}
+		}
+	}
+	
+	/**
+	 * Function that prepares this Catalogue to hold the provided total number of CatalogueItems without
+	 * its registry having to grow repeatedly while they are added (useful before loading a large batch).
+	 * 
+	 * @param expected - int value representing how many CatalogueItems this Catalogue is expected to hold
+	 */
+	
+	public void ensureCapacity(int expected) {
+		registry.ensureCapacity(expected);
 	}
 	
 //---  Getter Methods   -----------------------------------------------------------------------
@@ -67,14 +102,82 @@ public abstract class Catalogue{
 	}
 	
 	/**
-	 * Function that provides the Key Set of values in the HashMap registry so the calling function
+	 * Function that provides the id values stored in the registry so the calling function
 	 * can iterate over its contents.
 	 * 
-	 * @return - Returns a Collection<<r>Integer> object containing the Key Set of this Catalogue's registry
+	 * @return - Returns a Collection<<r>Integer> object containing the id values of this Catalogue's registry
 	 */
 
 	public Collection<Integer> getKeys(){
-		return registry.keySet();
+		ArrayList<Integer> out = new ArrayList<Integer>();
+		for(int i : registry.keys()) {
+			out.add(i);
+		}
+		return out;
+	}
+	
+	/**
+	 * Function that provides the id values stored in the registry as primitive ints, avoiding the
+	 * Integer objects that getKeys() has to create.
+	 * 
+	 * @return - Returns an int[] containing the id values of this Catalogue's registry
+	 */
+	
+	public int[] getIds() {
+		return registry.keys();
+	}
+	
+	/**
+	 * Function that returns the number of CatalogueItems stored by this Catalogue.
+	 * 
+	 * @return - Returns an int value representing how many CatalogueItems are in this Catalogue
+	 */
+	
+	public int getSize() {
+		return registry.size();
+	}
+	
+	/**
+	 * Function that returns, in ascending order, up to count ids that are greater than or equal to the provided id, for
+	 * listing this Catalogue a page at a time. The ids are kept in an OrderedIdIndex that is built the first time a page
+	 * is requested and kept up to date from then on, so each page is found by a binary search rather than by walking
+	 * every page before it.
+	 * 
+	 * @param from - int value representing the smallest id that may be returned
+	 * @param count - int value representing the most ids to return
+	 * @return - Returns an int[] containing the ids, which is shorter than count once the end of the Catalogue is reached
+	 */
+	
+	public int[] getIdsFrom(int from, int count) {
+		OrderedIdIndex index;
+		synchronized(this) {
+			if(ordered == null) {
+				ordered = new OrderedIdIndex(registry.keys());
+			}
+			index = ordered;
+		}
+		return index.getIdsFrom(from, count);
+	}
+	
+	/**
+	 * Function that provides an Iterator over the CatalogueItems in this Catalogue, taken straight from the
+	 * CatalogueStorage so that listing a large Catalogue does not first copy it into another collection.
+	 * 
+	 * @return - Returns an Iterator<<r>CatalogueItem> over the contents of this Catalogue, in no particular order
+	 */
+	
+	public Iterator<CatalogueItem> getItems(){
+		return registry.items();
+	}
+	
+	/**
+	 * Function that returns the CatalogueStorage this Catalogue keeps its CatalogueItems in.
+	 * 
+	 * @return - Returns the CatalogueStorage object backing this Catalogue
+	 */
+	
+	public CatalogueStorage getStorage() {
+		return registry;
 	}
 	
 }
@@ -0,0 +1,77 @@
+package version3.model.catalogue;
+
+import java.util.Iterator;
+
+/**
+ * This interface describes the data structure that a Catalogue uses to map int id values to the
+ * CatalogueItem objects it stores; pulling the storage out from behind Catalogue lets a particular
+ * Library choose how its Catalogues hold their contents without any of the Catalogue subclasses
+ * (UserCatalogue, MaterialsCatalogue, etc.) having to know or care which one is in use.
+ * 
+ * The default used by Catalogue is IntCatalogueStorage, which avoids boxing int ids; HashCatalogueStorage
+ * keeps the original HashMap<<r>Integer, CatalogueItem> behaviour available.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public interface CatalogueStorage {
+
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that stores the provided CatalogueItem-type object using its id value as the key,
+	 * replacing any item that was already stored with that id.
+	 * 
+	 * @param in - CatalogueItem-extending object being stored
+	 */
+	
+	public void put(CatalogueItem in);
+	
+	/**
+	 * Function that prepares the storage to hold the provided number of items without needing to
+	 * grow along the way; storage strategies that cannot pre-size may ignore this.
+	 * 
+	 * @param expected - int value representing the total number of items the storage should be ready to hold
+	 */
+	
+	public void ensureCapacity(int expected);
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the CatalogueItem stored with the provided id value.
+	 * 
+	 * @param id - int value representing the id of the CatalogueItem being requested
+	 * @return - Returns the CatalogueItem-extending object stored with that id, or null if there is none
+	 */
+	
+	public CatalogueItem get(int id);
+	
+	/**
+	 * Getter method that requests the number of CatalogueItems held by this storage.
+	 * 
+	 * @return - Returns an int value representing how many CatalogueItems are stored
+	 */
+	
+	public int size();
+	
+	/**
+	 * Getter method that requests the id values of every stored CatalogueItem, in no particular order.
+	 * 
+	 * @return - Returns an int[] containing the id of every CatalogueItem in this storage
+	 */
+	
+	public int[] keys();
+	
+	/**
+	 * Getter method that provides an Iterator over the stored CatalogueItems without first copying them
+	 * into another collection.
+	 * 
+	 * @return - Returns an Iterator<<r>CatalogueItem> over the contents of this storage
+	 */
+	
+	public Iterator<CatalogueItem> items();
+	
+}
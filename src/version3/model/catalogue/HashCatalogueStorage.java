@@ -0,0 +1,75 @@
+package version3.model.catalogue;
+
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * This class implements the CatalogueStorage interface using a HashMap<<r>Integer, CatalogueItem>, which
+ * is how every Catalogue stored its contents before the storage was made pluggable.
+ * 
+ * It is kept around so that the original behaviour can still be selected (and compared against) by
+ * passing an instance of this class to a Catalogue's constructor.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class HashCatalogueStorage implements CatalogueStorage {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** HashMap<<r>Integer, CatalogueItem> object matching CatalogueItems to their integer id values*/
+	private HashMap<Integer, CatalogueItem> registry;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the HashCatalogueStorage class that initializes the registry instance variable.
+	 * 
+	 */
+	
+	public HashCatalogueStorage() {
+		registry = new HashMap<Integer, CatalogueItem>();
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	@Override
+	public void put(CatalogueItem in) {
+		registry.put(in.getId(), in);
+	}
+	
+	@Override
+	public void ensureCapacity(int expected) {
+		
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public CatalogueItem get(int id) {
+		return registry.get(id);
+	}
+	
+	@Override
+	public int size() {
+		return registry.size();
+	}
+	
+	@Override
+	public int[] keys() {
+		int[] out = new int[registry.size()];
+		int index = 0;
+		for(int i : registry.keySet()) {
+			out[index++] = i;
+		}
+		return out;
+	}
+	
+	@Override
+	public Iterator<CatalogueItem> items(){
+		return registry.values().iterator();
+	}
+	
+}
@@ -0,0 +1,80 @@
+package version3.model.catalogue;
+
+import java.util.Iterator;
+
+/**
+ * This class implements the CatalogueStorage interface using an IntObjectMap, storing CatalogueItems
+ * in flat arrays keyed directly by their primitive int id values.
+ * 
+ * Compared to a HashMap<<r>Integer, CatalogueItem>, this avoids allocating an Integer and a map Node for
+ * every item and turns each lookup into a probe through adjacent array slots, which matters once a
+ * Catalogue holds millions of Materials. This is the storage Catalogue uses by default.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class IntCatalogueStorage implements CatalogueStorage {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** IntObjectMap<<r>CatalogueItem> object mapping int id values to the CatalogueItems being stored*/
+	private IntObjectMap<CatalogueItem> table;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the IntCatalogueStorage class that starts with a small table that grows as needed.
+	 * 
+	 */
+	
+	public IntCatalogueStorage() {
+		table = new IntObjectMap<CatalogueItem>();
+	}
+	
+	/**
+	 * Constructor for the IntCatalogueStorage class that pre-sizes its table for the expected number of items.
+	 * 
+	 * @param expected - int value representing how many CatalogueItems are expected to be stored
+	 */
+	
+	public IntCatalogueStorage(int expected) {
+		table = new IntObjectMap<CatalogueItem>(expected);
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	@Override
+	public void put(CatalogueItem in) {
+		table.put(in.getId(), in);
+	}
+	
+	@Override
+	public void ensureCapacity(int expected) {
+		table.ensureCapacity(expected);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public CatalogueItem get(int id) {
+		return table.get(id);
+	}
+	
+	@Override
+	public int size() {
+		return table.size();
+	}
+	
+	@Override
+	public int[] keys() {
+		return table.keys();
+	}
+	
+	@Override
+	public Iterator<CatalogueItem> items(){
+		return table.valueIterator();
+	}
+	
+}
@@ -0,0 +1,333 @@
+package version3.model.catalogue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class is a small hash table that maps primitive int keys to objects without ever boxing the
+ * key into an Integer; it exists because a HashMap<<r>Integer, V> spends most of its memory on the
+ * Integer keys and the Node objects that wrap every entry, which adds up very quickly when a Catalogue
+ * holds millions of items.
+ *
+ * Entries are stored in two parallel arrays (keys and values) using open addressing with linear probing,
+ * so a lookup is a multiply, a mask, and a short walk through adjacent array slots. A slot is considered
+ * empty when its value is null, which means any int value can be used as a key but null values cannot be
+ * stored (put() rejects them).
+ *
+ * Removal uses backward-shift deletion instead of tombstones so that long-running tables don't slowly fill
+ * up with dead slots that every lookup has to walk over.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ * @param <V> - The type of object being stored in this IntObjectMap
+ */
+
+public class IntObjectMap<V> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting the smallest number of slots that an IntObjectMap will allocate*/
+	private static final int MINIMUM_CAPACITY = 16;
+	/** int value denoting the largest number of slots an IntObjectMap may allocate (the largest power of two that fits in an array)*/
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	/** int value used to scramble keys before masking them so that sequential ids don't cluster into neighbouring slots (the golden ratio as an int)*/
+	private static final int HASH_SCRAMBLE = 0x9E3779B9;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** int[] object containing the key stored at each slot of the table; only meaningful where the matching values slot is not null*/
+	private int[] keys;
+	/** Object[] object containing the value stored at each slot of the table; a null entry marks that slot as empty*/
+	private Object[] values;
+	/** int value representing how many entries are currently stored in this IntObjectMap*/
+	private int size;
+	/** int value used to reduce a scrambled hash to a slot index; always one less than the (power of two) length of the arrays*/
+	private int mask;
+	/** int value representing the size at which the table must grow to keep its load factor at or below three quarters*/
+	private int threshold;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the IntObjectMap class that prepares a small table which will grow as entries are added.
+	 *
+	 */
+
+	public IntObjectMap() {
+		this(0);
+	}
+
+	/**
+	 * Constructor for the IntObjectMap class that pre-sizes the table so that the provided number of entries
+	 * can be stored without the table having to grow (and re-insert everything) along the way.
+	 *
+	 * @param expected - int value representing how many entries the caller expects to store in this IntObjectMap
+	 */
+
+	public IntObjectMap(int expected) {
+		allocate(capacityFor(expected));
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that associates the provided value to the provided int key, replacing any value that
+	 * was already associated to that key.
+	 *
+	 * @param key - int value representing the key to associate the value with
+	 * @param value - V object being stored; cannot be null, as null marks an empty slot
+	 * @return - Returns the V object previously associated to the key, or null if there was none
+	 */
+
+	@SuppressWarnings("unchecked")
+	public V put(int key, V value) {
+		if(value == null) {
+			throw new IllegalArgumentException("IntObjectMap cannot store null values");
+		}
+		int slot = slotFor(key);
+		while(values[slot] != null) {
+			if(keys[slot] == key) {
+				V old = (V)values[slot];
+				values[slot] = value;
+				return old;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if(++size > threshold) {
+			resize(keys.length << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Function that removes the value associated to the provided int key, shifting any entries that had
+	 * probed past the removed slot backwards so that no lookup chain is broken by the new gap.
+	 *
+	 * @param key - int value representing the key whose entry is being removed
+	 * @return - Returns the V object that was associated to the key, or null if there was none
+	 */
+
+	@SuppressWarnings("unchecked")
+	public V remove(int key) {
+		int slot = findSlot(key);
+		if(slot < 0) {
+			return null;
+		}
+		V old = (V)values[slot];
+		int gap = slot;
+		int next = (gap + 1) & mask;
+		while(values[next] != null) {
+			int home = slotFor(keys[next]);
+			if(((next - home) & mask) >= ((next - gap) & mask)) {
+				keys[gap] = keys[next];
+				values[gap] = values[next];
+				gap = next;
+			}
+			next = (next + 1) & mask;
+		}
+		values[gap] = null;
+		size--;
+		return old;
+	}
+
+	/**
+	 * Function that grows the table, if needed, so that the provided number of entries can be held
+	 * without any further resizing.
+	 *
+	 * @param expected - int value representing the total number of entries this IntObjectMap should be ready to hold
+	 */
+
+	public void ensureCapacity(int expected) {
+		int capacity = capacityFor(expected);
+		if(capacity > keys.length) {
+			resize(capacity);
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the value associated to the provided int key.
+	 *
+	 * @param key - int value representing the key to look up
+	 * @return - Returns the V object associated to the key, or null if there is none
+	 */
+
+	@SuppressWarnings("unchecked")
+	public V get(int key) {
+		int slot = slotFor(key);
+		Object value;
+		while((value = values[slot]) != null) {
+			if(keys[slot] == key) {
+				return (V)value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Getter method that requests whether or not any value is associated to the provided int key.
+	 *
+	 * @param key - int value representing the key being tested
+	 * @return - Returns a boolean value signifying whether or not the key is present in this IntObjectMap
+	 */
+
+	public boolean containsKey(int key) {
+		return findSlot(key) >= 0;
+	}
+
+	/**
+	 * Getter method that requests how many entries are stored in this IntObjectMap.
+	 *
+	 * @return - Returns an int value representing the number of entries stored
+	 */
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Getter method that requests every key currently stored, in table order (which is not sorted).
+	 *
+	 * @return - Returns an int[] containing every key stored in this IntObjectMap
+	 */
+
+	public int[] keys() {
+		int[] out = new int[size];
+		int index = 0;
+		for(int i = 0; i < values.length; i++) {
+			if(values[i] != null) {
+				out[index++] = keys[i];
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that provides an Iterator over the values stored in this IntObjectMap, walking the
+	 * table directly so that no copy of its contents is made.
+	 *
+	 * The Iterator does not detect modification of the table while it is in use; adding entries during
+	 * iteration may cause entries to be skipped or seen twice if the table grows.
+	 *
+	 * @return - Returns an Iterator<<r>V> over the values stored in this IntObjectMap
+	 */
+
+	public Iterator<V> valueIterator(){
+		return new Iterator<V>() {
+			private int slot = advance(0);
+
+			private int advance(int from) {
+				while(from < values.length && values[from] == null) {
+					from++;
+				}
+				return from;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return slot < values.length;
+			}
+
+			@SuppressWarnings("unchecked")
+			@Override
+			public V next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				V out = (V)values[slot];
+				slot = advance(slot + 1);
+				return out;
+			}
+		};
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that finds the slot at which the provided key is stored.
+	 *
+	 * @param key - int value representing the key being searched for
+	 * @return - Returns an int value representing the slot holding the key, or -1 if the key is not present
+	 */
+
+	private int findSlot(int key) {
+		int slot = slotFor(key);
+		while(values[slot] != null) {
+			if(keys[slot] == key) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Helper method that calculates the home slot of the provided key by scrambling its bits and masking
+	 * the result down to the size of the table.
+	 *
+	 * @param key - int value representing the key whose home slot is requested
+	 * @return - Returns an int value representing the slot at which probing for the key starts
+	 */
+
+	private int slotFor(int key) {
+		int h = key * HASH_SCRAMBLE;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+	/**
+	 * Helper method that moves every entry into newly allocated arrays of the provided capacity.
+	 *
+	 * @param capacity - int value representing the new (power of two) number of slots in the table
+	 */
+
+	private void resize(int capacity) {
+		int[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for(int i = 0; i < oldValues.length; i++) {
+			if(oldValues[i] != null) {
+				int slot = slotFor(oldKeys[i]);
+				while(values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Helper method that allocates empty arrays of the provided capacity and updates the mask and threshold to match.
+	 *
+	 * @param capacity - int value representing the (power of two) number of slots to allocate
+	 */
+
+	private void allocate(int capacity) {
+		keys = new int[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		threshold = capacity == MAXIMUM_CAPACITY ? capacity - 1 : (capacity >> 2) * 3;
+	}
+
+	/**
+	 * Helper method that calculates the smallest power of two table size that can hold the provided number
+	 * of entries while staying under a three quarters load factor.
+	 *
+	 * @param expected - int value representing the number of entries to be held
+	 * @return - Returns an int value representing the table capacity needed
+	 */
+
+	private static int capacityFor(int expected) {
+		long needed = Math.max(MINIMUM_CAPACITY, ((long)expected * 4 + 2) / 3 + 1);
+		if(needed >= MAXIMUM_CAPACITY) {
+			return MAXIMUM_CAPACITY;
+		}
+		return Integer.highestOneBit((int)needed - 1) << 1;
+	}
+
+}
@@ -0,0 +1,253 @@
+package version3.model.catalogue;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+
+/**
+ * This class implements the CatalogueStorage interface on top of a block of fixed-size records (usually a
+ * memory-mapped section of a LibrarySnapshot file), so that a Catalogue with tens of millions of items can be
+ * used as soon as the file is mapped instead of after every item has been read into memory.
+ *
+ * The records must be sorted by id, and each must begin with its item's int id; finding an item is a binary
+ * search over the records. An item is only decoded (by the provided decoder function) the first time it is
+ * requested, after which the decoded object is kept in a slot for its record so that every later request returns
+ * the same object and changes made to it are not lost. Items added to the Catalogue after loading (with ids that
+ * have no record) are kept in an IntObjectMap.
+ *
+ * Reads take no lock, so the threads of a ConcurrentLibrary (or a FineAssessment) reading different Materials never
+ * wait on each other. The slots are pages of an AtomicReferenceArray, created when a record in them is first decoded,
+ * so memory grows with the part of the file that is used; a decoded item is published with a compare-and-set, and if
+ * two threads decode the same record at once the one that loses uses the winner's object, so there is only ever one.
+ * put() is called with the Catalogue locked (and, in a ConcurrentLibrary, the write half of its structure lock held),
+ * so, as with IntCatalogueStorage, items added after loading may be read without a lock but not while being added.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class MappedCatalogueStorage implements CatalogueStorage {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting the power of two number of record slots in each page of decoded items*/
+	private static final int PAGE_SHIFT = 12;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** ByteBuffer object containing the fixed-size records, sorted by id, starting at position 0*/
+	private ByteBuffer records;
+	/** int value representing the size, in bytes, of each record*/
+	private int recordSize;
+	/** int value representing how many records there are*/
+	private int recordCount;
+	/** IntFunction<<r>CatalogueItem> object that decodes the record starting at the provided byte offset of records*/
+	private IntFunction<CatalogueItem> decoder;
+	/** AtomicReferenceArray<<r>AtomicReferenceArray<<r>CatalogueItem>> object holding the pages of decoded items, indexed by record index >> PAGE_SHIFT*/
+	private AtomicReferenceArray<AtomicReferenceArray<CatalogueItem>> decoded;
+	/** IntObjectMap<<r>CatalogueItem> object holding every item added since loading whose id has no record*/
+	private IntObjectMap<CatalogueItem> added;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the MappedCatalogueStorage class that serves items from the provided records.
+	 *
+	 * @param in - ByteBuffer object containing recordCount records of recordSize bytes each, sorted by the int id each begins with
+	 * @param size - int value representing the size, in bytes, of each record
+	 * @param count - int value representing how many records there are
+	 * @param decode - IntFunction<<r>CatalogueItem> object that builds the item for the record at the provided byte offset
+	 */
+
+	public MappedCatalogueStorage(ByteBuffer in, int size, int count, IntFunction<CatalogueItem> decode) {
+		records = in;
+		recordSize = size;
+		recordCount = count;
+		decoder = decode;
+		decoded = new AtomicReferenceArray<AtomicReferenceArray<CatalogueItem>>((count >> PAGE_SHIFT) + 1);
+		added = new IntObjectMap<CatalogueItem>();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	@Override
+	public void put(CatalogueItem in) {
+		int index = find(in.getId());
+		if(index >= 0) {
+			getPage(index).set(index & ((1 << PAGE_SHIFT) - 1), in);
+		}
+		else {
+			added.put(in.getId(), in);
+		}
+	}
+
+	@Override
+	public void ensureCapacity(int expected) {
+		added.ensureCapacity(Math.max(0, expected - recordCount));
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	@Override
+	public CatalogueItem get(int id) {
+		int index = find(id);
+		if(index < 0) {
+			return added.get(id);
+		}
+		AtomicReferenceArray<CatalogueItem> page = getPage(index);
+		int slot = index & ((1 << PAGE_SHIFT) - 1);
+		CatalogueItem out = page.get(slot);
+		if(out == null) {
+			CatalogueItem built = decoder.apply(index * recordSize);
+			out = page.compareAndExchange(slot, null, built);
+			if(out == null) {
+				out = built;
+			}
+		}
+		return out;
+	}
+
+	@Override
+	public int size() {
+		return recordCount + added.size();
+	}
+
+	@Override
+	public int[] keys() {
+		int[] extra = added.keys();
+		int[] out = new int[recordCount + extra.length];
+		for(int i = 0; i < recordCount; i++) {
+			out[i] = records.getInt(i * recordSize);
+		}
+		System.arraycopy(extra, 0, out, recordCount, extra.length);
+		return out;
+	}
+
+	/**
+	 * Getter method that returns an Iterator over every item, walking the records in order and then the items added after
+	 * loading. A record that has not been decoded yet is decoded into a temporary object that is not kept, so iterating a
+	 * very large storage (such as to list it) uses constant memory; changes should therefore be made to the object returned
+	 * by get(), not to one returned by this Iterator.
+	 * 
+	 * Items added while iterating may or may not be seen.
+	 *
+	 * @return - Returns an Iterator<<r>CatalogueItem> over every item in this storage
+	 */
+
+	@Override
+	public Iterator<CatalogueItem> items(){
+		return new Iterator<CatalogueItem>() {
+			private int index;
+			private Iterator<CatalogueItem> extra;
+			private CatalogueItem next = advance();
+
+			private CatalogueItem advance() {
+				if(index < recordCount) {
+					return peek(index++);
+				}
+				if(extra == null) {
+					extra = added.valueIterator();
+				}
+				return extra.hasNext() ? extra.next() : null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public CatalogueItem next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				CatalogueItem out = next;
+				next = advance();
+				return out;
+			}
+		};
+	}
+
+	/**
+	 * Getter method that reports whether the item with the provided id has been decoded (or added) yet, used to check
+	 * that loading really is lazy.
+	 *
+	 * @param id - int value representing the id of an item
+	 * @return - Returns a boolean value; true if the item is held in memory, false if it is only in the records (or absent)
+	 */
+
+	public boolean isLoaded(int id) {
+		int index = find(id);
+		if(index < 0) {
+			return added.containsKey(id);
+		}
+		AtomicReferenceArray<CatalogueItem> page = decoded.get(index >> PAGE_SHIFT);
+		return page != null && page.get(index & ((1 << PAGE_SHIFT) - 1)) != null;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that returns the item for the record at the provided index without keeping it; the kept object is
+	 * returned if the item has already been decoded.
+	 *
+	 * @param index - int value representing the index of a record
+	 * @return - Returns the CatalogueItem object for that record
+	 */
+
+	private CatalogueItem peek(int index) {
+		AtomicReferenceArray<CatalogueItem> page = decoded.get(index >> PAGE_SHIFT);
+		CatalogueItem out = page == null ? null : page.get(index & ((1 << PAGE_SHIFT) - 1));
+		return out != null ? out : decoder.apply(index * recordSize);
+	}
+
+	/**
+	 * Helper method that returns the page of decoded items holding the slot for the record at the provided index,
+	 * creating it if no record in it has been decoded yet (a page created by two threads at once is kept only once).
+	 *
+	 * @param index - int value representing the index of a record
+	 * @return - Returns the AtomicReferenceArray<<r>CatalogueItem> object holding that record's slot
+	 */
+
+	private AtomicReferenceArray<CatalogueItem> getPage(int index) {
+		AtomicReferenceArray<CatalogueItem> page = decoded.get(index >> PAGE_SHIFT);
+		if(page == null) {
+			AtomicReferenceArray<CatalogueItem> fresh = new AtomicReferenceArray<CatalogueItem>(1 << PAGE_SHIFT);
+			page = decoded.compareAndExchange(index >> PAGE_SHIFT, null, fresh);
+			if(page == null) {
+				page = fresh;
+			}
+		}
+		return page;
+	}
+
+	/**
+	 * Helper method that binary searches the records for the provided id.
+	 *
+	 * @param id - int value representing the id being searched for
+	 * @return - Returns an int value representing the index of the record with that id, or -1 if there is none
+	 */
+
+	private int find(int id) {
+		int low = 0;
+		int high = recordCount - 1;
+		while(low <= high) {
+			int mid = (low + high) >>> 1;
+			int at = records.getInt(mid * recordSize);
+			if(at < id) {
+				low = mid + 1;
+			}
+			else if(at > id) {
+				high = mid - 1;
+			}
+			else {
+				return mid;
+			}
+		}
+		return -1;
+	}
+
+}
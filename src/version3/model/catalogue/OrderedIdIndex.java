@@ -0,0 +1,172 @@
+package version3.model.catalogue;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps the ids of a Catalogue in ascending order so that its contents can be listed a page at a time;
+ * finding where a page starts is a binary search, so fetching the hundredth page costs the same as fetching the first
+ * instead of walking past the ninety-nine before it.
+ *
+ * The ids live in a sorted int[] plus a small unsorted buffer of ids added since the array was last rebuilt. Adding an
+ * id only appends to the buffer; a page is read by merging the sorted array with the (sorted on demand) buffer from the
+ * starting id onwards. Once the buffer grows past a fraction of the sorted array the two are merged into a new sorted
+ * array, so the cost of keeping the order is spread thinly over the ids being added.
+ *
+ * Catalogues never remove items, so neither does this index. Every function is synchronized, as pages may be read while
+ * another thread adds to the Catalogue.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class OrderedIdIndex {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many ids the buffer may hold, at minimum, before it is merged into the sorted array*/
+	private static final int MINIMUM_BUFFER = 1024;
+	/** int value denoting what fraction (as a shift) of the sorted array the buffer may grow to before it is merged*/
+	private static final int BUFFER_SHIFT = 4;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** int[] object containing ids in ascending order*/
+	private int[] sorted;
+	/** int[] object containing the ids added since sorted was last rebuilt, in its first bufferSize entries*/
+	private int[] buffer;
+	/** int value representing how many ids are in buffer*/
+	private int bufferSize;
+	/** boolean value representing whether the ids in buffer are currently in ascending order*/
+	private boolean bufferSorted;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the OrderedIdIndex class that indexes the provided ids, in any order; the array is sorted in
+	 * place and kept by this object.
+	 *
+	 * @param ids - int[] containing the ids already held by the Catalogue being indexed
+	 */
+
+	public OrderedIdIndex(int[] ids) {
+		Arrays.sort(ids);
+		sorted = ids;
+		buffer = new int[MINIMUM_BUFFER];
+		bufferSorted = true;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds an id to this index; the id must not already be in it.
+	 *
+	 * @param id - int value representing the id of an item newly added to the Catalogue
+	 */
+
+	public synchronized void add(int id) {
+		if(bufferSize == buffer.length) {
+			if(bufferSize >= Math.max(MINIMUM_BUFFER, sorted.length >>> BUFFER_SHIFT)) {
+				merge();
+			}
+			else {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+		}
+		bufferSorted &= bufferSize == 0 || buffer[bufferSize - 1] < id;
+		buffer[bufferSize++] = id;
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests, in ascending order, up to count ids that are greater than or equal to the provided
+	 * starting id.
+	 *
+	 * @param from - int value representing the smallest id that may be returned
+	 * @param count - int value representing the most ids to return
+	 * @return - Returns an int[] containing the ids, which is shorter than count if the index runs out
+	 */
+
+	public synchronized int[] getIdsFrom(int from, int count) {
+		if(!bufferSorted) {
+			Arrays.sort(buffer, 0, bufferSize);
+			bufferSorted = true;
+		}
+		int i = lowerBound(sorted, sorted.length, from);
+		int j = lowerBound(buffer, bufferSize, from);
+		int[] out = new int[(int)Math.min(count, (long)(sorted.length - i) + (bufferSize - j))];
+		for(int k = 0; k < out.length; k++) {
+			if(j >= bufferSize || (i < sorted.length && sorted[i] < buffer[j])) {
+				out[k] = sorted[i++];
+			}
+			else {
+				out[k] = buffer[j++];
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that requests how many ids are in this index.
+	 *
+	 * @return - Returns an int value representing the number of ids indexed
+	 */
+
+	public synchronized int size() {
+		return sorted.length + bufferSize;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that merges the buffer into the sorted array and empties the buffer.
+	 *
+	 */
+
+	private void merge() {
+		int[] from = sorted;
+		int[] added = Arrays.copyOf(buffer, bufferSize);
+		Arrays.sort(added);
+		int[] out = new int[from.length + added.length];
+		int i = 0;
+		int j = 0;
+		for(int k = 0; k < out.length; k++) {
+			if(j >= added.length || (i < from.length && from[i] < added[j])) {
+				out[k] = from[i++];
+			}
+			else {
+				out[k] = added[j++];
+			}
+		}
+		sorted = out;
+		bufferSize = 0;
+		bufferSorted = true;
+	}
+
+	/**
+	 * Helper method that binary searches the first length entries of a sorted array for the first entry that is greater
+	 * than or equal to the provided id.
+	 *
+	 * @param in - int[] whose first length entries are in ascending order
+	 * @param length - int value representing how many entries of the array are in use
+	 * @param id - int value representing the id being searched for
+	 * @return - Returns an int value representing the index of the first entry not less than id, or length if there is none
+	 */
+
+	private static int lowerBound(int[] in, int length, int id) {
+		int low = 0;
+		int high = length;
+		while(low < high) {
+			int mid = (low + high) >>> 1;
+			if(in[mid] < id) {
+				low = mid + 1;
+			}
+			else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
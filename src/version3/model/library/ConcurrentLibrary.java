@@ -0,0 +1,338 @@
+package version3.model.library;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+/**
+ * This class extends Library so that a single Library can be shared by many threads at once (such
+ * as several front-desk terminals), without every operation having to wait on one global lock.
+ *
+ * Checkouts and returns lock a 'stripe' chosen from the User's id and another chosen from the Material's
+ * id; two operations only wait on each other if they touch the same User or Material (or happen to
+ * land on the same stripe). The two stripes are always locked lowest index first, so two threads can
+ * never each hold one of the pair while waiting for the other.
+ *
+ * Batch checkouts and returns lock the User's stripe and the stripes of every Material in the batch,
+ * again in ascending stripe order, so the whole batch is applied atomically.
+ *
+ * Holding the User's stripe for the whole of a checkout is what keeps the five-item and overdue rules
+ * atomic: nothing else can add to or return from that User's Materials between the validation and the
+ * checkout itself.
+ *
+ * The locks are taken in the perform... functions that Library's public operations call, so the latencies recorded
+ * in a LibraryMetrics include the time spent waiting for them.
+ *
+ * Adding Users, Materials and Organizations changes the Catalogues' structure, which is not safe to do
+ * while other threads are reading them, so those operations take the write half of a read/write lock
+ * that every other operation holds the read half of. Stocking a library happens far less often than
+ * lending from it, so this costs very little in practice.
+ *
+ * Reserving a Material and cancelling a reservation lock the same pair of stripes as a checkout, so a User cannot
+ * join a queue for a Material while it is being returned. Handing a returned Material to the next User in its queue
+ * happens after the return has released its stripes, as an ordinary checkout (and, for Users passed over, ordinary
+ * cancellations), so no thread ever holds the stripes of two Users at once; while the Material waits to be handed on,
+ * only the User at the front of its queue may check it out.
+ *
+ * assessFines() holds the read half for the whole assessment, so checkouts and returns carry on while it runs (each
+ * loan is assessed as it stands when its User is reached) but stocking and enrolment wait for it to finish; it is
+ * meant to be run when the desks are quiet, such as overnight.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class ConcurrentLibrary extends Library {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many stripes are created for each available processor when no stripe count is given*/
+	private static final int STRIPES_PER_PROCESSOR = 16;
+	/** int value used to scramble ids before choosing a stripe so that neighbouring ids land on different stripes*/
+	private static final int HASH_SCRAMBLE = 0x9E3779B9;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** ReentrantLock[] object containing the stripe locks that User and Material ids are mapped to*/
+	private ReentrantLock[] stripes;
+	/** int value used to reduce a scrambled id to a stripe index; one less than the (power of two) number of stripes*/
+	private int mask;
+	/** ReentrantReadWriteLock object whose write lock guards changes to the Catalogues' structure and whose read lock is held by every other operation*/
+	private ReentrantReadWriteLock structure;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for ConcurrentLibrary objects that creates a number of stripes proportional to the number
+	 * of processors available to the program.
+	 *
+	 */
+
+	public ConcurrentLibrary() {
+		this(Runtime.getRuntime().availableProcessors() * STRIPES_PER_PROCESSOR);
+	}
+
+	/**
+	 * Constructor for ConcurrentLibrary objects that creates (at least) the provided number of stripes; the
+	 * count is rounded up to a power of two.
+	 *
+	 * @param stripeCount - int value representing the minimum number of stripe locks to create
+	 */
+
+	public ConcurrentLibrary(int stripeCount) {
+		super();
+		int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+		stripes = new ReentrantLock[size];
+		for(int i = 0; i < size; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		mask = size - 1;
+		structure = new ReentrantReadWriteLock();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	@Override
+	protected boolean performStock(int materialId, String type) {
+		structure.writeLock().lock();
+		try {
+			return super.performStock(materialId, type);
+		}
+		finally {
+			structure.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected boolean performDescribe(int materialId, String title, String author, String[] keywords) {
+		structure.writeLock().lock();
+		try {
+			return super.performDescribe(materialId, title, author, keywords);
+		}
+		finally {
+			structure.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected int[] performSearch(String query, int limit) {
+		structure.readLock().lock();
+		try {
+			return super.performSearch(query, limit);
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected boolean performEnrol(int userId, String organization) {
+		structure.writeLock().lock();
+		try {
+			return super.performEnrol(userId, organization);
+		}
+		finally {
+			structure.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected boolean performAddOrganization(String organization) {
+		structure.writeLock().lock();
+		try {
+			return super.performAddOrganization(organization);
+		}
+		finally {
+			structure.writeLock().unlock();
+		}
+	}
+
+	@Override
+	protected int performCheckout(int userId, int materialId) {
+		return lockPair(userId, materialId, () -> super.performCheckout(userId, materialId));
+	}
+
+	@Override
+	protected int performReturn(int userId, int materialId) {
+		return lockPair(userId, materialId, () -> super.performReturn(userId, materialId));
+	}
+
+	@Override
+	protected boolean performReserve(int userId, int materialId) {
+		return lockPair(userId, materialId, () -> super.performReserve(userId, materialId) ? 1 : 0) == 1;
+	}
+
+	@Override
+	protected boolean performCancel(int userId, int materialId) {
+		return lockPair(userId, materialId, () -> super.performCancel(userId, materialId) ? 1 : 0) == 1;
+	}
+
+	@Override
+	protected int[] performBatchCheckout(int userId, int[] materialIds) {
+		structure.readLock().lock();
+		try {
+			int[] held = lockStripes(userId, materialIds);
+			try {
+				return super.performBatchCheckout(userId, materialIds);
+			}
+			finally {
+				unlockStripes(held);
+			}
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected int[] performBatchReturn(int userId, int[] materialIds) {
+		structure.readLock().lock();
+		try {
+			int[] held = lockStripes(userId, materialIds);
+			try {
+				return super.performBatchReturn(userId, materialIds);
+			}
+			finally {
+				unlockStripes(held);
+			}
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected boolean performPayment(String organization, int amount) {
+		structure.readLock().lock();
+		try {
+			return super.performPayment(organization, amount);
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected LiabilityReport performAssessment(long time) {
+		structure.readLock().lock();
+		try {
+			return super.performAssessment(time);
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	@Override
+	protected void performLiabilityLoad(ProjectedLiabilityView in) {
+		structure.writeLock().lock();
+		try {
+			super.performLiabilityLoad(in);
+		}
+		finally {
+			structure.writeLock().unlock();
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	@Override
+	public Integer getOrganizationFine(String organization) {
+		structure.readLock().lock();
+		try {
+			return super.getOrganizationFine(organization);
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that carries out an operation on one User and one Material while holding the read half of the
+	 * structure lock and the two stripes for their ids, locked lowest index first; every single-item operation goes
+	 * through here so that the locking order is only written once.
+	 *
+	 * @param userId - int value representing the User whose stripe is locked
+	 * @param materialId - int value representing the Material whose stripe is locked
+	 * @param work - IntSupplier object carrying out the operation (a boolean result is passed as 1 or 0)
+	 * @return - Returns the int value produced by work
+	 */
+
+	private int lockPair(int userId, int materialId, IntSupplier work) {
+		structure.readLock().lock();
+		try {
+			ReentrantLock first = stripes[Math.min(stripeFor(userId), stripeFor(materialId))];
+			ReentrantLock second = stripes[Math.max(stripeFor(userId), stripeFor(materialId))];
+			first.lock();
+			second.lock();
+			try {
+				return work.getAsInt();
+			}
+			finally {
+				second.unlock();
+				first.unlock();
+			}
+		}
+		finally {
+			structure.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Helper method that locks the stripes of the provided User and every provided Material, each stripe once
+	 * and in ascending order so that batches can never deadlock against each other or single operations.
+	 *
+	 * @param userId - int value representing the User whose stripe is locked
+	 * @param materialIds - int[] containing the ids of the Materials whose stripes are locked
+	 * @return - Returns an int[] of the stripe indexes that were locked, for passing to unlockStripes()
+	 */
+
+	private int[] lockStripes(int userId, int[] materialIds) {
+		int[] order = new int[materialIds.length + 1];
+		order[0] = stripeFor(userId);
+		for(int i = 0; i < materialIds.length; i++) {
+			order[i + 1] = stripeFor(materialIds[i]);
+		}
+		Arrays.sort(order);
+		int count = 0;
+		for(int i = 0; i < order.length; i++) {
+			if(count == 0 || order[count - 1] != order[i]) {
+				order[count++] = order[i];
+			}
+		}
+		int[] held = Arrays.copyOf(order, count);
+		for(int i : held) {
+			stripes[i].lock();
+		}
+		return held;
+	}
+
+	/**
+	 * Helper method that unlocks the stripes locked by lockStripes(), in the reverse of the order they were locked.
+	 *
+	 * @param held - int[] of stripe indexes returned by lockStripes()
+	 */
+
+	private void unlockStripes(int[] held) {
+		for(int i = held.length - 1; i >= 0; i--) {
+			stripes[held[i]].unlock();
+		}
+	}
+
+	/**
+	 * Helper method that chooses which stripe an id is guarded by.
+	 *
+	 * @param id - int value representing a User or Material id
+	 * @return - Returns an int value representing the index of the stripe lock for that id
+	 */
+
+	private int stripeFor(int id) {
+		int h = id * HASH_SCRAMBLE;
+		return (h ^ (h >>> 16)) & mask;
+	}
+
+}
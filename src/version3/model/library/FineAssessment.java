@@ -0,0 +1,178 @@
+package version3.model.library;
+
+import java.util.concurrent.RecursiveTask;
+
+import version3.model.material.Material;
+import version3.model.material.MaterialsCatalogue;
+import version3.model.organization.Organization;
+import version3.model.organization.OrganizationCatalogue;
+import version3.model.user.User;
+import version3.model.user.UserCatalogue;
+
+/**
+ * This class carries out Library.assessFines(): it works out the fine every open loan would be charged if it were
+ * returned at one moment, and totals those fines (and the loans) by Organization, without any Material being returned.
+ *
+ * The work is split over the ids of the Users rather than the Materials, since a User knows both what it has checked
+ * out and (through the OrganizationCatalogue) which Organization is liable for it. The id array is halved until a
+ * piece is no larger than the threshold, each piece is totalled into its own array by a fork/join worker, and the
+ * arrays are added together on the way back up; no worker ever writes to anything another worker reads, so nothing
+ * needs to be locked or shared while the loans are being read.
+ *
+ * The totals for each piece are kept in one long[] with TALLY_WIDTH entries per Organization id, so that merging two
+ * pieces is one pass over a flat array. The threshold is never smaller than that array, so that merging never costs
+ * more than the piece took to total.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+class FineAssessment extends RecursiveTask<long[]> {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** long value used to mark the version of this class when it is serialized by the fork/join framework*/
+	private static final long serialVersionUID = 1L;
+	/** int value denoting the smallest number of Users a piece of the assessment is split down to*/
+	private static final int MINIMUM_THRESHOLD = 4096;
+	/** int value denoting how many totals are kept per Organization id*/
+	static final int TALLY_WIDTH = 3;
+	/** int value denoting the offset of an Organization's accrued fines within its totals*/
+	static final int TALLY_LIABILITY = 0;
+	/** int value denoting the offset of an Organization's count of open loans within its totals*/
+	static final int TALLY_OPEN = 1;
+	/** int value denoting the offset of an Organization's count of loans that have accrued a fine within its totals*/
+	static final int TALLY_OVERDUE = 2;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** UserCatalogue object holding the Users whose loans are assessed*/
+	private UserCatalogue users;
+	/** MaterialsCatalogue object holding the Materials that are on loan*/
+	private MaterialsCatalogue materials;
+	/** OrganizationCatalogue object used to find the Organization liable for each User*/
+	private OrganizationCatalogue organizations;
+	/** int[] holding the ids of every User being assessed; shared by every piece, which each read their own range*/
+	private int[] userIds;
+	/** int value representing the first index of userIds this piece assesses*/
+	private int from;
+	/** int value representing the index of userIds after the last one this piece assesses*/
+	private int to;
+	/** int value representing how many Organization ids the totals have room for*/
+	private int organizationCount;
+	/** long value representing the time, in milliseconds, as of which the fines are worked out*/
+	private long time;
+	/** int value representing the largest number of Users a piece totals itself rather than splitting*/
+	private int threshold;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the FineAssessment class that prepares an assessment of every User in the provided array.
+	 *
+	 * @param inUsers - UserCatalogue object holding the Users being assessed
+	 * @param inMaterials - MaterialsCatalogue object holding the Materials that are on loan
+	 * @param inOrganizations - OrganizationCatalogue object used to find the Organization liable for each User
+	 * @param ids - int[] holding the ids of the Users being assessed
+	 * @param orgCount - int value representing one more than the largest Organization id
+	 * @param when - long value representing the time, in milliseconds, as of which the fines are worked out
+	 */
+
+	FineAssessment(UserCatalogue inUsers, MaterialsCatalogue inMaterials, OrganizationCatalogue inOrganizations, int[] ids, int orgCount, long when) {
+		this(inUsers, inMaterials, inOrganizations, ids, 0, ids.length, orgCount, when, Math.max(MINIMUM_THRESHOLD, orgCount * TALLY_WIDTH));
+	}
+
+	/**
+	 * Constructor for the FineAssessment class that prepares the assessment of one piece of the User id array.
+	 *
+	 * @param inUsers - UserCatalogue object holding the Users being assessed
+	 * @param inMaterials - MaterialsCatalogue object holding the Materials that are on loan
+	 * @param inOrganizations - OrganizationCatalogue object used to find the Organization liable for each User
+	 * @param ids - int[] holding the ids of every User being assessed
+	 * @param start - int value representing the first index of ids this piece assesses
+	 * @param end - int value representing the index of ids after the last one this piece assesses
+	 * @param orgCount - int value representing one more than the largest Organization id
+	 * @param when - long value representing the time, in milliseconds, as of which the fines are worked out
+	 * @param size - int value representing the largest number of Users a piece totals itself
+	 */
+
+	private FineAssessment(UserCatalogue inUsers, MaterialsCatalogue inMaterials, OrganizationCatalogue inOrganizations, int[] ids, int start, int end, int orgCount, long when, int size) {
+		users = inUsers;
+		materials = inMaterials;
+		organizations = inOrganizations;
+		userIds = ids;
+		from = start;
+		to = end;
+		organizationCount = orgCount;
+		time = when;
+		threshold = size;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function called by the fork/join framework that totals this piece of the assessment, splitting it in half and
+	 * assessing the halves in parallel if it is larger than the threshold.
+	 *
+	 * @return - Returns a long[] holding TALLY_WIDTH totals for each Organization id
+	 */
+
+	@Override
+	protected long[] compute() {
+		if(to - from <= threshold) {
+			return tally();
+		}
+		int middle = (from + to) >>> 1;
+		FineAssessment left = new FineAssessment(users, materials, organizations, userIds, from, middle, organizationCount, time, threshold);
+		FineAssessment right = new FineAssessment(users, materials, organizations, userIds, middle, to, organizationCount, time, threshold);
+		left.fork();
+		long[] out = right.compute();
+		long[] other = left.join();
+		for(int i = 0; i < out.length; i++) {
+			out[i] += other[i];
+		}
+		return out;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that totals the fines and loans of every User in this piece by the Organization liable for them.
+	 *
+	 * A loan whose Material has just been returned (which can happen while a ConcurrentLibrary keeps serving the
+	 * desks) is skipped, since it no longer accrues anything.
+	 *
+	 * @return - Returns a long[] holding TALLY_WIDTH totals for each Organization id
+	 */
+
+	private long[] tally() {
+		long[] out = new long[organizationCount * TALLY_WIDTH];
+		for(int i = from; i < to; i++) {
+			int userId = userIds[i];
+			User user = users.getUser(userId);
+			if(user == null || user.getCheckedOutCount() == 0) {
+				continue;
+			}
+			Organization org = organizations.getOrganizationByUser(userId);
+			if(org == null || org.getId() >= organizationCount) {
+				continue;
+			}
+			int base = org.getId() * TALLY_WIDTH;
+			for(int materialId : user.getCheckedOut()) {
+				Material material = materials.getMaterial(materialId);
+				if(material == null || material.isAvailable()) {
+					continue;
+				}
+				int cost = materials.calculateOverdueCost(materialId, time);
+				out[base + TALLY_OPEN]++;
+				if(cost > 0) {
+					out[base + TALLY_OVERDUE]++;
+					out[base + TALLY_LIABILITY] += cost;
+				}
+			}
+		}
+		return out;
+	}
+
+}
@@ -0,0 +1,182 @@
+package version3.model.library;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class counts latencies (in nanoseconds) into log-linear buckets in the style of an HDR histogram: every power
+ * of two is split into 32 equal buckets, so any recorded value is known to within about 3% while the whole range from
+ * a nanosecond to several hours fits in about 1300 counters. Recording a value is a few shifts and one atomic increment,
+ * with no allocation and no lock, so it is cheap enough to do on every Library operation.
+ * 
+ * So that threads recording at the same time do not all fight over the same counter, the counters are split into
+ * several stripes and each thread records into the stripe chosen by its id; reading a percentile adds the stripes up.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LatencyHistogram {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value denoting how many bits of each value are kept below its highest bit; 5 bits gives 32 buckets per power of two*/
+	private static final int SUB_BUCKET_BITS = 5;
+	/** int value denoting how many buckets each power of two is split into*/
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	/** int value denoting the highest power of two that is tracked separately; larger values are counted in the last bucket*/
+	private static final int MAXIMUM_EXPONENT = 44;
+	/** int value denoting how many buckets each stripe holds*/
+	private static final int BUCKET_COUNT = SUB_BUCKETS + (MAXIMUM_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+	/** int value denoting the most stripes a histogram is split into*/
+	private static final int MAXIMUM_STRIPES = 16;
+	
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** AtomicLongArray object holding every stripe's bucket counts one after the other*/
+	private AtomicLongArray counts;
+	/** int value used to reduce a thread id to a stripe; one less than the (power of two) number of stripes*/
+	private int mask;
+	/** LongAdder object holding the total of every recorded value, for the mean*/
+	private LongAdder total;
+	/** LongAccumulator object holding the largest recorded value*/
+	private LongAccumulator maximum;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the LatencyHistogram class that creates one stripe per available processor, up to MAXIMUM_STRIPES.
+	 * 
+	 */
+	
+	public LatencyHistogram() {
+		int stripes = Math.min(MAXIMUM_STRIPES, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() - 1)) << 1);
+		counts = new AtomicLongArray(stripes * BUCKET_COUNT);
+		mask = stripes - 1;
+		total = new LongAdder();
+		maximum = new LongAccumulator(Math::max, 0);
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that records one latency.
+	 * 
+	 * @param nanos - long value representing a latency in nanoseconds; negative values are counted as 0
+	 */
+	
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		int stripe = (int)Thread.currentThread().getId() & mask;
+		counts.incrementAndGet(stripe * BUCKET_COUNT + bucketFor(value));
+		total.add(value);
+		maximum.accumulate(value);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests how many latencies have been recorded.
+	 * 
+	 * @return - Returns a long value representing the number of recorded latencies
+	 */
+	
+	public long getCount() {
+		long out = 0;
+		for(int i = 0; i < counts.length(); i++) {
+			out += counts.get(i);
+		}
+		return out;
+	}
+	
+	/**
+	 * Getter method that requests the latency below which the provided percentage of recorded latencies fall.
+	 * The answer is the top of the bucket the percentile lands in, so it may be up to about 3% above the true value.
+	 * 
+	 * @param percent - double value representing the percentile, from 0 to 100
+	 * @return - Returns a long value representing that percentile in nanoseconds, or 0 if nothing has been recorded
+	 */
+	
+	public long getPercentile(double percent) {
+		long[] merged = new long[BUCKET_COUNT];
+		long count = 0;
+		for(int i = 0; i < counts.length(); i++) {
+			merged[i % BUCKET_COUNT] += counts.get(i);
+			count += counts.get(i);
+		}
+		if(count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long)Math.ceil(Math.min(100, Math.max(0, percent)) / 100.0 * count));
+		long seen = 0;
+		for(int i = 0; i < BUCKET_COUNT; i++) {
+			seen += merged[i];
+			if(seen >= target) {
+				return Math.min(highestValueIn(i), getMaximum());
+			}
+		}
+		return getMaximum();
+	}
+	
+	/**
+	 * Getter method that requests the mean of the recorded latencies.
+	 * 
+	 * @return - Returns a double value representing the mean latency in nanoseconds, or 0 if nothing has been recorded
+	 */
+	
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double)total.sum() / count;
+	}
+	
+	/**
+	 * Getter method that requests the largest recorded latency.
+	 * 
+	 * @return - Returns a long value representing the largest latency in nanoseconds, or 0 if nothing has been recorded
+	 */
+	
+	public long getMaximum() {
+		return maximum.get();
+	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that finds the bucket a value is counted in. Values below SUB_BUCKETS each have their own bucket;
+	 * above that, the highest set bit chooses the power of two and the next SUB_BUCKET_BITS bits choose the bucket within it.
+	 * 
+	 * @param value - long value, not negative, being counted
+	 * @return - Returns an int value representing the index of the value's bucket
+	 */
+	
+	private static int bucketFor(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int)value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		if(exponent > MAXIMUM_EXPONENT) {
+			return BUCKET_COUNT - 1;
+		}
+		int sub = (int)(value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + sub;
+	}
+	
+	/**
+	 * Helper method that finds the largest value that is counted in the provided bucket.
+	 * 
+	 * @param bucket - int value representing the index of a bucket
+	 * @return - Returns a long value representing the largest value counted in that bucket
+	 */
+	
+	private static long highestValueIn(int bucket) {
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+		int sub = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+		return ((long)(SUB_BUCKETS + sub + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+	}
+	
+}
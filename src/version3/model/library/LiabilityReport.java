@@ -0,0 +1,188 @@
+package version3.model.library;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * This class holds the result of Library.assessFines(): for each Organization, the fines its Users' open loans have
+ * accrued but not yet been charged, how many loans are open, and how many of those have accrued a fine, all as of the
+ * time the assessment was made.
+ *
+ * None of this is charged to anyone; fines are still only added to an Organization when the Material is returned. The
+ * report lets a library see what each Organization owes before then. It never changes once made, so it may be kept or
+ * handed to another thread freely.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LiabilityReport {
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** long value representing the time, in milliseconds from the LibraryClock, as of which the fines were worked out*/
+	private final long time;
+	/** String[] object holding the name of each Organization, indexed by its id (null for an unused id)*/
+	private final String[] names;
+	/** HashMap<<r>String, Integer> object mapping the name of each Organization to its id*/
+	private final HashMap<String, Integer> ids;
+	/** long[] holding FineAssessment.TALLY_WIDTH totals for each Organization id*/
+	private final long[] tallies;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the LiabilityReport class that takes the totals produced by a FineAssessment.
+	 *
+	 * @param when - long value representing the time, in milliseconds, as of which the fines were worked out
+	 * @param orgNames - String[] holding the name of each Organization, indexed by its id
+	 * @param totals - long[] holding FineAssessment.TALLY_WIDTH totals for each Organization id
+	 */
+
+	LiabilityReport(long when, String[] orgNames, long[] totals) {
+		time = when;
+		names = orgNames;
+		tallies = totals;
+		ids = new HashMap<String, Integer>();
+		for(int i = 0; i < names.length; i++) {
+			if(names[i] != null) {
+				ids.put(names[i], i);
+			}
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the time the fines in this report were worked out for.
+	 *
+	 * @return - Returns a long value representing the time, in milliseconds from the LibraryClock, of the assessment
+	 */
+
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Getter method that requests the names of the Organizations in this report, in the order of their ids.
+	 *
+	 * @return - Returns an ArrayList<<r>String> object containing the name of every Organization assessed
+	 */
+
+	public ArrayList<String> getOrganizations(){
+		ArrayList<String> out = new ArrayList<String>();
+		for(String s : names) {
+			if(s != null) {
+				out.add(s);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that requests the fines the named Organization's open loans have accrued but not been charged.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @return - Returns a long value representing the accrued fines, or 0 if the Organization was not assessed
+	 */
+
+	public long getLiability(String organization) {
+		return getTally(organization, FineAssessment.TALLY_LIABILITY);
+	}
+
+	/**
+	 * Getter method that requests how many loans the named Organization's Users have open.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @return - Returns a long value representing the number of open loans, or 0 if the Organization was not assessed
+	 */
+
+	public long getOpenLoans(String organization) {
+		return getTally(organization, FineAssessment.TALLY_OPEN);
+	}
+
+	/**
+	 * Getter method that requests how many of the named Organization's open loans have accrued a fine.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @return - Returns a long value representing the number of overdue loans, or 0 if the Organization was not assessed
+	 */
+
+	public long getOverdueLoans(String organization) {
+		return getTally(organization, FineAssessment.TALLY_OVERDUE);
+	}
+
+	/**
+	 * Getter method that requests the fines accrued but not charged across every Organization.
+	 *
+	 * @return - Returns a long value representing the total accrued fines
+	 */
+
+	public long getTotalLiability() {
+		return getTotal(FineAssessment.TALLY_LIABILITY);
+	}
+
+	/**
+	 * Getter method that requests how many loans are open across every Organization.
+	 *
+	 * @return - Returns a long value representing the total number of open loans
+	 */
+
+	public long getTotalOpenLoans() {
+		return getTotal(FineAssessment.TALLY_OPEN);
+	}
+
+	/**
+	 * Getter method that requests how many open loans have accrued a fine across every Organization.
+	 *
+	 * @return - Returns a long value representing the total number of overdue loans
+	 */
+
+	public long getTotalOverdueLoans() {
+		return getTotal(FineAssessment.TALLY_OVERDUE);
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that reads one of the totals kept for the named Organization.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @param offset - int value representing which of the FineAssessment.TALLY_... totals to read
+	 * @return - Returns a long value representing the total, or 0 if the Organization was not assessed
+	 */
+
+	private long getTally(String organization, int offset) {
+		Integer id = ids.get(organization);
+		return id == null ? 0 : tallies[id * FineAssessment.TALLY_WIDTH + offset];
+	}
+
+	/**
+	 * Helper method that adds up one of the totals across every Organization.
+	 *
+	 * @param offset - int value representing which of the FineAssessment.TALLY_... totals to add up
+	 * @return - Returns a long value representing the sum
+	 */
+
+	private long getTotal(int offset) {
+		long out = 0;
+		for(int i = offset; i < tallies.length; i += FineAssessment.TALLY_WIDTH) {
+			out += tallies[i];
+		}
+		return out;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder out = new StringBuilder();
+		for(int i = 0; i < names.length; i++) {
+			if(names[i] != null) {
+				int base = i * FineAssessment.TALLY_WIDTH;
+				out.append(names[i]).append(": liability=").append(tallies[base + FineAssessment.TALLY_LIABILITY]).append(", open=").append(tallies[base + FineAssessment.TALLY_OPEN]).append(", overdue=").append(tallies[base + FineAssessment.TALLY_OVERDUE]).append('\n');
+			}
+		}
+		return out.toString();
+	}
+
+}
@@ -1,7 +1,14 @@
 package version3.model.library;
 
+import java.util.concurrent.ForkJoinPool;
+
+import version3.model.catalogue.CatalogueStorage;
+import version3.model.material.CheckoutTime;
+import version3.model.material.Material;
 import version3.model.material.MaterialsCatalogue;
+import version3.model.material.materialtype.MaterialType;
 import version3.model.material.materialtype.MaterialTypeRegistry;
+import version3.model.organization.Organization;
 import version3.model.organization.OrganizationCatalogue;
 import version3.model.user.UserCatalogue;
 
@@ -40,6 +47,25 @@ public class Library {
 	/** int value denoting the maximum size of fines that a user's organization can have before they are not permitted to check out materials*/
 	private static final int MAXIMUM_CHECKOUT_FINES = 100;	
 	
+	/** int value reported for a Material that was successfully checked out or returned*/
+	public static final int RESULT_SUCCESS = 0;
+	/** int value reported when the User or Material involved does not exist in the Library*/
+	public static final int RESULT_UNKNOWN_ID = 1;
+	/** int value reported when a checkout would put the User over the maximum number of checked out Materials*/
+	public static final int RESULT_CHECKOUT_LIMIT = 2;
+	/** int value reported when the User's Organization has more fines than the Library permits for checkouts*/
+	public static final int RESULT_FINES_LIMIT = 3;
+	/** int value reported when the User has an overdue Material and so cannot check out more*/
+	public static final int RESULT_OVERDUE = 4;
+	/** int value reported when a Material being checked out is already checked out (or appears twice in the same batch)*/
+	public static final int RESULT_UNAVAILABLE = 5;
+	/** int value reported when a Material being returned is not checked out by the User returning it (or appears twice in the same batch)*/
+	public static final int RESULT_NOT_HELD = 6;
+	/** int value reported for a Material that was fine on its own but was not processed because another item in its batch failed*/
+	public static final int RESULT_NOT_APPLIED = 7;
+	/** int value reported when a Material being checked out is being held for another User who reserved it; the last RESULT_... value, which BatchInterpreter's own codes follow*/
+	public static final int RESULT_RESERVED = 8;
+	
 //---  Instance Variables   -------------------------------------------------------------------
 
 	/** UserCatalogue object that manages the users stored by the Library who may interface with it*/
@@ -48,6 +74,16 @@ public class Library {
 	private MaterialsCatalogue materials;
 	/** OrganizationCatalogue object that manages the Organizations that Users of the Library are members of and that are fined by the Library.*/
 	private OrganizationCatalogue organizations;
+	/** WriteAheadLog object that successful changes to the Library are recorded in, or null if changes are not recorded*/
+	private WriteAheadLog journal;
+	/** LibraryMetrics object that the latency and outcome of every operation is recorded in, or null if operations are not measured*/
+	private volatile LibraryMetrics metrics;
+	/** LibraryEventBus object that checkouts, returns, payments and enrolments are published to, or null if they are not published*/
+	private volatile LibraryEventBus events;
+	/** ProjectedLiabilityView object kept up to date with every loan, return and payment, or null if there is none*/
+	private volatile ProjectedLiabilityView liability;
+	/** ReservationBook object holding the queue of Users waiting for each reserved Material*/
+	private ReservationBook reservations;
 	
 //---  Constructors   -------------------------------------------------------------------------
 	
@@ -61,6 +97,7 @@ public class Library {
 		users = new UserCatalogue(MAXIMUM_CHECKOUT_LIMIT);
 		materials = new MaterialsCatalogue();
 		organizations = new OrganizationCatalogue(MAXIMUM_CHECKOUT_FINES);
+		reservations = new ReservationBook();
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
@@ -76,11 +113,82 @@ public class Library {
 	 */
 	
 	public boolean stockMaterial(int materialId, String type) {
-		if(materials.getResource(materialId) != null || MaterialTypeRegistry.getEntry(type) == null) {
-			return false;
-		}
-		materials.addResource(materials.compileMaterial(materialId, type));
-		return true;
+		long start = startTimer();
+		boolean out = performStock(materialId, type);
+		finishTimer(LibraryMetrics.OPERATION_STOCK, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function adds a new Material to the Library as stockMaterial(int, String) does, and then describes it with
+	 * the provided title, author and keywords so that it can be found by searchMaterials().
+	 * 
+	 * @param materialId - int value representing the ID associated with the new material
+	 * @param type - String value representing the type associated with the new material
+	 * @param title - String object representing the title of the new material, or null
+	 * @param author - String object representing the author of the new material, or null
+	 * @param keywords - String[] containing the subject keywords of the new material, or null
+	 * @return - Returns a boolean value representing whether or not the material was successfully stocked
+	 */
+	
+	public boolean stockMaterial(int materialId, String type, String title, String author, String[] keywords) {
+		long start = startTimer();
+		boolean out = performStock(materialId, type) && performDescribe(materialId, title, author, keywords);
+		finishTimer(LibraryMetrics.OPERATION_STOCK, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function replaces the title, author and keywords of a Material already in the Library, which is what
+	 * searchMaterials() finds it by.
+	 * 
+	 * @param materialId - int value representing the ID of the material being described
+	 * @param title - String object representing the title of the material, or null
+	 * @param author - String object representing the author of the material, or null
+	 * @param keywords - String[] containing the subject keywords of the material, or null
+	 * @return - Returns a boolean value; true if the material was described, false if there is no material with that ID
+	 */
+	
+	public boolean describeMaterial(int materialId, String title, String author, String[] keywords) {
+		return performDescribe(materialId, title, author, keywords);
+	}
+	
+	/**
+	 * This function searches the titles, authors and keywords of the Library's materials. Every word of the query
+	 * must match (ignoring case and punctuation), and a word ending in '*' matches any word that starts with it, so
+	 * "herbert dun*" finds materials by Herbert with a word starting with "dun".
+	 * 
+	 * @param query - String object holding the words to search for, separated by spaces
+	 * @param limit - int value representing the most results to return
+	 * @return - Returns an int[] containing the IDs of up to limit matching materials, in increasing order
+	 */
+	
+	public int[] searchMaterials(String query, int limit) {
+		return performSearch(query, limit);
+	}
+
+	/**
+	 * This function finds a material of the named type that is not checked out, so that a request for "any copy"
+	 * of a type can be met without the caller testing each material. The earliest stocked available material is
+	 * returned.
+	 *
+	 * @param type - String object representing the name of the material type
+	 * @return - Returns an int value representing the ID of an available material of that type, or AvailabilityIndex.NO_MATERIAL if there is none
+	 */
+
+	public int findAvailableMaterial(String type) {
+		return materials.findAvailableMaterial(type);
+	}
+
+	/**
+	 * This function counts the materials of the named type that are not checked out.
+	 *
+	 * @param type - String object representing the name of the material type
+	 * @return - Returns an int value representing the number of available materials of that type
+	 */
+
+	public int countAvailableMaterials(String type) {
+		return materials.countAvailableMaterials(type);
 	}
 
 	/**
@@ -96,13 +204,10 @@ public class Library {
 	 */
 	
 	public boolean enrolUser(int userId, String organization) {
-		if(users.getResource(userId) != null) {
-			return false;
-		}
-		addOrganization(organization);
-		users.addResource(users.compileUser(userId, organization));
-		organizations.addUserToOrganization(userId, organization);
-		return true;
+		long start = startTimer();
+		boolean out = performEnrol(userId, organization);
+		finishTimer(LibraryMetrics.OPERATION_ENROL, out, start);
+		return out;
 	}
 
 	/**
@@ -114,11 +219,10 @@ public class Library {
 	 */
 	
 	public boolean addOrganization(String organization) {
-		if(organizations.getOrganization(organization) != null) {
-			return false;
-		}
-		organizations.addResource(organizations.compileOrganization(organization));
-		return true;
+		long start = startTimer();
+		boolean out = performAddOrganization(organization);
+		finishTimer(LibraryMetrics.OPERATION_ORGANIZATION, out, start);
+		return out;
 	}
 	
 	/**
@@ -132,12 +236,23 @@ public class Library {
 	 */
 	
 	public boolean checkoutMaterial(int userId, int materialId) {
-		if(!validateCheckout(userId, materialId)) {
-			return false;
-		}
-		users.getUser(userId).addMaterial(materialId);
-		materials.getMaterial(materialId).checkoutMaterial();
-		return true;
+		return checkoutMaterialResult(userId, materialId) == RESULT_SUCCESS;
+	}
+	
+	/**
+	 * This function does the same as checkoutMaterial(), but reports which rule (if any) stopped the checkout instead
+	 * of only whether it happened.
+	 * 
+	 * @param userId - int value representing the ID associated with the user checking out a material
+	 * @param materialId - int value representing the ID associated with the material being checked out
+	 * @return - Returns an int value of RESULT_SUCCESS if the material was checked out, or the RESULT_... value of the rule that stopped it
+	 */
+	
+	public int checkoutMaterialResult(int userId, int materialId) {
+		long start = startTimer();
+		int out = performCheckout(userId, materialId);
+		finishTimer(LibraryMetrics.OPERATION_CHECKOUT, out, start);
+		return out;
 	}
 	
 	/**
@@ -149,20 +264,121 @@ public class Library {
 	 * checked out that item. If it succeeds, then the material ID is removed from the list of data associated with
 	 * the user.
 	 * 
+	 * If other users have reserved the material, it is then checked out to the first of them who is allowed to have
+	 * it (see reserveMaterial()).
+	 * 
 	 * @param userId - int value representing the ID of the user that is returning the material
 	 * @param materialId - int value representing the Id of the material that is being returned
 	 * @return - Returns a boolean value representing the result of this operation; false if it did not succeed, true if it did
 	 */
 
 	public boolean returnMaterial(int userId, int materialId) {
-		if(!users.getUser(userId).hasMaterial(materialId)) {
-			return false;
+		return returnMaterialResult(userId, materialId) == RESULT_SUCCESS;
+	}
+	
+	/**
+	 * This function does the same as returnMaterial(), but reports why the return failed instead of only whether it
+	 * happened.
+	 * 
+	 * @param userId - int value representing the ID of the user that is returning the material
+	 * @param materialId - int value representing the Id of the material that is being returned
+	 * @return - Returns an int value of RESULT_SUCCESS if the material was returned, RESULT_UNKNOWN_ID if there is no such user, otherwise RESULT_NOT_HELD
+	 */
+	
+	public int returnMaterialResult(int userId, int materialId) {
+		long start = startTimer();
+		int out = performReturn(userId, materialId);
+		if(out == RESULT_SUCCESS) {
+			performHandoff(materialId);
 		}
-		users.getUser(userId).removeMaterial(materialId);
-		int cost = materials.calculateOverdueCost(materialId);
-		organizations.getOrganizationByUser(userId).addFines(cost);
-		materials.getMaterial(materialId).returnMaterial();
-		return true;
+		finishTimer(LibraryMetrics.OPERATION_RETURN, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function allows the caller to have a specified user checkout several materials at once, as happens when
+	 * a borrower brings a stack of items to the desk. The user's eligibility (their checkout limit, their organization's
+	 * fines, and whether they have overdue materials) is validated once for the whole batch rather than per item.
+	 * 
+	 * The batch is all-or-nothing: if any material cannot be checked out, none of them are, and the returned array
+	 * says why each item failed (items that would have been fine on their own are reported as RESULT_NOT_APPLIED).
+	 * 
+	 * @param userId - int value representing the ID associated with the user checking out the materials
+	 * @param materialIds - int[] containing the IDs of the materials being checked out
+	 * @return - Returns an int[] holding a RESULT_... value for each material, in the same order as materialIds
+	 */
+	
+	public int[] checkoutMaterials(int userId, int[] materialIds) {
+		long start = startTimer();
+		int[] out = performBatchCheckout(userId, materialIds);
+		finishTimer(LibraryMetrics.OPERATION_BATCH_CHECKOUT, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function allows the caller to have a specified user return several materials at once, such as when a book-drop
+	 * is emptied. Any overdue fines for the batch are totalled and charged to the user's organization in one step.
+	 * 
+	 * Like checkoutMaterials, the batch is all-or-nothing: if the user does not hold every material listed, nothing is
+	 * returned and the result array says which items were the problem. Reserved materials are handed on as they are by
+	 * returnMaterial().
+	 * 
+	 * @param userId - int value representing the ID of the user that is returning the materials
+	 * @param materialIds - int[] containing the IDs of the materials being returned
+	 * @return - Returns an int[] holding a RESULT_... value for each material, in the same order as materialIds
+	 */
+	
+	public int[] returnMaterials(int userId, int[] materialIds) {
+		long start = startTimer();
+		int[] out = performBatchReturn(userId, materialIds);
+		for(int i = 0; i < out.length; i++) {
+			if(out[i] == RESULT_SUCCESS) {
+				performHandoff(materialIds[i]);
+			}
+		}
+		finishTimer(LibraryMetrics.OPERATION_BATCH_RETURN, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function allows the caller to have a specified user join the queue for a material that is checked out.
+	 * When the material is returned it is checked out to the user at the front of the queue, if they are allowed to
+	 * have it (otherwise they lose their place and the next user is tried), and until then nobody else can check it
+	 * out; a borrower waiting for a material therefore never has to keep asking for it.
+	 * 
+	 * The operation fails if either ID is not in the Library's database, the material is available (so it can just be
+	 * checked out), the user already has the material, or the user is already in its queue.
+	 * 
+	 * @param userId - int value representing the ID of the user reserving the material
+	 * @param materialId - int value representing the ID of the material being reserved
+	 * @return - Returns a boolean value representing whether or not the user was added to the material's queue
+	 */
+	
+	public boolean reserveMaterial(int userId, int materialId) {
+		return performReserve(userId, materialId);
+	}
+	
+	/**
+	 * This function takes a specified user out of the queue for a material they reserved.
+	 * 
+	 * @param userId - int value representing the ID of the user cancelling their reservation
+	 * @param materialId - int value representing the ID of the reserved material
+	 * @return - Returns a boolean value; true if the user was in the material's queue, false if not
+	 */
+	
+	public boolean cancelReservation(int userId, int materialId) {
+		return performCancel(userId, materialId);
+	}
+	
+	/**
+	 * This function lists the users waiting for a material, in the order it will be offered to them.
+	 * 
+	 * @param materialId - int value representing the ID of the material
+	 * @return - Returns an int[] containing the IDs of the users who have reserved the material, first in line first
+	 */
+	
+	public int[] getReservations(int materialId) {
+		return reservations.getWaiting(materialId);
 	}
 	
 	/**
@@ -176,12 +392,455 @@ public class Library {
 	 */
 	
 	public boolean payFee(String organization, int amount) {
-		if(organizations.getOrganization(organization) == null) {
+		long start = startTimer();
+		boolean out = performPayment(organization, amount);
+		finishTimer(LibraryMetrics.OPERATION_PAY, out, start);
+		return out;
+	}
+	
+	/**
+	 * This function works out the fine that every open loan has accrued so far, as if each were returned right now,
+	 * and totals them by Organization; nothing is charged. See assessFines(long).
+	 * 
+	 * @return - Returns a LiabilityReport object holding the accrued fines and open loans of each Organization
+	 */
+	
+	public LiabilityReport assessFines() {
+		return assessFines(CheckoutTime.currentTime());
+	}
+	
+	/**
+	 * This function works out the fine that every open loan would have accrued by the provided time, and totals them
+	 * by Organization so that what each Organization owes on Materials not yet returned can be seen (such as by a
+	 * nightly job); nothing is charged, as fines are still only added to an Organization when the Material is returned.
+	 * 
+	 * The loans are assessed in parallel over the common fork/join pool, so the assessment takes roughly the time of
+	 * one pass over the Users divided by the number of processors.
+	 * 
+	 * @param time - long value representing the time, in milliseconds from the LibraryClock, as of which the fines are worked out
+	 * @return - Returns a LiabilityReport object holding the accrued fines and open loans of each Organization
+	 */
+	
+	public LiabilityReport assessFines(long time) {
+		return performAssessment(time);
+	}
+	
+	/**
+	 * This function re-applies a checkout that was recorded earlier (such as in a WriteAheadLog), restoring the
+	 * original checkout time rather than using the current time. The checkout rules are not tested again, since
+	 * they were already satisfied when the checkout first happened.
+	 * 
+	 * @param userId - int value representing the ID of the user that checked out the material
+	 * @param materialId - int value representing the ID of the material that was checked out
+	 * @param time - long value representing the time, in milliseconds, at which the material was checked out
+	 */
+	
+	void restoreCheckout(int userId, int materialId, long time) {
+		users.getUser(userId).addMaterial(materialId);
+		reservations.remove(materialId, userId);
+		materials.setCheckoutTime(materialId, time);
+	}
+	
+	/**
+	 * This function applies a return with an already decided fine; returnMaterial uses it after calculating the fine,
+	 * and replaying a WriteAheadLog uses it to charge exactly the fine that was charged originally.
+	 * 
+	 * @param userId - int value representing the ID of the user that returned the material
+	 * @param materialId - int value representing the ID of the material that was returned
+	 * @param cost - int value representing the fine charged to the user's organization for the return
+	 */
+	
+	void restoreReturn(int userId, int materialId, int cost) {
+		users.getUser(userId).removeMaterial(materialId);
+		organizations.getOrganizationByUser(userId).addFines(cost);
+		materials.returnMaterial(materialId);
+	}
+
+//---  Mechanics   ----------------------------------------------------------------------------
+	
+	/**
+	 * Helper method that carries out stockMaterial().
+	 * 
+	 * @param materialId - int value representing the ID associated with the new material
+	 * @param type - String value representing the type associated with the new material
+	 * @return - Returns a boolean value representing whether or not the material was successfully stocked
+	 */
+	
+	protected boolean performStock(int materialId, String type) {
+		MaterialType found = MaterialTypeRegistry.getMaterialType(type);
+		if(found == null || materials.getResource(materialId) != null) {
 			return false;
 		}
-		return organizations.getOrganization(organization).deductFines(amount);
+		materials.addResource(materials.compileMaterial(materialId, found));
+		if(journal != null) {
+			journal.recordStock(materialId, type);
+		}
+		return true;
 	}
-
+	
+	/**
+	 * Helper method that carries out describeMaterial().
+	 * 
+	 * @param materialId - int value representing the ID of the material being described
+	 * @param title - String object representing the title of the material, or null
+	 * @param author - String object representing the author of the material, or null
+	 * @param keywords - String[] containing the subject keywords of the material, or null
+	 * @return - Returns a boolean value; true if the material was described, false if there is no material with that ID
+	 */
+	
+	protected boolean performDescribe(int materialId, String title, String author, String[] keywords) {
+		if(materials.getMaterial(materialId) == null) {
+			return false;
+		}
+		materials.describeMaterial(materialId, title, author, keywords);
+		if(journal != null) {
+			journal.recordDescribe(materialId, title, author, keywords);
+		}
+		return true;
+	}
+	
+	/**
+	 * Helper method that carries out searchMaterials().
+	 * 
+	 * @param query - String object holding the words to search for
+	 * @param limit - int value representing the most results to return
+	 * @return - Returns an int[] containing the IDs of up to limit matching materials, in increasing order
+	 */
+	
+	protected int[] performSearch(String query, int limit) {
+		return materials.searchMaterials(query, limit);
+	}
+	
+	/**
+	 * Helper method that carries out enrolUser().
+	 * 
+	 * @param userId - int value representing the ID associated with the new user
+	 * @param organization - String object representing the organization that the new user is associated with
+	 * @return - Returns a boolean value representing whether or not the user was successfully added
+	 */
+	
+	protected boolean performEnrol(int userId, String organization) {
+		if(users.getResource(userId) != null) {
+			return false;
+		}
+		addOrganization(organization);
+		users.addResource(users.compileUser(userId, organization));
+		organizations.addUserToOrganization(userId, organization);
+		if(journal != null) {
+			journal.recordEnrol(userId, organization);
+		}
+		publish(LibraryEvent.TYPE_ENROL, userId, -1, organization, -1);
+		return true;
+	}
+	
+	/**
+	 * Helper method that carries out addOrganization().
+	 * 
+	 * @param organization - String object representing the organization that is being added to the Library
+	 * @return - Returns a boolean value; true if the organization was added, false if it already existed
+	 */
+	
+	protected boolean performAddOrganization(String organization) {
+		if(organizations.getOrganization(organization) != null) {
+			return false;
+		}
+		Organization added = organizations.compileOrganization(organization);
+		organizations.addResource(added);
+		if(journal != null) {
+			journal.recordOrganization(organization);
+		}
+		ProjectedLiabilityView view = liability;
+		if(view != null) {
+			view.recordOrganization(added.getId(), organization, 0);
+		}
+		return true;
+	}
+	
+	/**
+	 * Helper method that carries out checkoutMaterial().
+	 * 
+	 * @param userId - int value representing the ID associated with the user checking out a material
+	 * @param materialId - int value representing the ID associated with the material being checked out
+	 * @return - Returns an int value of RESULT_SUCCESS if the material was checked out, or the RESULT_... value of the rule that stopped it
+	 */
+	
+	protected int performCheckout(int userId, int materialId) {
+		int out = validateCheckout(userId, materialId);
+		if(out != RESULT_SUCCESS) {
+			return out;
+		}
+		users.getUser(userId).addMaterial(materialId);
+		reservations.remove(materialId, userId);
+		materials.checkoutMaterial(materialId);
+		if(journal != null) {
+			journal.recordCheckout(userId, materialId, materials.getMaterial(materialId).getCheckoutTime());
+		}
+		recordLoan(userId, materialId);
+		publish(LibraryEvent.TYPE_CHECKOUT, userId, materialId, null, -1);
+		return RESULT_SUCCESS;
+	}
+	
+	/**
+	 * Helper method that carries out returnMaterial(). The fine is charged and recorded in the WriteAheadLog while the
+	 * user's Organization is locked, so that a payment of it can never be recorded ahead of it.
+	 * 
+	 * @param userId - int value representing the ID of the user that is returning the material
+	 * @param materialId - int value representing the Id of the material that is being returned
+	 * @return - Returns an int value of RESULT_SUCCESS if the material was returned, RESULT_UNKNOWN_ID if there is no such user, otherwise RESULT_NOT_HELD
+	 */
+	
+	protected int performReturn(int userId, int materialId) {
+		if(users.getUser(userId) == null) {
+			return RESULT_UNKNOWN_ID;
+		}
+		if(!users.getUser(userId).hasMaterial(materialId)) {
+			return RESULT_NOT_HELD;
+		}
+		int cost = materials.calculateOverdueCost(materialId);
+		synchronized(organizations.getOrganizationByUser(userId)) {
+			restoreReturn(userId, materialId, cost);
+			if(journal != null) {
+				journal.recordReturn(userId, materialId, cost);
+			}
+		}
+		ProjectedLiabilityView view = liability;
+		if(view != null) {
+			view.recordReturn(materialId, cost);
+		}
+		publish(LibraryEvent.TYPE_RETURN, userId, materialId, null, cost);
+		return RESULT_SUCCESS;
+	}
+	
+	/**
+	 * Helper method that carries out checkoutMaterials().
+	 * 
+	 * @param userId - int value representing the ID associated with the user checking out the materials
+	 * @param materialIds - int[] containing the IDs of the materials being checked out
+	 * @return - Returns an int[] holding a RESULT_... value for each material, in the same order as materialIds
+	 */
+	
+	protected int[] performBatchCheckout(int userId, int[] materialIds) {
+		int[] out = new int[materialIds.length];
+		int borrower = validateBorrower(userId, materialIds.length);
+		boolean failed = false;
+		for(int i = 0; i < materialIds.length; i++) {
+			out[i] = borrower == RESULT_SUCCESS ? validateMaterial(userId, materialIds[i]) : borrower;
+			for(int j = 0; j < i && out[i] == RESULT_SUCCESS; j++) {
+				if(materialIds[j] == materialIds[i]) {
+					out[i] = RESULT_UNAVAILABLE;
+				}
+			}
+			failed = failed || out[i] != RESULT_SUCCESS;
+		}
+		if(failed) {
+			return markNotApplied(out);
+		}
+		for(int id : materialIds) {
+			users.getUser(userId).addMaterial(id);
+			reservations.remove(id, userId);
+			materials.checkoutMaterial(id);
+			if(journal != null) {
+				journal.recordCheckout(userId, id, materials.getMaterial(id).getCheckoutTime());
+			}
+			recordLoan(userId, id);
+			publish(LibraryEvent.TYPE_CHECKOUT, userId, id, null, -1);
+		}
+		return out;
+	}
+	
+	/**
+	 * Helper method that carries out returnMaterials().
+	 * 
+	 * @param userId - int value representing the ID of the user that is returning the materials
+	 * @param materialIds - int[] containing the IDs of the materials being returned
+	 * @return - Returns an int[] holding a RESULT_... value for each material, in the same order as materialIds
+	 */
+	
+	protected int[] performBatchReturn(int userId, int[] materialIds) {
+		int[] out = new int[materialIds.length];
+		boolean failed = false;
+		for(int i = 0; i < materialIds.length; i++) {
+			if(users.getUser(userId) == null || materials.getMaterial(materialIds[i]) == null) {
+				out[i] = RESULT_UNKNOWN_ID;
+			}
+			else if(!users.getUser(userId).hasMaterial(materialIds[i])) {
+				out[i] = RESULT_NOT_HELD;
+			}
+			for(int j = 0; j < i && out[i] == RESULT_SUCCESS; j++) {
+				if(materialIds[j] == materialIds[i]) {
+					out[i] = RESULT_NOT_HELD;
+				}
+			}
+			failed = failed || out[i] != RESULT_SUCCESS;
+		}
+		if(failed) {
+			return markNotApplied(out);
+		}
+		int cost = 0;
+		for(int id : materialIds) {
+			users.getUser(userId).removeMaterial(id);
+			int fine = materials.calculateOverdueCost(id);
+			materials.returnMaterial(id);
+			cost += fine;
+			if(journal != null) {
+				journal.recordReturn(userId, id, fine);
+			}
+			ProjectedLiabilityView view = liability;
+			if(view != null) {
+				view.recordReturn(id, fine);
+			}
+			publish(LibraryEvent.TYPE_RETURN, userId, id, null, fine);
+		}
+		synchronized(organizations.getOrganizationByUser(userId)) {
+			organizations.getOrganizationByUser(userId).addFines(cost);
+		}
+		return out;
+	}
+	
+	/**
+	 * Helper method that carries out reserveMaterial().
+	 * 
+	 * @param userId - int value representing the ID of the user reserving the material
+	 * @param materialId - int value representing the ID of the material being reserved
+	 * @return - Returns a boolean value representing whether or not the user was added to the material's queue
+	 */
+	
+	protected boolean performReserve(int userId, int materialId) {
+		if(users.getUser(userId) == null || materials.getMaterial(materialId) == null) {
+			return false;
+		}
+		if(materials.checkAvailableMaterial(materialId) || users.getUser(userId).hasMaterial(materialId)) {
+			return false;
+		}
+		if(!reservations.add(materialId, userId)) {
+			return false;
+		}
+		if(journal != null) {
+			journal.recordReserve(userId, materialId);
+		}
+		return true;
+	}
+	
+	/**
+	 * Helper method that carries out cancelReservation(), and takes a user who cannot have a returned material out of
+	 * its queue.
+	 * 
+	 * @param userId - int value representing the ID of the user leaving the queue
+	 * @param materialId - int value representing the ID of the reserved material
+	 * @return - Returns a boolean value; true if the user was in the material's queue, false if not
+	 */
+	
+	protected boolean performCancel(int userId, int materialId) {
+		if(!reservations.remove(materialId, userId)) {
+			return false;
+		}
+		if(journal != null) {
+			journal.recordCancel(userId, materialId);
+		}
+		return true;
+	}
+	
+	/**
+	 * Helper method that hands a material that has just been returned to the users who reserved it: the user at the
+	 * front of its queue checks it out, or, if a rule stops them, loses their place and the next user is tried.
+	 * 
+	 * The checkout and any cancellations go through performCheckout() and performCancel(), so they are recorded, published
+	 * and (in a ConcurrentLibrary) locked as if they had been asked for directly. If the material has been checked out
+	 * again in the meantime, the queue is left as it is for the next return.
+	 * 
+	 * @param materialId - int value representing the ID of the returned material
+	 * @return - Returns an int value representing the ID of the user the material was checked out to, or -1 if it was not
+	 */
+	
+	protected int performHandoff(int materialId) {
+		int next = reservations.getNext(materialId);
+		while(next != -1) {
+			int result = performCheckout(next, materialId);
+			if(result == RESULT_SUCCESS) {
+				return next;
+			}
+			if(result == RESULT_UNAVAILABLE) {
+				return -1;
+			}
+			if(result != RESULT_RESERVED) {
+				performCancel(next, materialId);
+			}
+			next = reservations.getNext(materialId);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Helper method that carries out payFee(). The fine is deducted and recorded in the WriteAheadLog while the
+	 * Organization is locked, so the log holds each Organization's fines and payments in the order they happened.
+	 * 
+	 * @param organization - String object representing the organization that is having their fee paid
+	 * @param amount - int value representing the amount of money to pay towards the fee
+	 * @return - Returns a boolean value denoting whether or not the payment was accepted
+	 */
+	
+	protected boolean performPayment(String organization, int amount) {
+		Organization payee = organizations.getOrganization(organization);
+		if(payee == null) {
+			return false;
+		}
+		synchronized(payee) {
+			if(!payee.deductFines(amount)) {
+				return false;
+			}
+			if(journal != null) {
+				journal.recordPayment(organization, amount);
+			}
+		}
+		ProjectedLiabilityView view = liability;
+		if(view != null) {
+			view.recordPayment(organizations.getOrganization(organization).getId(), amount);
+		}
+		publish(LibraryEvent.TYPE_PAYMENT, -1, -1, organization, amount);
+		return true;
+	}
+	
+	/**
+	 * Helper method that carries out assessFines().
+	 * 
+	 * @param time - long value representing the time, in milliseconds, as of which the fines are worked out
+	 * @return - Returns a LiabilityReport object holding the accrued fines and open loans of each Organization
+	 */
+	
+	protected LiabilityReport performAssessment(long time) {
+		int count = 0;
+		for(Organization org : organizations.getOrganizations()) {
+			count = Math.max(count, org.getId() + 1);
+		}
+		String[] names = new String[count];
+		for(Organization org : organizations.getOrganizations()) {
+			names[org.getId()] = org.getName();
+		}
+		FineAssessment task = new FineAssessment(users, materials, organizations, users.getIds(), count, time);
+		return new LiabilityReport(time, names, ForkJoinPool.commonPool().invoke(task));
+	}
+	
+	/**
+	 * Helper method that carries out assignLiabilityView(), loading every Organization and open loan into the view
+	 * before it starts receiving changes.
+	 * 
+	 * @param in - ProjectedLiabilityView object being assigned, or null
+	 */
+	
+	protected void performLiabilityLoad(ProjectedLiabilityView in) {
+		if(in != null) {
+			for(Organization org : organizations.getOrganizations()) {
+				in.recordOrganization(org.getId(), org.getName(), org.getFines());
+			}
+			for(int userId : users.getIds()) {
+				for(int materialId : users.getUser(userId).getCheckedOut()) {
+					recordLoan(in, userId, materialId);
+				}
+			}
+		}
+		liability = in;
+	}
+	
 //---  Getter Methods   -----------------------------------------------------------------------
 	
 	/**
@@ -226,8 +885,162 @@ public class Library {
 		return organizations;
 	}
 	
+	/**
+	 * Getter method that requests the WriteAheadLog this Library records its changes in.
+	 * 
+	 * @return - Returns the assigned WriteAheadLog object, or null if changes are not being recorded
+	 */
+	
+	public WriteAheadLog getWriteAheadLog() {
+		return journal;
+	}
+	
+	/**
+	 * Getter method that requests the LibraryMetrics this Library records its operations in.
+	 * 
+	 * @return - Returns the assigned LibraryMetrics object, or null if operations are not being measured
+	 */
+	
+	public LibraryMetrics getLibraryMetrics() {
+		return metrics;
+	}
+	
+	/**
+	 * Getter method that requests the LibraryEventBus that changes to this Library are published to.
+	 * 
+	 * @return - Returns the assigned LibraryEventBus object, or null if changes are not being published
+	 */
+	
+	public LibraryEventBus getEventBus() {
+		return events;
+	}
+	
+	/**
+	 * Getter method that requests the ProjectedLiabilityView kept up to date by this Library.
+	 * 
+	 * @return - Returns the assigned ProjectedLiabilityView object, or null if there is none
+	 */
+	
+	public ProjectedLiabilityView getLiabilityView() {
+		return liability;
+	}
+	
+	/**
+	 * Getter method that requests the ReservationBook holding this Library's queues; used by LibrarySnapshot to write
+	 * the queues out and put them back without running them through reserveMaterial()'s checks again.
+	 * 
+	 * @return - Returns the ReservationBook object holding the Users waiting for each Material
+	 */
+	
+	ReservationBook getReservationBook() {
+		return reservations;
+	}
+	
+//---  Setter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Setter method that assigns a WriteAheadLog that every successful change to this Library is recorded in
+	 * before the change is reported as successful. Passing null stops recording.
+	 * 
+	 * @param in - WriteAheadLog object to record changes in, or null
+	 */
+	
+	public void assignWriteAheadLog(WriteAheadLog in) {
+		journal = in;
+	}
+	
+	/**
+	 * Setter method that assigns a LibraryMetrics object that the latency and outcome of every public operation is
+	 * recorded in. Passing null stops recording, after which each operation only pays for one null check.
+	 * 
+	 * @param in - LibraryMetrics object to record operations in, or null
+	 */
+	
+	public void assignLibraryMetrics(LibraryMetrics in) {
+		metrics = in;
+	}
+	
+	/**
+	 * Setter method that assigns a LibraryEventBus that every checkout, return, payment and enrolment is published to
+	 * once it has been made. Publishing never waits for the bus's listeners, so it adds next to nothing to each
+	 * operation; passing null stops publishing.
+	 * 
+	 * @param in - LibraryEventBus object to publish changes to, or null
+	 */
+	
+	public void assignEventBus(LibraryEventBus in) {
+		events = in;
+	}
+	
+	/**
+	 * Setter method that assigns a ProjectedLiabilityView for this Library to keep up to date. The Library's current
+	 * Organizations, fines and open loans are loaded into it first, so it should be given a new, empty view; from then
+	 * on every checkout, return and payment is recorded in it. Passing null stops recording.
+	 * 
+	 * @param in - ProjectedLiabilityView object to keep up to date, or null
+	 */
+	
+	public void assignLiabilityView(ProjectedLiabilityView in) {
+		performLiabilityLoad(in);
+	}
+	
+	/**
+	 * Setter method that replaces the MaterialsCatalogue with an empty one that keeps its Materials in the provided
+	 * CatalogueStorage; used by LibrarySnapshot to serve Materials straight from a mapped snapshot file.
+	 * 
+	 * @param in - CatalogueStorage object that the Library's Materials are kept in
+	 */
+	
+	void assignMaterialStorage(CatalogueStorage in) {
+		materials = new MaterialsCatalogue(in);
+	}
+	
 //---  Support Methods   ----------------------------------------------------------------------
 	
+	/**
+	 * Helper method that publishes a change to the assigned LibraryEventBus, if there is one.
+	 * 
+	 * @param type - int value representing the LibraryEvent.TYPE_... of the change
+	 * @param userId - int value representing the id of the User involved, or -1
+	 * @param materialId - int value representing the id of the Material involved, or -1
+	 * @param organization - String object representing the name of the Organization involved, or null
+	 * @param amount - int value representing the fine charged or amount paid, or -1
+	 */
+	
+	private void publish(int type, int userId, int materialId, String organization, int amount) {
+		LibraryEventBus bus = events;
+		if(bus != null) {
+			bus.publish(new LibraryEvent(type, userId, materialId, organization, amount, CheckoutTime.currentTime()));
+		}
+	}
+	
+	/**
+	 * Helper method that records a new loan in the assigned ProjectedLiabilityView, if there is one.
+	 * 
+	 * @param userId - int value representing the id of the User that checked out the Material
+	 * @param materialId - int value representing the id of the Material checked out
+	 */
+	
+	private void recordLoan(int userId, int materialId) {
+		ProjectedLiabilityView view = liability;
+		if(view != null) {
+			recordLoan(view, userId, materialId);
+		}
+	}
+	
+	/**
+	 * Helper method that records a loan in the provided ProjectedLiabilityView, charged to the User's Organization.
+	 * 
+	 * @param view - ProjectedLiabilityView object to record the loan in
+	 * @param userId - int value representing the id of the User that checked out the Material
+	 * @param materialId - int value representing the id of the Material checked out
+	 */
+	
+	private void recordLoan(ProjectedLiabilityView view, int userId, int materialId) {
+		Material m = materials.getMaterial(materialId);
+		view.recordCheckout(organizations.getOrganizationByUser(userId).getId(), materialId, m.getCheckoutTime(), m.getOverdueLimit(), m.getOverdueCost());
+	}
+	
 	/**
 	 * Helper method that validates that a user represented by their ArrayList<<r>String> of information is
 	 * allowed to check-out a material denoted by its material ID according to the three rules in the design
@@ -237,16 +1050,136 @@ public class Library {
 	 * The User cannot have fines exceeding $100
 	 * The User cannot have any materials that are overdue
 	 * 
-	 * This method checks these three constraints and returns a response denoting whether the user is allowed
-	 * to checkout the material or not.
+	 * This method checks these three constraints (and that the material is available) and returns a response
+	 * denoting whether the user is allowed to checkout the material or which rule stopped them.
 	 * 
 	 * @param userlId - int value denoting which User in the Library is trying to check out a Material
 	 * @param materialId - int value denoting which material in the Library the User is trying to check out
-	 * @return - Returns a boolean value informing the calling function of whether the represented User can checkout the denoted material or not
+	 * @return - Returns an int value of RESULT_SUCCESS if the represented User can checkout the denoted material, or the RESULT_... value of the rule that failed
+	 */
+	
+	private int validateCheckout(int userId, int materialId) {
+		int out = validateBorrower(userId, 1);
+		return out == RESULT_SUCCESS ? validateMaterial(userId, materialId) : out;
+	}
+	
+	/**
+	 * Helper method that validates the three rules about the borrower themselves (checkout limit, fines, and
+	 * overdue materials) for checking out the provided number of materials together.
+	 * 
+	 * @param userId - int value denoting which User in the Library is trying to check out Materials
+	 * @param count - int value denoting how many Materials the User is trying to check out at once
+	 * @return - Returns an int value of RESULT_SUCCESS if the User may check out that many Materials, or the RESULT_... value of the rule that failed
 	 */
 	
-	private boolean validateCheckout(int userId, int materialId) {
-		return users.validateUserCheckout(userId) && organizations.verifyOrganizationCheckout(userId) && materials.validateCheckoutAvailability(materialId, users.getUser(userId).getCheckedOut());
+	private int validateBorrower(int userId, int count) {
+		if(users.getUser(userId) == null) {
+			return RESULT_UNKNOWN_ID;
+		}
+		if(!users.validateUserCheckout(userId, count)) {
+			return RESULT_CHECKOUT_LIMIT;
+		}
+		if(!organizations.verifyOrganizationCheckout(userId)) {
+			return RESULT_FINES_LIMIT;
+		}
+		if(materials.checkOverdueMaterials(users.getUser(userId).getCheckedOut())) {
+			return RESULT_OVERDUE;
+		}
+		return RESULT_SUCCESS;
+	}
+	
+	/**
+	 * Helper method that validates that a material exists and is available to be checked out by the provided user;
+	 * a material that others have reserved is only available to the user at the front of its queue.
+	 * 
+	 * @param userId - int value denoting which User in the Library is trying to check out the material
+	 * @param materialId - int value denoting which material in the Library is being tested
+	 * @return - Returns an int value of RESULT_SUCCESS if the material can be checked out, otherwise RESULT_UNKNOWN_ID, RESULT_UNAVAILABLE or RESULT_RESERVED
+	 */
+	
+	private int validateMaterial(int userId, int materialId) {
+		if(materials.getMaterial(materialId) == null) {
+			return RESULT_UNKNOWN_ID;
+		}
+		if(!materials.checkAvailableMaterial(materialId)) {
+			return RESULT_UNAVAILABLE;
+		}
+		int next = reservations.getNext(materialId);
+		return next == -1 || next == userId ? RESULT_SUCCESS : RESULT_RESERVED;
+	}
+	
+	/**
+	 * Helper method that reads the time at which an operation starts, if operations are being measured. The public
+	 * operations time the perform... functions that do the work, which a ConcurrentLibrary overrides to take its locks,
+	 * so the recorded latency includes any time spent waiting for those locks.
+	 * 
+	 * @return - Returns a long value from System.nanoTime(), or 0 if no LibraryMetrics is assigned
+	 */
+	
+	private long startTimer() {
+		return metrics == null ? 0 : System.nanoTime();
+	}
+	
+	/**
+	 * Helper method that records an operation that succeeds or fails without a rule to blame.
+	 * 
+	 * @param operation - int value representing the LibraryMetrics.OPERATION_... that was performed
+	 * @param success - boolean value representing whether the operation succeeded
+	 * @param start - long value returned by startTimer() when the operation began
+	 */
+	
+	private void finishTimer(int operation, boolean success, long start) {
+		LibraryMetrics use = metrics;
+		if(use != null && start != 0) {
+			use.record(operation, success, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Helper method that records an operation along with the RESULT_... value it ended with.
+	 * 
+	 * @param operation - int value representing the LibraryMetrics.OPERATION_... that was performed
+	 * @param result - int value representing the RESULT_... value of the operation
+	 * @param start - long value returned by startTimer() when the operation began
+	 */
+	
+	private void finishTimer(int operation, int result, long start) {
+		LibraryMetrics use = metrics;
+		if(use != null && start != 0) {
+			use.record(operation, result, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Helper method that records a batch operation along with the RESULT_... value of each of its items.
+	 * 
+	 * @param operation - int value representing the LibraryMetrics.OPERATION_... that was performed
+	 * @param results - int[] containing the RESULT_... value of each item in the batch
+	 * @param start - long value returned by startTimer() when the operation began
+	 */
+	
+	private void finishTimer(int operation, int[] results, long start) {
+		LibraryMetrics use = metrics;
+		if(use != null && start != 0) {
+			use.record(operation, results, System.nanoTime() - start);
+		}
+	}
+	
+	/**
+	 * Helper method that marks every successful entry of a batch result as RESULT_NOT_APPLIED, used when
+	 * another entry in the batch failed and so nothing in the batch was carried out.
+	 * 
+	 * @param results - int[] containing the RESULT_... value of each item in a batch
+	 * @return - Returns the same int[] after the successful entries have been marked
+	 */
+	
+	private static int[] markNotApplied(int[] results) {
+		for(int i = 0; i < results.length; i++) {
+			if(results[i] == RESULT_SUCCESS) {
+				results[i] = RESULT_NOT_APPLIED;
+			}
+		}
+		return results;
 	}
 
 }
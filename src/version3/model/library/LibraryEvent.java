@@ -0,0 +1,140 @@
+package version3.model.library;
+
+/**
+ * This class describes one change made to a Library (a checkout, return, payment or enrolment), as handed to the
+ * LibraryListeners subscribed to a LibraryEventBus. LibraryEvents are never changed after they are created, so a
+ * listener may keep them for as long as it likes.
+ *
+ * Not every field means something for every type of event; the ones that don't are left at -1 (or null for the
+ * Organization name):
+ *
+ * 		TYPE_CHECKOUT	- userId, materialId
+ * 		TYPE_RETURN		- userId, materialId, amount (the overdue fine charged, 0 if it was on time)
+ * 		TYPE_PAYMENT	- organization, amount (the amount paid)
+ * 		TYPE_ENROL		- userId, organization
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibraryEvent {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting an event for a Material being checked out*/
+	public static final int TYPE_CHECKOUT = 0;
+	/** int value denoting an event for a Material being returned*/
+	public static final int TYPE_RETURN = 1;
+	/** int value denoting an event for a payment towards an Organization's fines*/
+	public static final int TYPE_PAYMENT = 2;
+	/** int value denoting an event for a User being enrolled*/
+	public static final int TYPE_ENROL = 3;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** int value representing which TYPE_... of change this event describes*/
+	private final int type;
+	/** int value representing the id of the User involved, or -1*/
+	private final int userId;
+	/** int value representing the id of the Material involved, or -1*/
+	private final int materialId;
+	/** String object representing the name of the Organization involved, or null*/
+	private final String organization;
+	/** int value representing the fine charged or amount paid, or -1*/
+	private final int amount;
+	/** long value representing the time, in milliseconds from the LibraryClock, that the change was made*/
+	private final long time;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the LibraryEvent class that assigns every field; fields that don't apply to the type of event
+	 * should be given -1 (or null).
+	 *
+	 * @param typ - int value representing the TYPE_... of change being described
+	 * @param user - int value representing the id of the User involved
+	 * @param material - int value representing the id of the Material involved
+	 * @param org - String object representing the name of the Organization involved
+	 * @param amt - int value representing the fine charged or amount paid
+	 * @param when - long value representing the time, in milliseconds, that the change was made
+	 */
+
+	public LibraryEvent(int typ, int user, int material, String org, int amt, long when) {
+		type = typ;
+		userId = user;
+		materialId = material;
+		organization = org;
+		amount = amt;
+		time = when;
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests which type of change this event describes.
+	 *
+	 * @return - Returns an int value of one of the TYPE_... constants
+	 */
+
+	public int getType() {
+		return type;
+	}
+
+	/**
+	 * Getter method that requests the id of the User involved in this event.
+	 *
+	 * @return - Returns an int value representing the User's id, or -1 if no User was involved
+	 */
+
+	public int getUserId() {
+		return userId;
+	}
+
+	/**
+	 * Getter method that requests the id of the Material involved in this event.
+	 *
+	 * @return - Returns an int value representing the Material's id, or -1 if no Material was involved
+	 */
+
+	public int getMaterialId() {
+		return materialId;
+	}
+
+	/**
+	 * Getter method that requests the name of the Organization involved in this event.
+	 *
+	 * @return - Returns a String object representing the Organization's name, or null if none was named
+	 */
+
+	public String getOrganization() {
+		return organization;
+	}
+
+	/**
+	 * Getter method that requests the money involved in this event: the fine charged for a return or the amount paid
+	 * for a payment.
+	 *
+	 * @return - Returns an int value representing the amount, or -1 if the event involves no money
+	 */
+
+	public int getAmount() {
+		return amount;
+	}
+
+	/**
+	 * Getter method that requests when the change was made.
+	 *
+	 * @return - Returns a long value representing the time, in milliseconds from the LibraryClock, of the change
+	 */
+
+	public long getTime() {
+		return time;
+	}
+
+	@Override
+	public String toString() {
+		return "LibraryEvent[type=" + type + ", user=" + userId + ", material=" + materialId + ", organization=" + organization + ", amount=" + amount + ", time=" + time + "]";
+	}
+
+}
@@ -0,0 +1,235 @@
+package version3.model.library;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class carries LibraryEvents from the threads changing a Library to the LibraryListeners subscribed to it, so
+ * that notifications, analytics and auditing can follow what the Library does without slowing it down. Assign one to
+ * a Library with assignEventBus() and every checkout, return, payment and enrolment is published to it.
+ *
+ * Publishing never waits. Events go into a fixed-size ring buffer: a publishing thread claims the next slot with a
+ * single compare-and-set on the tail counter and stores its event there, and one dispatcher thread takes events from
+ * the head and calls the listeners. If the listeners fall so far behind that the ring is full, new events are dropped
+ * (and counted by getDropped()) instead of making the desk wait; size the ring for the longest burst that matters.
+ *
+ * The dispatcher spins briefly when the ring is empty and then sleeps for a growing interval up to IDLE_PARK, so an
+ * idle bus costs almost nothing and publishers never have to wake it. An event may therefore reach the listeners up
+ * to about a millisecond after it was published.
+ *
+ * A listener that throws is not unsubscribed; the exception is counted by getFailures() and the next listener is
+ * called as normal.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibraryEventBus implements AutoCloseable {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many events the ring holds when no capacity is given*/
+	public static final int DEFAULT_CAPACITY = 1 << 16;
+	/** int value denoting how many times the dispatcher checks an empty ring before it starts sleeping*/
+	private static final int IDLE_SPINS = 100;
+	/** long value denoting the longest time, in nanoseconds, the dispatcher sleeps between checks of an empty ring*/
+	private static final long IDLE_PARK = 1000000;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** AtomicReferenceArray<<r>LibraryEvent> object holding the ring; a null slot has not been written yet (or was already taken)*/
+	private AtomicReferenceArray<LibraryEvent> ring;
+	/** int value used to reduce a sequence number to a slot; one less than the (power of two) capacity*/
+	private int mask;
+	/** AtomicLong object holding the sequence number of the next slot a publisher will claim*/
+	private AtomicLong tail;
+	/** long value representing the sequence number of the next slot the dispatcher will take*/
+	private volatile long head;
+	/** CopyOnWriteArrayList<<r>LibraryListener> object holding the subscribed listeners*/
+	private CopyOnWriteArrayList<LibraryListener> listeners;
+	/** LongAdder object counting events dropped because the ring was full*/
+	private LongAdder dropped;
+	/** LongAdder object counting exceptions thrown by listeners*/
+	private LongAdder failures;
+	/** Thread object that takes events from the ring and calls the listeners*/
+	private Thread dispatcher;
+	/** boolean value representing whether close() has been called*/
+	private volatile boolean closed;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the LibraryEventBus class that creates a ring of DEFAULT_CAPACITY events and starts its
+	 * dispatcher thread.
+	 *
+	 */
+
+	public LibraryEventBus() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for the LibraryEventBus class that creates a ring of (at least) the provided number of events,
+	 * rounded up to a power of two, and starts its dispatcher thread.
+	 *
+	 * @param capacity - int value representing the most events that may wait for the listeners at once
+	 */
+
+	public LibraryEventBus(int capacity) {
+		int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+		ring = new AtomicReferenceArray<LibraryEvent>(size);
+		mask = size - 1;
+		tail = new AtomicLong();
+		listeners = new CopyOnWriteArrayList<LibraryListener>();
+		dropped = new LongAdder();
+		failures = new LongAdder();
+		dispatcher = new Thread(this::dispatch, "LibraryEventBus-dispatch");
+		dispatcher.setDaemon(true);
+		dispatcher.start();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that puts an event on the ring for the listeners, without waiting; if the ring is full (or the bus has
+	 * been closed) the event is dropped instead.
+	 *
+	 * @param event - LibraryEvent object being published
+	 * @return - Returns a boolean value; true if the event was queued, false if it was dropped
+	 */
+
+	public boolean publish(LibraryEvent event) {
+		while(!closed) {
+			long next = tail.get();
+			if(next - head >= ring.length()) {
+				dropped.increment();
+				return false;
+			}
+			if(tail.compareAndSet(next, next + 1)) {
+				ring.lazySet((int)next & mask, event);
+				return true;
+			}
+		}
+		dropped.increment();
+		return false;
+	}
+
+	/**
+	 * Function that adds a listener, which hears every event published from now on.
+	 *
+	 * @param in - LibraryListener object being subscribed
+	 */
+
+	public void subscribe(LibraryListener in) {
+		listeners.add(in);
+	}
+
+	/**
+	 * Function that removes a listener; it may still hear an event that was already being dispatched.
+	 *
+	 * @param in - LibraryListener object being unsubscribed
+	 */
+
+	public void unsubscribe(LibraryListener in) {
+		listeners.remove(in);
+	}
+
+	/**
+	 * Function that stops the bus: nothing more is accepted, the events already on the ring are delivered, and then
+	 * the dispatcher thread ends. If the calling thread is interrupted while it waits for the dispatcher, it stops
+	 * waiting and keeps its interrupt status; the dispatcher still delivers what is left on the ring and then ends.
+	 *
+	 */
+
+	@Override
+	public void close() {
+		closed = true;
+		LockSupport.unpark(dispatcher);
+		try {
+			dispatcher.join();
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests how many events are waiting for the listeners.
+	 *
+	 * @return - Returns a long value representing the number of events published but not yet dispatched
+	 */
+
+	public long getPending() {
+		return tail.get() - head;
+	}
+
+	/**
+	 * Getter method that requests how many events were dropped because the ring was full.
+	 *
+	 * @return - Returns a long value representing the number of dropped events
+	 */
+
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * Getter method that requests how many times a listener has thrown an exception.
+	 *
+	 * @return - Returns a long value representing the number of listener failures
+	 */
+
+	public long getFailures() {
+		return failures.sum();
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method run by the dispatcher Thread that takes events from the ring in order and hands each to every
+	 * listener, until the bus is closed and the ring is empty.
+	 *
+	 */
+
+	private void dispatch() {
+		int idle = 0;
+		long park = 1000;
+		while(true) {
+			long at = head;
+			int slot = (int)at & mask;
+			LibraryEvent event = ring.get(slot);
+			if(event == null) {
+				if(closed && tail.get() == at) {
+					return;
+				}
+				if(idle++ < IDLE_SPINS) {
+					Thread.onSpinWait();
+				}
+				else {
+					LockSupport.parkNanos(park);
+					park = Math.min(park * 2, IDLE_PARK);
+				}
+				continue;
+			}
+			idle = 0;
+			park = 1000;
+			ring.lazySet(slot, null);
+			head = at + 1;
+			for(LibraryListener listener : listeners) {
+				try {
+					listener.handleEvent(event);
+				}
+				catch(RuntimeException e) {
+					failures.increment();
+				}
+			}
+		}
+	}
+
+}
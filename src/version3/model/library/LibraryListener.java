@@ -0,0 +1,27 @@
+package version3.model.library;
+
+/**
+ * This interface is implemented by anything that wants to hear about the changes made to a Library (notifications,
+ * analytics, auditing); it is subscribed to a LibraryEventBus, which calls it from its own dispatcher thread.
+ *
+ * A listener is called for every event, one at a time and in the order they were published. It should not take long,
+ * as a slow listener holds up the ones after it and lets the bus fill up (at which point new events are dropped).
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public interface LibraryListener {
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function called by the LibraryEventBus for each change made to the Library.
+	 *
+	 * @param event - LibraryEvent object describing the change
+	 */
+
+	public void handleEvent(LibraryEvent event);
+
+}
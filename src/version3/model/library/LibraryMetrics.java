@@ -0,0 +1,191 @@
+package version3.model.library;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class collects measurements of a Library's operations: a LatencyHistogram for each kind of operation, how
+ * many of each succeeded and failed, and how many times each RESULT_... outcome happened (so it is possible to see how
+ * often checkouts are refused for the checkout limit, for fines, for overdue Materials, or because a Material was
+ * already out). A Library records into it once it is given one through assignLibraryMetrics().
+ * 
+ * Nothing is ever pushed anywhere; whatever wants the numbers (the command line, a monitoring poller, a test) reads
+ * them through the getter methods whenever it likes. Every counter is a LongAdder so that recording from several
+ * threads at once stays cheap.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibraryMetrics {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value identifying stockMaterial()*/
+	public static final int OPERATION_STOCK = 0;
+	/** int value identifying enrolUser()*/
+	public static final int OPERATION_ENROL = 1;
+	/** int value identifying addOrganization()*/
+	public static final int OPERATION_ORGANIZATION = 2;
+	/** int value identifying checkoutMaterial()*/
+	public static final int OPERATION_CHECKOUT = 3;
+	/** int value identifying returnMaterial()*/
+	public static final int OPERATION_RETURN = 4;
+	/** int value identifying checkoutMaterials()*/
+	public static final int OPERATION_BATCH_CHECKOUT = 5;
+	/** int value identifying returnMaterials()*/
+	public static final int OPERATION_BATCH_RETURN = 6;
+	/** int value identifying payFee()*/
+	public static final int OPERATION_PAY = 7;
+	/** String[] object naming each operation, indexed by the OPERATION_... values*/
+	public static final String[] OPERATION_NAMES = new String[] {"stock", "enrol", "organization", "checkout", "return", "batch checkout", "batch return", "pay fee"};
+	/** String[] object naming each outcome, indexed by the Library's RESULT_... values*/
+	public static final String[] RESULT_NAMES = new String[] {"success", "unknown id", "checkout limit", "fines limit", "overdue", "unavailable", "not held", "not applied", "reserved"};
+	
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** LatencyHistogram[] object holding the latencies of each operation, indexed by the OPERATION_... values*/
+	private LatencyHistogram[] latencies;
+	/** LongAdder[] object counting the successes of each operation, indexed by the OPERATION_... values*/
+	private LongAdder[] successes;
+	/** LongAdder[] object counting the failures of each operation, indexed by the OPERATION_... values*/
+	private LongAdder[] failures;
+	/** LongAdder[] object counting each outcome of the checkouts and returns (counting batch items individually), indexed by the RESULT_... values*/
+	private LongAdder[] results;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the LibraryMetrics class that starts every measurement at zero.
+	 * 
+	 */
+	
+	public LibraryMetrics() {
+		latencies = new LatencyHistogram[OPERATION_NAMES.length];
+		successes = new LongAdder[OPERATION_NAMES.length];
+		failures = new LongAdder[OPERATION_NAMES.length];
+		for(int i = 0; i < OPERATION_NAMES.length; i++) {
+			latencies[i] = new LatencyHistogram();
+			successes[i] = new LongAdder();
+			failures[i] = new LongAdder();
+		}
+		results = new LongAdder[RESULT_NAMES.length];
+		for(int i = 0; i < RESULT_NAMES.length; i++) {
+			results[i] = new LongAdder();
+		}
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that records an operation that succeeds or fails without a RESULT_... value.
+	 * 
+	 * @param operation - int value representing the OPERATION_... that was performed
+	 * @param success - boolean value representing whether it succeeded
+	 * @param nanos - long value representing how long it took in nanoseconds
+	 */
+	
+	public void record(int operation, boolean success, long nanos) {
+		latencies[operation].record(nanos);
+		(success ? successes : failures)[operation].increment();
+	}
+	
+	/**
+	 * Function that records an operation that ended with a RESULT_... value.
+	 * 
+	 * @param operation - int value representing the OPERATION_... that was performed
+	 * @param result - int value representing the Library's RESULT_... value for the operation
+	 * @param nanos - long value representing how long it took in nanoseconds
+	 */
+	
+	public void record(int operation, int result, long nanos) {
+		record(operation, result == Library.RESULT_SUCCESS, nanos);
+		results[result].increment();
+	}
+	
+	/**
+	 * Function that records a batch operation; the batch counts as one success or failure, and each item's
+	 * RESULT_... value is counted separately.
+	 * 
+	 * @param operation - int value representing the OPERATION_... that was performed
+	 * @param items - int[] containing the Library's RESULT_... value for each item in the batch
+	 * @param nanos - long value representing how long the whole batch took in nanoseconds
+	 */
+	
+	public void record(int operation, int[] items, long nanos) {
+		boolean success = true;
+		for(int result : items) {
+			results[result].increment();
+			success = success && result == Library.RESULT_SUCCESS;
+		}
+		record(operation, success, nanos);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the latencies recorded for an operation.
+	 * 
+	 * @param operation - int value representing an OPERATION_... value
+	 * @return - Returns the LatencyHistogram object for that operation
+	 */
+	
+	public LatencyHistogram getLatencies(int operation) {
+		return latencies[operation];
+	}
+	
+	/**
+	 * Getter method that requests how many times an operation succeeded.
+	 * 
+	 * @param operation - int value representing an OPERATION_... value
+	 * @return - Returns a long value representing the number of successes
+	 */
+	
+	public long getSuccesses(int operation) {
+		return successes[operation].sum();
+	}
+	
+	/**
+	 * Getter method that requests how many times an operation failed.
+	 * 
+	 * @param operation - int value representing an OPERATION_... value
+	 * @return - Returns a long value representing the number of failures
+	 */
+	
+	public long getFailures(int operation) {
+		return failures[operation].sum();
+	}
+	
+	/**
+	 * Getter method that requests how many checkouts and returns (or batch items) ended with a RESULT_... value,
+	 * such as how many checkouts were refused by the fines limit.
+	 * 
+	 * @param result - int value representing one of the Library's RESULT_... values
+	 * @return - Returns a long value representing how many times that outcome happened
+	 */
+	
+	public long getResultCount(int result) {
+		return results[result].sum();
+	}
+	
+	/**
+	 * Getter method that requests every measurement as a readable table, one line per operation and then a line of outcome counts.
+	 * 
+	 * @return - Returns a String object containing the report
+	 */
+	
+	public String getReport() {
+		StringBuilder out = new StringBuilder();
+		out.append(String.format("%-16s %10s %10s %10s %10s %10s %10s%n", "operation", "successes", "failures", "p50 us", "p99 us", "p99.9 us", "max us"));
+		for(int i = 0; i < OPERATION_NAMES.length; i++) {
+			LatencyHistogram h = latencies[i];
+			out.append(String.format("%-16s %10d %10d %10.2f %10.2f %10.2f %10.2f%n", OPERATION_NAMES[i], getSuccesses(i), getFailures(i),
+					h.getPercentile(50) / 1000.0, h.getPercentile(99) / 1000.0, h.getPercentile(99.9) / 1000.0, h.getMaximum() / 1000.0));
+		}
+		for(int i = 0; i < RESULT_NAMES.length; i++) {
+			out.append(RESULT_NAMES[i] + ": " + getResultCount(i) + (i + 1 < RESULT_NAMES.length ? ", " : String.format("%n")));
+		}
+		return out.toString();
+	}
+	
+}
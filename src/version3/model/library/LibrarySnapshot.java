@@ -0,0 +1,335 @@
+package version3.model.library;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import version3.model.catalogue.MappedCatalogueStorage;
+import version3.model.material.AvailabilityIndex;
+import version3.model.material.Material;
+import version3.model.material.MaterialsCatalogue;
+import version3.model.material.materialtype.MaterialType;
+import version3.model.material.materialtype.MaterialTypeRegistry;
+import version3.model.organization.Organization;
+import version3.model.organization.OrganizationCatalogue;
+import version3.model.registry.RegistryItem;
+import version3.model.user.User;
+import version3.model.user.UserCatalogue;
+
+/**
+ * This class writes a whole Library (its three Catalogues and the MaterialTypes in the MaterialTypeRegistry) to a
+ * binary snapshot file and loads it back, so that a restart reads one file instead of replaying every change ever
+ * made. A WriteAheadLog started after a snapshot is written only needs to hold the changes made since then.
+ *
+ * The file is laid out as:
+ *
+ * 		header			- magic number, format version, the four counts below and the offsets of the Material records and the details
+ * 		MaterialTypes	- name, overdue cost and time limit of each type, in order of ordinal; a Material refers to its type by position here
+ * 		Organizations	- name and fine balance of each Organization, in id order
+ * 		Users			- id, Organization id, and the ids of the Materials the User has checked out
+ * 		Materials		- one fixed 16 byte record per Material (id, type position, checkout time), sorted by id
+ * 		details			- the title, author and keywords of each described Material, then the queue of each reserved Material
+ *
+ * Everything but the Materials is small and is read straight away. The Material records are memory-mapped and handed
+ * to a MappedCatalogueStorage, which only builds a Material object the first time that Material is asked for; loading
+ * a snapshot with tens of millions of Materials therefore takes about as long as loading its Users. The Materials the
+ * Users have checked out are built immediately so that the MaterialsCatalogue's OverdueIndex is complete, and the
+ * AvailabilityIndex is filled by one pass over the mapped records without building any Material.
+ *
+ * A single mapping cannot exceed 2GB, which limits a snapshot to roughly 130 million Materials.
+ *
+ * The fixed Material records have no room for the titles, authors and keywords given by describeMaterial(), or for
+ * the reservation queues, so these follow in a variable-length details section that is read as a stream rather than
+ * mapped. Loading it builds each described Material straight away and adds it to the MaterialSearchIndex, so a
+ * catalogue that is mostly described costs more to load than one that is not; undescribed Materials stay in the file.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class LibrarySnapshot {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value found at the start of every snapshot file ("LIBS")*/
+	private static final int MAGIC = 0x4C494253;
+	/** int value representing the version of the file layout written by this class*/
+	private static final int FORMAT_VERSION = 2;
+	/** int value representing the size, in bytes, of the header*/
+	private static final int HEADER_SIZE = 6 * Integer.BYTES + 2 * Long.BYTES;
+	/** int value representing the position, in bytes, of the two section offsets at the end of the header*/
+	private static final int OFFSETS_POSITION = HEADER_SIZE - 2 * Long.BYTES;
+	/** int value representing the size, in bytes, of each Material record*/
+	private static final int MATERIAL_RECORD = Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that writes the provided Library to a snapshot file. The snapshot is written to a temporary file
+	 * beside the target and then moved into place, so a crash while writing leaves the previous snapshot intact.
+	 *
+	 * The Library should not be changed while it is being written (a ConcurrentLibrary should be quiet).
+	 *
+	 * @param library - Library object being written
+	 * @param file - Path object representing the snapshot file to write
+	 * @throws IOException - Thrown if the file cannot be written
+	 */
+
+	public static void write(Library library, Path file) throws IOException {
+		ArrayList<RegistryItem> entries = MaterialTypeRegistry.getEntries();
+		OrganizationCatalogue organizations = library.getOrganizationCatalogue();
+		UserCatalogue users = library.getUserCatalogue();
+		MaterialsCatalogue materials = library.getMaterialCatalogue();
+		int[] orgIds = organizations.getIds();
+		int[] userIds = users.getIds();
+		int[] materialIds = materials.getIds();
+		int[] reservedIds = library.getReservationBook().getReserved();
+		Arrays.sort(orgIds);
+		Arrays.sort(materialIds);
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))){
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(entries.size());
+			out.writeInt(orgIds.length);
+			out.writeInt(userIds.length);
+			out.writeInt(materialIds.length);
+			out.writeLong(0);
+			out.writeLong(0);
+			for(RegistryItem r : entries) {
+				MaterialType type = (MaterialType)r;
+				writeText(out, type.getName());
+				out.writeInt(type.getOverdueCost());
+				out.writeInt(type.getTimeLimit());
+			}
+			for(int id : orgIds) {
+				Organization org = (Organization)organizations.getResource(id);
+				writeText(out, org.getName());
+				out.writeInt(org.getFines());
+			}
+			for(int id : userIds) {
+				User user = users.getUser(id);
+				int[] held = user.getCheckedOut();
+				out.writeInt(id);
+				out.writeInt(organizations.getOrganizationByUser(id).getId());
+				out.writeInt(held.length);
+				for(int m : held) {
+					out.writeInt(m);
+				}
+			}
+			out.flush();
+			long materialsOffset = out.size();
+			int[] described = new int[materialIds.length];
+			int describedCount = 0;
+			for(int id : materialIds) {
+				Material m = materials.getMaterial(id);
+				out.writeInt(id);
+				out.writeInt(m.getMaterialTypeOrdinal());
+				out.writeLong(m.isAvailable() ? Material.NOT_CHECKED_OUT : m.getCheckoutTime());
+				if(m.getTitle() != null || m.getAuthor() != null || m.getKeywords().length > 0) {
+					described[describedCount++] = id;
+				}
+			}
+			long detailsOffset = materialsOffset + (long)materialIds.length * MATERIAL_RECORD;
+			out.writeInt(describedCount);
+			for(int i = 0; i < describedCount; i++) {
+				Material m = materials.getMaterial(described[i]);
+				String[] keywords = m.getKeywords();
+				out.writeInt(described[i]);
+				writeText(out, m.getTitle());
+				writeText(out, m.getAuthor());
+				out.writeInt(keywords.length);
+				for(String keyword : keywords) {
+					writeText(out, keyword);
+				}
+			}
+			out.writeInt(reservedIds.length);
+			for(int id : reservedIds) {
+				int[] waiting = library.getReservations(id);
+				out.writeInt(id);
+				out.writeInt(waiting.length);
+				for(int userId : waiting) {
+					out.writeInt(userId);
+				}
+			}
+			out.flush();
+			try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)){
+				ByteBuffer offsets = ByteBuffer.allocate(2 * Long.BYTES).putLong(0, materialsOffset).putLong(Long.BYTES, detailsOffset);
+				channel.write(offsets, OFFSETS_POSITION);
+				channel.force(true);
+			}
+		}
+		Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * Function that loads a snapshot file into the provided Library, which should be newly constructed (a Library or
+	 * a ConcurrentLibrary). The MaterialTypes in the snapshot are registered with the MaterialTypeRegistry, replacing
+	 * any registered under the same names.
+	 *
+	 * @param file - Path object representing the snapshot file to load
+	 * @param library - Library object, with nothing in it yet, that the snapshot is loaded into
+	 * @throws IOException - Thrown if the file cannot be read or is not a snapshot
+	 */
+
+	public static void load(Path file, Library library) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+			if(header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION) {
+				throw new IOException(file + " is not a version " + FORMAT_VERSION + " library snapshot");
+			}
+			int typeCount = header.getInt();
+			int orgCount = header.getInt();
+			int userCount = header.getInt();
+			int materialCount = header.getInt();
+			long materialsOffset = header.getLong();
+			long detailsOffset = header.getLong();
+			long materialsSize = (long)materialCount * MATERIAL_RECORD;
+			if(materialsSize > Integer.MAX_VALUE || materialsOffset + materialsSize > detailsOffset || detailsOffset > channel.size()) {
+				throw new IOException(file + " has a Materials section that cannot be mapped");
+			}
+
+			ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, materialsOffset - HEADER_SIZE);
+			MaterialType[] types = new MaterialType[typeCount];
+			for(int i = 0; i < typeCount; i++) {
+				String name = readText(in);
+				int cost = in.getInt();
+				types[i] = MaterialTypeRegistry.compileMaterialType(name, in.getInt(), cost);
+				MaterialTypeRegistry.registerEntry(types[i]);
+			}
+
+			OrganizationCatalogue organizations = library.getOrganizationCatalogue();
+			organizations.ensureCapacity(orgCount);
+			String[] orgNames = new String[orgCount];
+			for(int i = 0; i < orgCount; i++) {
+				orgNames[i] = readText(in);
+				Organization org = organizations.compileOrganization(orgNames[i]);
+				org.addFines(in.getInt());
+				organizations.addResource(org);
+			}
+
+			ByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, materialsOffset, materialsSize);
+			library.assignMaterialStorage(new MappedCatalogueStorage(records, MATERIAL_RECORD, materialCount, offset -> {
+				Material m = new Material(records.getInt(offset), types[records.getInt(offset + Integer.BYTES)]);
+				long time = records.getLong(offset + 2 * Integer.BYTES);
+				if(time != Material.NOT_CHECKED_OUT) {
+					m.setCheckoutTime(time);
+				}
+				return m;
+			}));
+			MaterialsCatalogue materials = library.getMaterialCatalogue();
+			AvailabilityIndex availability = materials.getAvailabilityIndex();
+			availability.ensureCapacity(materialCount);
+			for(int i = 0; i < materialCount; i++) {
+				int offset = i * MATERIAL_RECORD;
+				int type = types[records.getInt(offset + Integer.BYTES)].getOrdinal();
+				availability.add(records.getInt(offset), type, records.getLong(offset + 2 * Integer.BYTES) == Material.NOT_CHECKED_OUT);
+			}
+
+			UserCatalogue users = library.getUserCatalogue();
+			users.ensureCapacity(userCount);
+			for(int i = 0; i < userCount; i++) {
+				int id = in.getInt();
+				String organization = orgNames[in.getInt()];
+				User user = users.compileUser(id, organization);
+				users.addResource(user);
+				organizations.addUserToOrganization(id, organization);
+				int held = in.getInt();
+				for(int j = 0; j < held; j++) {
+					int materialId = in.getInt();
+					user.addMaterial(materialId);
+					materials.setCheckoutTime(materialId, materials.getMaterial(materialId).getCheckoutTime());
+				}
+			}
+
+			channel.position(detailsOffset);
+			DataInputStream details = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+			int describedCount = details.readInt();
+			for(int i = 0; i < describedCount; i++) {
+				int id = details.readInt();
+				String title = readText(details);
+				String author = readText(details);
+				String[] keywords = new String[details.readInt()];
+				for(int j = 0; j < keywords.length; j++) {
+					keywords[j] = readText(details);
+				}
+				materials.describeMaterial(id, title, author, keywords.length == 0 ? null : keywords);
+			}
+			ReservationBook reservations = library.getReservationBook();
+			int reservedCount = details.readInt();
+			for(int i = 0; i < reservedCount; i++) {
+				int materialId = details.readInt();
+				int waiting = details.readInt();
+				for(int j = 0; j < waiting; j++) {
+					reservations.add(materialId, details.readInt());
+				}
+			}
+		}
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that writes a String as a length followed by its UTF-8 bytes, or a null String as a length of -1.
+	 *
+	 * @param out - DataOutputStream object being written to
+	 * @param text - String object being written, or null
+	 * @throws IOException - Thrown if the String cannot be written
+	 */
+
+	private static void writeText(DataOutputStream out, String text) throws IOException {
+		if(text == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	/**
+	 * Helper method that reads a String written by writeText().
+	 *
+	 * @param in - ByteBuffer object positioned at the String's length
+	 * @return - Returns the String object that was read
+	 */
+
+	private static String readText(ByteBuffer in) {
+		byte[] bytes = new byte[in.getInt()];
+		in.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Helper method that reads a String written by writeText() from the details section.
+	 *
+	 * @param in - DataInputStream object positioned at the String's length
+	 * @return - Returns the String object that was read, or null if a null String was written
+	 * @throws IOException - Thrown if the String cannot be read
+	 */
+
+	private static String readText(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if(length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,358 @@
+package version3.model.library;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.PriorityQueue;
+
+import version3.model.catalogue.IntObjectMap;
+import version3.model.material.CheckoutTime;
+import version3.model.material.MaterialsCatalogue;
+
+/**
+ * This class keeps a running figure of what each Organization will owe: the fines already charged to it plus the fines
+ * its Users' open loans have accrued so far. Unlike Library.assessFines(), which reads every loan, it is kept up to date
+ * as the Library changes, so asking for an Organization's projected fines is a single sum whenever it is asked.
+ *
+ * Assign one to a Library with assignLiabilityView(); the Library loads its current loans and fines into it, and from
+ * then on tells it about every checkout, return and payment.
+ *
+ * An overdue loan accrues its Material's overdue cost for every day past its limit, so an Organization's accrued fines
+ * on day d are the sum over its overdue loans of cost * (d - start), where start is the last day of the loan's limit.
+ * That is kept as two numbers per Organization, the sum of the costs (the rate) and the sum of cost * start (the
+ * offset), so that the accrued fines are rate * d - offset. A loan that is not overdue yet waits in a queue ordered by
+ * its start day; when the day rolls over, the loans whose limit has passed are moved from the queue into the rate and
+ * offset, so each loan is handled once on its way in and once on its way out instead of on every query. A loan returned
+ * before it was overdue is only marked as closed, and is dropped when it reaches the front of the queue.
+ *
+ * Days are counted as whole days of the LibraryClock (see LibraryClock.currentDay()), while a return charges for whole
+ * days elapsed since the moment of checkout, so a projection may run up to one day's cost per loan ahead of what
+ * returning it at that moment would charge.
+ *
+ * Every function is synchronized, so the view may be shared by all the threads of a ConcurrentLibrary.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class ProjectedLiabilityView {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many Organizations the view has room for before its arrays grow*/
+	private static final int INITIAL_ORGANIZATIONS = 16;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** long value representing the LibraryClock day the view's figures are as of*/
+	private long day;
+	/** String[] object holding the name of each Organization, indexed by its id*/
+	private String[] names;
+	/** HashMap<<r>String, Integer> object mapping the name of each Organization to its id*/
+	private HashMap<String, Integer> ids;
+	/** long[] holding the fines already charged to each Organization, indexed by its id*/
+	private long[] billed;
+	/** long[] holding the sum of the overdue costs of each Organization's overdue loans, indexed by its id*/
+	private long[] rate;
+	/** long[] holding the sum of cost * start day of each Organization's overdue loans, indexed by its id*/
+	private long[] offset;
+	/** IntObjectMap<<r>Loan> object holding every open loan, keyed by the id of the Material on loan*/
+	private IntObjectMap<Loan> loans;
+	/** PriorityQueue<<r>Loan> object holding the loans that are not overdue yet, earliest start day first*/
+	private PriorityQueue<Loan> pending;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the ProjectedLiabilityView class that starts with no Organizations or loans, as of the current
+	 * day of the LibraryClock.
+	 *
+	 */
+
+	public ProjectedLiabilityView() {
+		day = CheckoutTime.getClock().currentDay();
+		names = new String[INITIAL_ORGANIZATIONS];
+		ids = new HashMap<String, Integer>();
+		billed = new long[INITIAL_ORGANIZATIONS];
+		rate = new long[INITIAL_ORGANIZATIONS];
+		offset = new long[INITIAL_ORGANIZATIONS];
+		loans = new IntObjectMap<Loan>();
+		pending = new PriorityQueue<Loan>((a, b) -> Long.compare(a.start, b.start));
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds an Organization to the view, with the fines already charged to it.
+	 *
+	 * @param id - int value representing the id of the Organization
+	 * @param name - String object representing the name of the Organization
+	 * @param fines - long value representing the fines already charged to the Organization
+	 */
+
+	public synchronized void recordOrganization(int id, String name, long fines) {
+		ensureOrganization(id);
+		names[id] = name;
+		ids.put(name, id);
+		billed[id] = fines;
+	}
+
+	/**
+	 * Function that adds a loan to the view; if its limit has already passed (such as for a loan loaded when the view
+	 * is assigned) it starts accruing straight away.
+	 *
+	 * @param organization - int value representing the id of the Organization liable for the loan
+	 * @param materialId - int value representing the id of the Material on loan
+	 * @param checkoutTime - long value representing the time, in milliseconds, that the Material was checked out
+	 * @param limit - int value representing the number of weeks the Material may be out before it is overdue
+	 * @param cost - int value representing the fine for each day the Material is overdue
+	 */
+
+	public synchronized void recordCheckout(int organization, int materialId, long checkoutTime, int limit, int cost) {
+		ensureOrganization(organization);
+		Loan loan = new Loan(organization, cost, checkoutTime / CheckoutTime.DURATION_DAY + (long)MaterialsCatalogue.DURATION_WEEK * limit);
+		loans.put(materialId, loan);
+		if(loan.start < day) {
+			startAccruing(loan);
+		}
+		else {
+			pending.add(loan);
+		}
+	}
+
+	/**
+	 * Function that removes a loan from the view once its Material is returned, and adds the fine charged for it to
+	 * its Organization's billed fines.
+	 *
+	 * @param materialId - int value representing the id of the Material returned
+	 * @param fine - int value representing the fine charged for the return
+	 */
+
+	public synchronized void recordReturn(int materialId, int fine) {
+		Loan loan = loans.remove(materialId);
+		if(loan == null) {
+			return;
+		}
+		if(loan.accruing) {
+			rate[loan.organization] -= loan.cost;
+			offset[loan.organization] -= loan.cost * loan.start;
+		}
+		loan.closed = true;
+		billed[loan.organization] += fine;
+	}
+
+	/**
+	 * Function that takes a payment off an Organization's billed fines.
+	 *
+	 * @param organization - int value representing the id of the Organization that paid
+	 * @param amount - int value representing the amount paid
+	 */
+
+	public synchronized void recordPayment(int organization, int amount) {
+		ensureOrganization(organization);
+		billed[organization] -= amount;
+	}
+
+	/**
+	 * Function that rolls the view over to the day of the provided time, moving the loans whose limit has passed by
+	 * then into their Organization's accrued fines. The getter methods do this for the LibraryClock's current time
+	 * themselves, so it only needs calling directly to project ahead to a later day (the view never rolls backward).
+	 *
+	 * @param time - long value representing the time, in milliseconds, to roll the view over to
+	 */
+
+	public synchronized void advance(long time) {
+		advanceToDay(time / CheckoutTime.DURATION_DAY);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the named Organization's projected fines: those already charged plus those its open
+	 * loans have accrued as of today.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @return - Returns a long value representing the projected fines, or 0 if the Organization is not in the view
+	 */
+
+	public synchronized long getProjectedFines(String organization) {
+		Integer id = ids.get(organization);
+		if(id == null) {
+			return 0;
+		}
+		advanceToDay(CheckoutTime.getClock().currentDay());
+		return projected(id);
+	}
+
+	/**
+	 * Getter method that requests the fines the named Organization's open loans have accrued as of today, not counting
+	 * those already charged.
+	 *
+	 * @param organization - String object representing the name of the Organization
+	 * @return - Returns a long value representing the accrued fines, or 0 if the Organization is not in the view
+	 */
+
+	public synchronized long getAccruedFines(String organization) {
+		Integer id = ids.get(organization);
+		if(id == null) {
+			return 0;
+		}
+		advanceToDay(CheckoutTime.getClock().currentDay());
+		return rate[id] * day - offset[id];
+	}
+
+	/**
+	 * Getter method that requests the names of the Organizations with the highest projected fines as of today,
+	 * highest first.
+	 *
+	 * @param count - int value representing how many Organizations to return at most
+	 * @return - Returns an ArrayList<<r>String> object containing the names of up to count Organizations
+	 */
+
+	public synchronized ArrayList<String> getTopOrganizations(int count){
+		advanceToDay(CheckoutTime.getClock().currentDay());
+		PriorityQueue<Integer> top = new PriorityQueue<Integer>((a, b) -> Long.compare(projected(a), projected(b)));
+		for(int i = 0; i < names.length && count > 0; i++) {
+			if(names[i] == null) {
+				continue;
+			}
+			if(top.size() < count) {
+				top.add(i);
+			}
+			else if(projected(i) > projected(top.peek())) {
+				top.poll();
+				top.add(i);
+			}
+		}
+		ArrayList<String> out = new ArrayList<String>();
+		while(!top.isEmpty()) {
+			out.add(0, names[top.poll()]);
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that requests the LibraryClock day the view's figures were last rolled over to.
+	 *
+	 * @return - Returns a long value representing an epoch day
+	 */
+
+	public synchronized long getDay() {
+		return day;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that rolls the view forward to the provided day, starting every pending loan whose limit has
+	 * passed; the view never rolls backward.
+	 *
+	 * @param next - long value representing the epoch day to roll over to
+	 */
+
+	private void advanceToDay(long next) {
+		if(next <= day) {
+			return;
+		}
+		day = next;
+		while(!pending.isEmpty() && pending.peek().start < day) {
+			Loan loan = pending.poll();
+			if(!loan.closed) {
+				startAccruing(loan);
+			}
+		}
+	}
+
+	/**
+	 * Helper method that adds a loan's cost to its Organization's rate and offset, so that it counts towards the
+	 * Organization's accrued fines from its start day on.
+	 *
+	 * @param loan - Loan object that has become overdue
+	 */
+
+	private void startAccruing(Loan loan) {
+		loan.accruing = true;
+		rate[loan.organization] += loan.cost;
+		offset[loan.organization] += loan.cost * loan.start;
+	}
+
+	/**
+	 * Helper method that works out an Organization's projected fines as of the view's current day.
+	 *
+	 * @param id - int value representing the id of the Organization
+	 * @return - Returns a long value representing its billed plus accrued fines
+	 */
+
+	private long projected(int id) {
+		return billed[id] + rate[id] * day - offset[id];
+	}
+
+	/**
+	 * Helper method that grows the per-Organization arrays, if needed, so that the provided id fits.
+	 *
+	 * @param id - int value representing the id of an Organization
+	 */
+
+	private void ensureOrganization(int id) {
+		if(id < names.length) {
+			return;
+		}
+		int size = Math.max(id + 1, names.length << 1);
+		String[] grownNames = new String[size];
+		System.arraycopy(names, 0, grownNames, 0, names.length);
+		names = grownNames;
+		billed = grow(billed, size);
+		rate = grow(rate, size);
+		offset = grow(offset, size);
+	}
+
+	/**
+	 * Helper method that copies a long[] into a longer one.
+	 *
+	 * @param in - long[] being grown
+	 * @param size - int value representing the new length
+	 * @return - Returns a long[] of the new length starting with the contents of in
+	 */
+
+	private static long[] grow(long[] in, int size) {
+		long[] out = new long[size];
+		System.arraycopy(in, 0, out, 0, in.length);
+		return out;
+	}
+
+	/**
+	 * This private Class holds one open loan: the Organization liable for it, its daily cost once overdue, the last
+	 * day of its limit, and whether it is accruing yet or has been returned.
+	 *
+	 */
+
+	private static class Loan {
+
+		/** int value representing the id of the Organization liable for the loan*/
+		private int organization;
+		/** long value representing the fine for each day the loan is overdue*/
+		private long cost;
+		/** long value representing the last epoch day of the loan's limit; it accrues on every day after this*/
+		private long start;
+		/** boolean value representing whether the loan's cost has been added to its Organization's rate*/
+		private boolean accruing;
+		/** boolean value representing whether the loan was returned while it was still waiting in the queue*/
+		private boolean closed;
+
+		/**
+		 * Constructor for the Loan class that records a loan that is not accruing yet.
+		 *
+		 * @param org - int value representing the id of the Organization liable for the loan
+		 * @param perDay - long value representing the fine for each day the loan is overdue
+		 * @param last - long value representing the last epoch day of the loan's limit
+		 */
+
+		private Loan(int org, long perDay, long last) {
+			organization = org;
+			cost = perDay;
+			start = last;
+		}
+
+	}
+
+}
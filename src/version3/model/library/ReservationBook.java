@@ -0,0 +1,237 @@
+package version3.model.library;
+
+import version3.model.catalogue.IntObjectMap;
+
+/**
+ * This class holds the Library's reservations: for each checked out Material that someone is waiting for, the ids
+ * of the Users waiting, in the order they reserved it. When the Material is returned the Library hands it straight
+ * to the User at the front of the queue, so a borrower waiting for a Material doesn't have to keep asking for it.
+ *
+ * Only Materials that have a queue have an entry (in an IntObjectMap keyed by the Material's id), and the entry is
+ * dropped as soon as its queue empties, so a large catalogue with few reservations costs very little. Each queue
+ * is a circular int[] of User ids that doubles when it fills, so a long waiting list costs four bytes per User and
+ * taking the User at the front, which is what every return does, is constant time; only a User leaving from the
+ * middle of the queue (cancelling, or being passed over as ineligible) shifts the Users behind them.
+ *
+ * Every function is synchronized, so the book may be shared by all the threads of a ConcurrentLibrary.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class ReservationBook {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting how many Users a new queue has room for before it grows*/
+	private static final int INITIAL_QUEUE = 4;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** IntObjectMap<<r>Waitlist> object holding the queue of each reserved Material, keyed by the Material's id*/
+	private IntObjectMap<Waitlist> queues;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the ReservationBook class that starts with no reservations.
+	 *
+	 */
+
+	public ReservationBook() {
+		queues = new IntObjectMap<Waitlist>();
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds a User to the back of the queue for a Material.
+	 *
+	 * @param materialId - int value representing the id of the Material being reserved
+	 * @param userId - int value representing the id of the User reserving it
+	 * @return - Returns a boolean value; true if the User was added, false if they were already waiting for the Material
+	 */
+
+	public synchronized boolean add(int materialId, int userId) {
+		Waitlist queue = queues.get(materialId);
+		if(queue == null) {
+			queue = new Waitlist();
+			queues.put(materialId, queue);
+		}
+		else if(queue.indexOf(userId) >= 0) {
+			return false;
+		}
+		queue.offer(userId);
+		return true;
+	}
+
+	/**
+	 * Function that takes a User out of the queue for a Material, wherever they are in it; this is constant time
+	 * for the User at the front.
+	 *
+	 * @param materialId - int value representing the id of the reserved Material
+	 * @param userId - int value representing the id of the User leaving the queue
+	 * @return - Returns a boolean value; true if the User was in the queue, false if not
+	 */
+
+	public synchronized boolean remove(int materialId, int userId) {
+		Waitlist queue = queues.get(materialId);
+		if(queue == null) {
+			return false;
+		}
+		int position = queue.indexOf(userId);
+		if(position < 0) {
+			return false;
+		}
+		queue.removeAt(position);
+		if(queue.size == 0) {
+			queues.remove(materialId);
+		}
+		return true;
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the User at the front of the queue for a Material.
+	 *
+	 * @param materialId - int value representing the id of the Material
+	 * @return - Returns an int value representing the id of the User waiting longest, or -1 if nobody is waiting
+	 */
+
+	public synchronized int getNext(int materialId) {
+		Waitlist queue = queues.get(materialId);
+		return queue == null ? -1 : queue.users[queue.head];
+	}
+
+	/**
+	 * Getter method that requests every User waiting for a Material, in the order they will be served.
+	 *
+	 * @param materialId - int value representing the id of the Material
+	 * @return - Returns an int[] containing the ids of the waiting Users, front of the queue first
+	 */
+
+	public synchronized int[] getWaiting(int materialId) {
+		Waitlist queue = queues.get(materialId);
+		int[] out = new int[queue == null ? 0 : queue.size];
+		for(int i = 0; i < out.length; i++) {
+			out[i] = queue.get(i);
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that requests how many Materials have at least one User waiting for them.
+	 *
+	 * @return - Returns an int value representing the number of reserved Materials
+	 */
+
+	public synchronized int getReservedCount() {
+		return queues.size();
+	}
+
+	/**
+	 * Getter method that requests the ids of every Material that has at least one User waiting for it.
+	 *
+	 * @return - Returns an int[] containing the ids of the reserved Materials, in no particular order
+	 */
+
+	public synchronized int[] getReserved() {
+		return queues.keys();
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * This private Class holds the queue of Users waiting for one Material as a circular int[], with the front of
+	 * the queue at head and the queue wrapping around the end of the array.
+	 *
+	 */
+
+	private static class Waitlist {
+
+		/** int[] holding the ids of the waiting Users, starting at head and wrapping around*/
+		private int[] users;
+		/** int value representing the index in users of the User at the front of the queue*/
+		private int head;
+		/** int value representing how many Users are waiting*/
+		private int size;
+
+		/**
+		 * Constructor for the Waitlist class that prepares an empty queue.
+		 *
+		 */
+
+		private Waitlist() {
+			users = new int[INITIAL_QUEUE];
+		}
+
+		/**
+		 * Function that adds a User to the back of the queue, doubling the array (and unwrapping it) if it is full.
+		 *
+		 * @param userId - int value representing the id of the User
+		 */
+
+		private void offer(int userId) {
+			if(size == users.length) {
+				int[] grown = new int[users.length << 1];
+				for(int i = 0; i < size; i++) {
+					grown[i] = get(i);
+				}
+				users = grown;
+				head = 0;
+			}
+			users[(head + size) % users.length] = userId;
+			size++;
+		}
+
+		/**
+		 * Function that removes the User at the provided position, moving head forward if it is the front of the
+		 * queue or shifting the Users behind it forward otherwise.
+		 *
+		 * @param position - int value representing the position in the queue, where 0 is the front
+		 */
+
+		private void removeAt(int position) {
+			if(position == 0) {
+				head = (head + 1) % users.length;
+			}
+			else {
+				for(int i = position; i + 1 < size; i++) {
+					users[(head + i) % users.length] = get(i + 1);
+				}
+			}
+			size--;
+		}
+
+		/**
+		 * Function that finds a User's position in the queue.
+		 *
+		 * @param userId - int value representing the id of the User
+		 * @return - Returns an int value representing the User's position, where 0 is the front, or -1 if they are not waiting
+		 */
+
+		private int indexOf(int userId) {
+			for(int i = 0; i < size; i++) {
+				if(get(i) == userId) {
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		/**
+		 * Getter method that reads the User at a position in the queue.
+		 *
+		 * @param position - int value representing the position in the queue, where 0 is the front
+		 * @return - Returns an int value representing the id of the User at that position
+		 */
+
+		private int get(int position) {
+			return users[(head + position) % users.length];
+		}
+
+	}
+
+}
@@ -0,0 +1,618 @@
+package version3.model.library;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+/**
+ * This class records every successful change made to a Library in an append-only file so that the
+ * Library can be rebuilt after the program stops (by replaying the file into a new Library), since
+ * otherwise every loan and fine only exists in memory.
+ *
+ * Each record is a compact binary entry: its length, a one byte operation code, the operation's
+ * arguments (ints, longs, and length-prefixed UTF-8 Strings) and a CRC32C checksum of the operation
+ * and arguments. A record that was only partly written when the program stopped fails its checksum
+ * (or is too short) and replay stops there, so a torn tail is ignored rather than misread.
+ *
+ * Records are collected in an in-memory buffer and written to the file in groups, and how often the
+ * file is forced to the disk is chosen by the sync policy given at construction:
+ *
+ * 		SYNC_NONE		- the buffer is written when it fills or the log is flushed/closed and is never forced; fastest, but
+ * 						  recent changes may be lost if the machine (not just the program) stops
+ * 		SYNC_PERIODIC	- a background thread writes and forces the buffer every few milliseconds; at most that
+ * 						  interval of changes can be lost
+ * 		SYNC_ALWAYS		- every change waits until it has been forced to the disk before the Library reports success,
+ * 						  but threads that arrive while a force is happening share the next one (group commit), so
+ * 						  a busy Library pays for far fewer forces than it makes changes
+ *
+ * The Library records checkouts with the time they happened and returns with the fine that was charged,
+ * so replaying a log later reproduces the original due dates and fines instead of recalculating them.
+ * A return or payment is recorded while its Organization is locked, so changes to the same Organization's
+ * fines are in the log in the order they happened (a payment is never replayed before the fine it pays).
+ *
+ * A record left torn or corrupted by a crash is cut off the end of the file, along with anything after it,
+ * when the log is replayed or reopened, so that records appended afterwards are not hidden behind it.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class WriteAheadLog implements Closeable {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value denoting the policy of never forcing the log to disk*/
+	public static final int SYNC_NONE = 0;
+	/** int value denoting the policy of forcing the log to disk on a fixed interval from a background thread*/
+	public static final int SYNC_PERIODIC = 1;
+	/** int value denoting the policy of forcing every change to disk (shared between concurrent changes) before it is reported as done*/
+	public static final int SYNC_ALWAYS = 2;
+	/** long value denoting the default interval, in milliseconds, between forces under SYNC_PERIODIC*/
+	public static final long DEFAULT_INTERVAL = 5;
+
+	/** byte value identifying a stockMaterial record*/
+	private static final byte OP_STOCK = 1;
+	/** byte value identifying an enrolUser record*/
+	private static final byte OP_ENROL = 2;
+	/** byte value identifying an addOrganization record*/
+	private static final byte OP_ORGANIZATION = 3;
+	/** byte value identifying a checkoutMaterial record*/
+	private static final byte OP_CHECKOUT = 4;
+	/** byte value identifying a returnMaterial record*/
+	private static final byte OP_RETURN = 5;
+	/** byte value identifying a payFee record*/
+	private static final byte OP_PAY = 6;
+	/** byte value identifying a describeMaterial record*/
+	private static final byte OP_DESCRIBE = 7;
+	/** byte value identifying a reserveMaterial record*/
+	private static final byte OP_RESERVE = 8;
+	/** byte value identifying a cancelReservation record*/
+	private static final byte OP_CANCEL = 9;
+	/** char value separating the title, author and keywords within a describeMaterial record's String*/
+	private static final char DETAIL_SEPARATOR = '\u001F';
+	/** int value denoting the size, in bytes, of each of the two in-memory record buffers*/
+	private static final int BUFFER_SIZE = 1 << 20;
+	/** int value denoting the largest size, in bytes, a record (with its length prefix) can have*/
+	private static final int MAX_RECORD = 2 * Integer.BYTES + 1 + 2 * Integer.BYTES + Long.BYTES + Short.BYTES + 0xFFFF;
+	/** int value representing the index of a scan's valid length within the long[] returned by scan()*/
+	private static final int SCAN_LENGTH = 0;
+	/** int value representing the index of a scan's record count within the long[] returned by scan()*/
+	private static final int SCAN_RECORDS = 1;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** FileChannel object open for appending to the log file*/
+	private FileChannel channel;
+	/** int value representing which SYNC_... policy this log follows*/
+	private int policy;
+	/** ByteBuffer object that new records are appended to*/
+	private ByteBuffer current;
+	/** ByteBuffer object that is being written to the file while current collects new records*/
+	private ByteBuffer spare;
+	/** long value representing the log position just past the last record appended to current*/
+	private long appended;
+	/** long value representing the log position up to which records have been written to the file; guarded by syncLock*/
+	private long written;
+	/** long value representing the log position up to which the file has been forced to the disk; guarded by syncLock*/
+	private long forced;
+	/** Object used to make writing and forcing the log one-at-a-time, separately from appending to it*/
+	private final Object syncLock;
+	/** CRC32C object used to checksum records while appending*/
+	private CRC32C checksum;
+	/** Thread object that forces the log under SYNC_PERIODIC, or null for the other policies*/
+	private Thread flusher;
+	/** boolean value signifying that the log has been closed*/
+	private volatile boolean closed;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the WriteAheadLog class that opens (creating it if needed) the provided file for appending,
+	 * using DEFAULT_INTERVAL if the policy is SYNC_PERIODIC.
+	 *
+	 * @param file - Path object representing the log file
+	 * @param syncPolicy - int value representing which SYNC_... policy to follow
+	 * @throws IOException - Thrown if the file cannot be opened
+	 */
+
+	public WriteAheadLog(Path file, int syncPolicy) throws IOException {
+		this(file, syncPolicy, DEFAULT_INTERVAL);
+	}
+
+	/**
+	 * Constructor for the WriteAheadLog class that opens (creating it if needed) the provided file for appending.
+	 * Any torn or corrupted records at the end of the file are cut off first (see recover()).
+	 *
+	 * @param file - Path object representing the log file
+	 * @param syncPolicy - int value representing which SYNC_... policy to follow
+	 * @param interval - long value representing the milliseconds between forces under SYNC_PERIODIC
+	 * @throws IOException - Thrown if the file cannot be opened
+	 */
+
+	public WriteAheadLog(Path file, int syncPolicy, long interval) throws IOException {
+		recover(file);
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		policy = syncPolicy;
+		current = ByteBuffer.allocate(BUFFER_SIZE);
+		spare = ByteBuffer.allocate(BUFFER_SIZE);
+		appended = channel.size();
+		written = appended;
+		forced = appended;
+		syncLock = new Object();
+		checksum = new CRC32C();
+		if(policy == SYNC_PERIODIC) {
+			flusher = new Thread(() -> {
+				while(!closed) {
+					try {
+						synchronized(syncLock) {
+							syncLock.wait(interval);
+						}
+						sync(appendedPosition(), true);
+					}
+					catch(InterruptedException | IOException e) {
+						return;
+					}
+				}
+			}, "WriteAheadLog-flusher");
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that records that a Material was stocked.
+	 *
+	 * @param materialId - int value representing the id of the stocked Material
+	 * @param type - String object representing the name of the Material's type
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordStock(int materialId, String type) {
+		byte[] text = type.getBytes(StandardCharsets.UTF_8);
+		append(OP_STOCK, materialId, 0, 0, text);
+	}
+
+	/**
+	 * Function that records that a Material was described; the title, author and keywords are written as one String,
+	 * separated by DETAIL_SEPARATOR (a missing title or author is written as an empty one).
+	 *
+	 * @param materialId - int value representing the id of the described Material
+	 * @param title - String object representing the Material's title, or null
+	 * @param author - String object representing the Material's author, or null
+	 * @param keywords - String[] containing the Material's keywords, or null
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordDescribe(int materialId, String title, String author, String[] keywords) {
+		StringBuilder text = new StringBuilder();
+		text.append(title == null ? "" : title).append(DETAIL_SEPARATOR).append(author == null ? "" : author);
+		if(keywords != null) {
+			for(String keyword : keywords) {
+				text.append(DETAIL_SEPARATOR).append(keyword);
+			}
+		}
+		append(OP_DESCRIBE, materialId, 0, 0, text.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Function that records that a User was enrolled.
+	 *
+	 * @param userId - int value representing the id of the enrolled User
+	 * @param organization - String object representing the name of the User's Organization
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordEnrol(int userId, String organization) {
+		append(OP_ENROL, userId, 0, 0, organization.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Function that records that an Organization was added.
+	 *
+	 * @param organization - String object representing the name of the added Organization
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordOrganization(String organization) {
+		append(OP_ORGANIZATION, 0, 0, 0, organization.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Function that records that a Material was checked out.
+	 *
+	 * @param userId - int value representing the id of the User who checked out the Material
+	 * @param materialId - int value representing the id of the checked out Material
+	 * @param time - long value representing the time, in milliseconds, at which the Material was checked out
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordCheckout(int userId, int materialId, long time) {
+		append(OP_CHECKOUT, userId, materialId, time, null);
+	}
+
+	/**
+	 * Function that records that a Material was returned.
+	 *
+	 * @param userId - int value representing the id of the User who returned the Material
+	 * @param materialId - int value representing the id of the returned Material
+	 * @param fine - int value representing the fine charged to the User's Organization for the return
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordReturn(int userId, int materialId, int fine) {
+		append(OP_RETURN, userId, materialId, fine, null);
+	}
+
+	/**
+	 * Function that records that a User reserved a Material.
+	 *
+	 * @param userId - int value representing the id of the User who reserved the Material
+	 * @param materialId - int value representing the id of the reserved Material
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordReserve(int userId, int materialId) {
+		append(OP_RESERVE, userId, materialId, 0, null);
+	}
+
+	/**
+	 * Function that records that a User left the queue for a Material without checking it out.
+	 *
+	 * @param userId - int value representing the id of the User who left the queue
+	 * @param materialId - int value representing the id of the reserved Material
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordCancel(int userId, int materialId) {
+		append(OP_CANCEL, userId, materialId, 0, null);
+	}
+
+	/**
+	 * Function that records that a fee was paid.
+	 *
+	 * @param organization - String object representing the name of the Organization that paid
+	 * @param amount - int value representing the amount paid
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	public void recordPayment(String organization, int amount) {
+		append(OP_PAY, amount, 0, 0, organization.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Function that writes every buffered record to the file and forces it to the disk, whatever the sync policy.
+	 *
+	 * @throws IOException - Thrown if the log cannot be written
+	 */
+
+	public void flush() throws IOException {
+		sync(appendedPosition(), true);
+	}
+
+	/**
+	 * Function that flushes the log and closes its file; records made after this will fail.
+	 *
+	 * @throws IOException - Thrown if the log cannot be written or closed
+	 */
+
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		if(flusher != null) {
+			synchronized(syncLock) {
+				syncLock.notifyAll();
+			}
+			try {
+				flusher.join();
+			}
+			catch(InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+		channel.close();
+	}
+
+	/**
+	 * Function that reads every complete record in the provided log file and applies it to the provided Library,
+	 * rebuilding the state the Library had when the log was written. Reading stops at the first incomplete or
+	 * corrupted record, and the file is cut back to just before it so that a log reopened on the file appends
+	 * after the last good record.
+	 *
+	 * The file is read a window at a time rather than mapped whole, so a log of any size can be replayed.
+	 *
+	 * The Library should not have a WriteAheadLog assigned while replaying (otherwise the replayed changes are
+	 * recorded a second time); any assigned log is set aside for the replay and restored afterwards.
+	 *
+	 * @param file - Path object representing the log file to replay
+	 * @param library - Library object that the records are applied to
+	 * @return - Returns a long value representing how many records were replayed
+	 * @throws IOException - Thrown if the file cannot be read or cut back
+	 */
+
+	public static long replay(Path file, Library library) throws IOException {
+		if(!Files.exists(file)) {
+			return 0;
+		}
+		WriteAheadLog assigned = library.getWriteAheadLog();
+		library.assignWriteAheadLog(null);
+		try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+			long[] scanned = scan(in, library);
+			truncate(in, scanned[SCAN_LENGTH]);
+			return scanned[SCAN_RECORDS];
+		}
+		finally {
+			library.assignWriteAheadLog(assigned);
+		}
+	}
+
+	/**
+	 * Function that checks every record in the provided log file without applying any of them and cuts the file back
+	 * to the end of the last good record, discarding a record torn or corrupted by a crash and anything after it.
+	 *
+	 * @param file - Path object representing the log file to check
+	 * @return - Returns a long value representing the length, in bytes, of the good records (the file's new length)
+	 * @throws IOException - Thrown if the file cannot be read or cut back
+	 */
+
+	public static long recover(Path file) throws IOException {
+		if(!Files.exists(file)) {
+			return 0;
+		}
+		try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)){
+			long length = scan(in, null)[SCAN_LENGTH];
+			truncate(in, length);
+			return length;
+		}
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that reads the records of a log file in order, through a window that is refilled as it is used
+	 * up, until the file ends or a record is incomplete or fails its checksum.
+	 *
+	 * @param in - FileChannel object open on the log file
+	 * @param library - Library object that each good record is applied to, or null to only check them
+	 * @return - Returns a long[] holding the length, in bytes, of the good records at SCAN_LENGTH and their number at SCAN_RECORDS
+	 * @throws IOException - Thrown if the file cannot be read
+	 */
+
+	private static long[] scan(FileChannel in, Library library) throws IOException {
+		long size = in.size();
+		long good = 0;
+		long count = 0;
+		ByteBuffer window = ByteBuffer.allocate(BUFFER_SIZE);
+		CRC32C crc = new CRC32C();
+		while(good < size) {
+			long start = good;
+			window.clear().limit((int)Math.min(window.capacity(), size - start));
+			while(window.hasRemaining()) {
+				if(in.read(window, start + window.position()) < 0) {
+					break;
+				}
+			}
+			window.flip();
+			boolean refill = false;
+			while(!refill && window.remaining() >= Integer.BYTES) {
+				int length = window.getInt(window.position());
+				if(length < 1 + Integer.BYTES || length > MAX_RECORD - Integer.BYTES || good + Integer.BYTES + length > size) {
+					return new long[] {good, count};
+				}
+				if(Integer.BYTES + length > window.remaining()) {
+					refill = true;
+					continue;
+				}
+				ByteBuffer record = window.slice(window.position() + Integer.BYTES, length);
+				crc.reset();
+				crc.update(record.duplicate().limit(length - Integer.BYTES));
+				if((int)crc.getValue() != record.getInt(length - Integer.BYTES)) {
+					return new long[] {good, count};
+				}
+				if(library != null) {
+					apply(record, library);
+				}
+				window.position(window.position() + Integer.BYTES + length);
+				good += Integer.BYTES + length;
+				count++;
+			}
+			if(!refill && start + window.limit() >= size) {
+				break;
+			}
+		}
+		return new long[] {good, count};
+	}
+
+	/**
+	 * Helper method that cuts a log file back to the provided length, if it is longer, and forces the change to the
+	 * disk so that the discarded records cannot reappear.
+	 *
+	 * @param in - FileChannel object open for writing on the log file
+	 * @param length - long value representing the length, in bytes, to cut the file back to
+	 * @throws IOException - Thrown if the file cannot be cut back
+	 */
+
+	private static void truncate(FileChannel in, long length) throws IOException {
+		if(in.size() > length) {
+			in.truncate(length);
+			in.force(true);
+		}
+	}
+
+	/**
+	 * Helper method that encodes a record into the current buffer and, under SYNC_ALWAYS, waits for it to be
+	 * forced to the disk. Every record has the same shape (two ints, a long and an optional String) so that one
+	 * function can write all of them; unused fields are simply not written.
+	 *
+	 * @param op - byte value representing the OP_... code of the record
+	 * @param a - int value representing the first int argument of the record
+	 * @param b - int value representing the second int argument (only written for checkouts, returns and reservations)
+	 * @param c - long value representing the long argument (only written for checkouts, returns and reservations)
+	 * @param text - byte[] containing the UTF-8 String argument, or null if the record has none
+	 * @throws UncheckedIOException - Thrown if the log cannot be written
+	 */
+
+	private void append(byte op, int a, int b, long c, byte[] text) {
+		boolean pair = op == OP_CHECKOUT || op == OP_RETURN || op == OP_RESERVE || op == OP_CANCEL;
+		if(text != null && text.length > 0xFFFF) {
+			throw new IllegalArgumentException("String is too long for a WriteAheadLog record");
+		}
+		int body = 1 + Integer.BYTES + (pair ? Integer.BYTES + Long.BYTES : 0) + (text == null ? 0 : Short.BYTES + text.length);
+		int length = body + Integer.BYTES;
+		long end = -1;
+		try {
+			while(end < 0) {
+				synchronized(this) {
+					if(closed) {
+						throw new IllegalStateException("WriteAheadLog is closed");
+					}
+					if(current.remaining() >= Integer.BYTES + length) {
+						current.putInt(length);
+						int start = current.position();
+						current.put(op);
+						current.putInt(a);
+						if(pair) {
+							current.putInt(b);
+							current.putLong(c);
+						}
+						if(text != null) {
+							current.putShort((short)text.length);
+							current.put(text);
+						}
+						checksum.reset();
+						checksum.update(current.array(), start, body);
+						current.putInt((int)checksum.getValue());
+						appended += Integer.BYTES + length;
+						end = appended;
+					}
+				}
+				if(end < 0) {
+					sync(appendedPosition(), false);
+				}
+			}
+			if(policy == SYNC_ALWAYS) {
+				sync(end, true);
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Helper method that makes sure every record up to the provided log position has been written to the file
+	 * (and forced to the disk, if requested). If another thread already did so while this one waited for its
+	 * turn, there is nothing left to do, which is how concurrent changes share one force.
+	 *
+	 * The buffers are swapped before writing so that other threads can keep appending to the empty one while
+	 * the full one is written; the lock on this object is never held while waiting on syncLock.
+	 *
+	 * @param upTo - long value representing the log position that must be written
+	 * @param force - boolean value signifying whether the file should also be forced to the disk
+	 * @throws IOException - Thrown if the log cannot be written
+	 */
+
+	private void sync(long upTo, boolean force) throws IOException {
+		synchronized(syncLock) {
+			if(written >= upTo && (!force || forced >= upTo)) {
+				return;
+			}
+			ByteBuffer full;
+			synchronized(this) {
+				full = current;
+				current = spare;
+				spare = full;
+				upTo = appended;
+			}
+			full.flip();
+			while(full.hasRemaining()) {
+				channel.write(full);
+			}
+			full.clear();
+			written = upTo;
+			if(force) {
+				channel.force(false);
+				forced = upTo;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that reads the log position of the most recently appended record.
+	 *
+	 * @return - Returns a long value representing the log position just past the last appended record
+	 */
+
+	private synchronized long appendedPosition() {
+		return appended;
+	}
+
+	/**
+	 * Helper method that decodes one record and applies it to the provided Library.
+	 *
+	 * @param record - ByteBuffer object positioned at the start of a record's operation code
+	 * @param library - Library object that the record is applied to
+	 */
+
+	private static void apply(ByteBuffer record, Library library) {
+		byte op = record.get();
+		int a = record.getInt();
+		switch(op) {
+			case OP_STOCK:
+				library.stockMaterial(a, readText(record));
+				break;
+			case OP_ENROL:
+				library.enrolUser(a, readText(record));
+				break;
+			case OP_ORGANIZATION:
+				library.addOrganization(readText(record));
+				break;
+			case OP_CHECKOUT:
+				library.restoreCheckout(a, record.getInt(), record.getLong());
+				break;
+			case OP_RETURN:
+				library.restoreReturn(a, record.getInt(), (int)record.getLong());
+				break;
+			case OP_PAY:
+				library.payFee(readText(record), a);
+				break;
+			case OP_RESERVE:
+				library.reserveMaterial(a, record.getInt());
+				break;
+			case OP_CANCEL:
+				library.cancelReservation(a, record.getInt());
+				break;
+			case OP_DESCRIBE:
+				String[] details = readText(record).split(String.valueOf(DETAIL_SEPARATOR), -1);
+				library.describeMaterial(a, details[0].isEmpty() ? null : details[0], details[1].isEmpty() ? null : details[1], Arrays.copyOfRange(details, 2, details.length));
+				break;
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Helper method that decodes a length-prefixed UTF-8 String from a record.
+	 *
+	 * @param record - ByteBuffer object positioned at the String's length
+	 * @return - Returns the decoded String object
+	 */
+
+	private static String readText(ByteBuffer record) {
+		byte[] text = new byte[record.getShort() & 0xFFFF];
+		record.get(text);
+		return new String(text, StandardCharsets.UTF_8);
+	}
+
+}
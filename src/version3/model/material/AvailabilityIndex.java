@@ -0,0 +1,333 @@
+package version3.model.material;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+import version3.model.catalogue.IntObjectMap;
+
+/**
+ * This class keeps, for each MaterialType, a bitset of which Materials of that type are stocked and which of those
+ * are available, so that questions like "is there a DVD on the shelf?" and "how many Books are in?" don't have to
+ * test every Material in the MaterialsCatalogue.
+ *
+ * Every Material is given a slot when it is indexed, in the order Materials are stocked, and the bitsets are indexed
+ * by slot rather than by id; an IntObjectMap finds the slot of an id and an int[] finds the id in a slot. Slots are
+ * dense whatever the ids are (negative, sparse, or starting in the millions), so the bitsets hold one bit per Material
+ * per type that uses it, and bit i means the same Material whatever the type. Combining types (every available Book
+ * or DVD) or comparing them with some other set of Materials is therefore a BitSet operation 64 Materials at a time,
+ * and finding the next available Material of a type skips whole words of unavailable ones. A running count per type
+ * makes counting the available Materials free.
+ *
+ * The BitSets handed out by getAvailable() and getStocked() are in slot space: toSlots() turns a list of ids into a
+ * BitSet that can be combined with them, and toIds() turns the result back into ids. A catalogue stocked in id order,
+ * or loaded from a LibrarySnapshot (which is sorted by id), has its slots in id order as well.
+ *
+ * The MaterialsCatalogue updates the index as Materials are stocked, checked out and returned. The public functions
+ * are synchronized (a ConcurrentLibrary checks out different Materials at once, which may share a word of a bitset),
+ * and the bitsets handed out are copies.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class AvailabilityIndex {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value returned in place of a Material id when there is no such Material*/
+	public static final int NO_MATERIAL = Integer.MIN_VALUE;
+	/** int value denoting how many MaterialTypes the index has room for before its array grows*/
+	private static final int INITIAL_TYPES = 4;
+	/** int value denoting how many slots the index has room for before its array of ids grows*/
+	private static final int INITIAL_SLOTS = 64;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** TypeSets[] object holding the bitsets and count of each MaterialType, indexed by ordinal*/
+	private TypeSets[] types;
+	/** IntObjectMap<<r>Integer> object mapping the id of each indexed Material to its slot*/
+	private IntObjectMap<Integer> slots;
+	/** int[] holding the id of the Material in each slot, in its first size entries*/
+	private int[] ids;
+	/** int value representing how many slots have been given out*/
+	private int size;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the AvailabilityIndex class that prepares an empty index.
+	 *
+	 */
+
+	public AvailabilityIndex() {
+		types = new TypeSets[INITIAL_TYPES];
+		slots = new IntObjectMap<Integer>();
+		ids = new int[INITIAL_SLOTS];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds a Material to the index under its type, as available or not according to whether it is
+	 * currently checked out.
+	 *
+	 * @param m - Material object being indexed
+	 */
+
+	public void add(Material m) {
+		add(m.getId(), m.getMaterialTypeOrdinal(), m.isAvailable());
+	}
+
+	/**
+	 * Function that adds a Material to the index by its id and type ordinal, for callers (such as loading a
+	 * LibrarySnapshot) that know these without building the Material.
+	 *
+	 * @param id - int value representing the id of the Material
+	 * @param ordinal - int value representing the ordinal of the Material's MaterialType
+	 * @param isAvailable - boolean value representing whether the Material is available
+	 */
+
+	public synchronized void add(int id, int ordinal, boolean isAvailable) {
+		if(ordinal < 0) {
+			return;
+		}
+		TypeSets type = ensureType(ordinal);
+		Integer slot = slots.get(id);
+		if(slot == null) {
+			slot = assignSlot(id);
+		}
+		type.stocked.set(slot);
+		update(type, slot, isAvailable);
+	}
+
+	/**
+	 * Function that records whether a Material is available, such as when it is checked out or returned.
+	 *
+	 * @param m - Material object whose availability has changed
+	 */
+
+	public synchronized void update(Material m) {
+		TypeSets type = getType(m.getMaterialTypeOrdinal());
+		Integer slot = slots.get(m.getId());
+		if(type != null && slot != null && type.stocked.get(slot)) {
+			update(type, slot, m.isAvailable());
+		}
+	}
+
+	/**
+	 * Function that makes room for the provided number of Materials, so that indexing a large catalogue (such as
+	 * one loaded from a LibrarySnapshot) doesn't keep growing the index along the way.
+	 *
+	 * @param expected - int value representing how many Materials the index will hold
+	 */
+
+	public synchronized void ensureCapacity(int expected) {
+		slots.ensureCapacity(expected);
+		if(expected > ids.length) {
+			int[] grown = new int[expected];
+			System.arraycopy(ids, 0, grown, 0, size);
+			ids = grown;
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the next available Material of a type stocked after the provided Material, so
+	 * that the available Materials of a type can be visited one after another in the order they were stocked.
+	 *
+	 * @param ordinal - int value representing the ordinal of the MaterialType
+	 * @param after - int value representing the id of the Material to continue after, or NO_MATERIAL to start from the first
+	 * @return - Returns an int value representing the id of the next available Material, or NO_MATERIAL if there is none
+	 */
+
+	public synchronized int getNextAvailable(int ordinal, int after) {
+		TypeSets type = getType(ordinal);
+		if(type == null) {
+			return NO_MATERIAL;
+		}
+		Integer previous = after == NO_MATERIAL ? null : slots.get(after);
+		int next = type.available.nextSetBit(previous == null ? 0 : previous + 1);
+		return next < 0 ? NO_MATERIAL : ids[next];
+	}
+
+	/**
+	 * Getter method that requests how many Materials of a type are available.
+	 *
+	 * @param ordinal - int value representing the ordinal of the MaterialType
+	 * @return - Returns an int value representing the number of available Materials of that type
+	 */
+
+	public synchronized int getAvailableCount(int ordinal) {
+		TypeSets type = getType(ordinal);
+		return type == null ? 0 : type.count;
+	}
+
+	/**
+	 * Getter method that requests how many Materials of a type are stocked, whether available or not.
+	 *
+	 * @param ordinal - int value representing the ordinal of the MaterialType
+	 * @return - Returns an int value representing the number of stocked Materials of that type
+	 */
+
+	public synchronized int getStockedCount(int ordinal) {
+		TypeSets type = getType(ordinal);
+		return type == null ? 0 : type.stocked.cardinality();
+	}
+
+	/**
+	 * Getter method that requests the slots of the available Materials of any of the provided types.
+	 *
+	 * @param ordinals - int[] containing the ordinals of the MaterialTypes
+	 * @return - Returns a BitSet object, which the caller may change, with the slot of each available Material of those types set
+	 */
+
+	public synchronized BitSet getAvailable(int ... ordinals) {
+		BitSet out = new BitSet();
+		for(int ordinal : ordinals) {
+			TypeSets type = getType(ordinal);
+			if(type != null) {
+				out.or(type.available);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that requests the slots of the stocked Materials of any of the provided types.
+	 *
+	 * @param ordinals - int[] containing the ordinals of the MaterialTypes
+	 * @return - Returns a BitSet object, which the caller may change, with the slot of each stocked Material of those types set
+	 */
+
+	public synchronized BitSet getStocked(int ... ordinals) {
+		BitSet out = new BitSet();
+		for(int ordinal : ordinals) {
+			TypeSets type = getType(ordinal);
+			if(type != null) {
+				out.or(type.stocked);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that turns Material ids into a BitSet of their slots, so that they can be combined with the
+	 * results of getAvailable() and getStocked(); ids that were never indexed are left out.
+	 *
+	 * @param materialIds - int[] containing the ids of Materials
+	 * @return - Returns a BitSet object with the slot of each indexed Material set
+	 */
+
+	public synchronized BitSet toSlots(int ... materialIds) {
+		BitSet out = new BitSet();
+		for(int id : materialIds) {
+			Integer slot = slots.get(id);
+			if(slot != null) {
+				out.set(slot);
+			}
+		}
+		return out;
+	}
+
+	/**
+	 * Getter method that turns a BitSet of slots, as made by this index, back into the ids of their Materials.
+	 *
+	 * @param set - BitSet object holding slots given out by this index
+	 * @return - Returns an int[] containing the ids of the Materials in those slots, in slot order
+	 */
+
+	public synchronized int[] toIds(BitSet set) {
+		int[] out = new int[set.cardinality()];
+		int i = 0;
+		for(int slot = set.nextSetBit(0); slot >= 0 && slot < size; slot = set.nextSetBit(slot + 1)) {
+			out[i++] = ids[slot];
+		}
+		return i == out.length ? out : Arrays.copyOf(out, i);
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that sets or clears a Material's bit in its type's available set, keeping the type's count right.
+	 *
+	 * @param type - TypeSets object of the Material's MaterialType
+	 * @param slot - int value representing the Material's slot
+	 * @param isAvailable - boolean value representing whether the Material is now available
+	 */
+
+	private static void update(TypeSets type, int slot, boolean isAvailable) {
+		if(type.available.get(slot) == isAvailable) {
+			return;
+		}
+		type.available.set(slot, isAvailable);
+		type.count += isAvailable ? 1 : -1;
+	}
+
+	/**
+	 * Helper method that gives a Material the next slot.
+	 *
+	 * @param id - int value representing the id of the Material
+	 * @return - Returns an Integer object representing the slot given to the Material
+	 */
+
+	private Integer assignSlot(int id) {
+		if(size == ids.length) {
+			int[] grown = new int[ids.length << 1];
+			System.arraycopy(ids, 0, grown, 0, size);
+			ids = grown;
+		}
+		Integer slot = size;
+		ids[size++] = id;
+		slots.put(id, slot);
+		return slot;
+	}
+
+	/**
+	 * Helper method that reads the bitsets of an ordinal, if it has them.
+	 *
+	 * @param ordinal - int value representing the ordinal
+	 * @return - Returns the TypeSets object of that ordinal, or null if no Material of that type was ever indexed
+	 */
+
+	private TypeSets getType(int ordinal) {
+		return ordinal >= 0 && ordinal < types.length ? types[ordinal] : null;
+	}
+
+	/**
+	 * Helper method that makes room for, and creates the bitsets of, the provided ordinal.
+	 *
+	 * @param ordinal - int value representing the ordinal of a MaterialType
+	 * @return - Returns the TypeSets object of that ordinal
+	 */
+
+	private TypeSets ensureType(int ordinal) {
+		if(ordinal >= types.length) {
+			TypeSets[] grown = new TypeSets[Math.max(ordinal + 1, types.length << 1)];
+			System.arraycopy(types, 0, grown, 0, types.length);
+			types = grown;
+		}
+		if(types[ordinal] == null) {
+			types[ordinal] = new TypeSets();
+		}
+		return types[ordinal];
+	}
+
+	/**
+	 * This private Class holds the bitsets of one MaterialType, by slot, and how many of its Materials are available.
+	 *
+	 */
+
+	private static class TypeSets {
+
+		/** BitSet object holding the slots of the stocked Materials of this type*/
+		private BitSet stocked = new BitSet();
+		/** BitSet object holding the slots of the available Materials of this type*/
+		private BitSet available = new BitSet();
+		/** int value representing how many Materials of this type are available*/
+		private int count;
+
+	}
+
+}
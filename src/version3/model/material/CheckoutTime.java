@@ -3,6 +3,14 @@ package version3.model.material;
 /**
  * This class models the measure of time for how long a Material in the Library has been checked out for.
  * 
+ * Materials no longer create a CheckoutTime object for every loan (they keep the primitive timestamps
+ * themselves), but the day arithmetic is still kept here in the static elapsedTimeDays(long) function
+ * so there is one place that decides how elapsed time is counted.
+ * 
+ * The current time comes from a LibraryClock chosen with assignClock() (the system clock by default), so that the
+ * time can be cached by a TickingClock or moved by hand by a SimulationClock; every loan calculation in the Model
+ * reads the time through currentTime().
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -14,10 +22,12 @@ public class CheckoutTime {
 	
 	/** long value denoting how many milliseconds are in a day for time passage calculations*/
 	public static final long DURATION_DAY = 86400000;	
+	/** static LibraryClock object that every loan calculation reads the current time from*/
+	private static volatile LibraryClock clock = new SystemClock();
 	
 //---  Instance Variables   -------------------------------------------------------------------
 	
-	/** long value denoting what time, in milliseconds (obtained from System.currentTimeMillis), an object was checked out at*/
+	/** long value denoting what time, in milliseconds (obtained from the assigned LibraryClock), an object was checked out at*/
 	private long checkedOutTime;
 	
 //---  Constructors   -------------------------------------------------------------------------
@@ -34,13 +44,13 @@ public class CheckoutTime {
 	}
 	
 	/**
-	 * Constructor for the CheckoutTime class that defaults the checkout time to the current System time in milliseconds (using
-	 * System.currentTimeMillis())
+	 * Constructor for the CheckoutTime class that defaults the checkout time to the current time in milliseconds (using
+	 * the assigned LibraryClock)
 	 * 
 	 */
 	
 	public CheckoutTime() {
-		checkedOutTime = System.currentTimeMillis();
+		checkedOutTime = currentTime();
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
@@ -52,7 +62,60 @@ public class CheckoutTime {
 	 */
 	
 	public int elapsedTimeDays() {
-		return (int)((System.currentTimeMillis() - checkedOutTime) / DURATION_DAY);
+		return elapsedTimeDays(checkedOutTime);
+	}
+	
+	/**
+	 * Function that calculates the elapsed number of days since the provided time, in milliseconds.
+	 * 
+	 * @param time - long value representing a time in milliseconds (obtained from the assigned LibraryClock)
+	 * @return - returns an int value representing the number of days (rounded down) since the provided time
+	 */
+	
+	public static int elapsedTimeDays(long time) {
+		return (int)((currentTime() - time) / DURATION_DAY);
+	}
+	
+	/**
+	 * Function that reads the current time from the assigned LibraryClock.
+	 * 
+	 * @return - Returns a long value representing the current time in milliseconds since the epoch
+	 */
+	
+	public static long currentTime() {
+		return clock.currentTimeMillis();
+	}
+	
+	/**
+	 * Function that chooses the LibraryClock that every loan calculation reads the current time from.
+	 * 
+	 * @param in - LibraryClock object to use from now on
+	 */
+	
+	public static void assignClock(LibraryClock in) {
+		clock = in;
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the time, in milliseconds, at which the associated object was checked out.
+	 * 
+	 * @return - Returns a long value representing the time in milliseconds that this CheckoutTime object was initialized with
+	 */
+	
+	public long getCheckoutTime() {
+		return checkedOutTime;
+	}
+	
+	/**
+	 * Getter method that requests the LibraryClock that loan calculations currently read the time from.
+	 * 
+	 * @return - Returns the assigned LibraryClock object
+	 */
+	
+	public static LibraryClock getClock() {
+		return clock;
 	}
 	
 }
@@ -0,0 +1,37 @@
+package version3.model.material;
+
+/**
+ * This interface is the source of the current time for every loan calculation (checkout times, overdue tests and
+ * fines), so that the time can come from somewhere other than the system clock: a cached value that a background
+ * thread keeps up to date (TickingClock), or a clock a simulation moves forward by hand (SimulationClock).
+ * 
+ * The clock in use is chosen with CheckoutTime.assignClock(); SystemClock is used until another is assigned.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public interface LibraryClock {
+
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the current time.
+	 * 
+	 * @return - Returns a long value representing the current time in milliseconds since the epoch
+	 */
+	
+	public long currentTimeMillis();
+	
+	/**
+	 * Getter method that requests the current day, counted in whole days since the epoch.
+	 * 
+	 * @return - Returns a long value representing the current epoch day
+	 */
+	
+	public default long currentDay() {
+		return currentTimeMillis() / CheckoutTime.DURATION_DAY;
+	}
+	
+}
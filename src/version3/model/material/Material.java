@@ -6,11 +6,14 @@ import version3.model.material.materialtype.MaterialType;
 /**
  * This class extends the CatalogueItem abstract class to model a Material object in the
  * Library model, allowing it to be stored in a Catalogue with an int id value as well as
- * keep track of its MaterialType and CheckoutTime.
+ * keep track of its MaterialType and when it was checked out.
  * 
- * Point of contention in the design is interpreting the Material as being available when
- * the instance variable CheckoutTime is null; could easily make CheckoutTime manage this
- * instead of playing around with null type.
+ * A loan is stored as two primitive timestamps rather than a CheckoutTime object: when the
+ * Material was checked out, and when it becomes overdue (worked out once at checkout from the
+ * MaterialType's time limit). This means checking out doesn't allocate anything and testing
+ * whether the Material is overdue is a single comparison against the current time.
+ * 
+ * The Material is available when its checkout time is NOT_CHECKED_OUT.
  * 
  * @author Ada Clevinger
  * @version 2.0
@@ -19,12 +22,27 @@ import version3.model.material.materialtype.MaterialType;
 
 public class Material extends CatalogueItem{
 
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** long value stored as the checkout time of a Material that is not checked out*/
+	public static final long NOT_CHECKED_OUT = Long.MIN_VALUE;
+	
 //---  Instance Variables   -------------------------------------------------------------------
 	
-	/** CheckoutTime object that keeps track of when this Material object was checked out; if null, the Material is available for checkout*/
-	private CheckoutTime checkedOut;
+	/** long value denoting when, in milliseconds, this Material was checked out; if NOT_CHECKED_OUT, the Material is available for checkout*/
+	private long checkedOut;
+	/** long value denoting the time, in milliseconds, at which this Material becomes overdue; only meaningful while it is checked out*/
+	private long overdueTime;
 	/** MaterialType object that provides information regarding the type of this Material, holding information on the type name, checkout time limit, and overdue fees*/
 	private MaterialType type;
+	/** int value representing where this Material currently sits in its MaterialsCatalogue's OverdueIndex, or -1 if it is not in one; only the OverdueIndex manages this*/
+	int indexPosition;
+	/** String object representing the title of this Material, or null if it has not been described*/
+	private String title;
+	/** String object representing the author (or director, artist, etc.) of this Material, or null if it has not been described*/
+	private String author;
+	/** String[] object containing the subject keywords of this Material, or null if it has not been described*/
+	private String[] keywords;
 	
 //---  Constructors   -------------------------------------------------------------------------
 	
@@ -39,50 +57,55 @@ public class Material extends CatalogueItem{
 	public Material(int inId, MaterialType inType) {
 		super(inId);
 		type = inType;
+		checkedOut = NOT_CHECKED_OUT;
+		indexPosition = -1;
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
 
 	/**
-	 * Function that signifies to the Material object that it has been checked out and must
-	 * instantiate a new CheckoutTime object to keep track of how long it has been checked out.
+	 * Function that signifies to the Material object that it has been checked out as of the current
+	 * time, recording when that happened and when it will become overdue.
 	 * 
 	 */
 	
 	public void checkoutMaterial() {
-		checkedOut = new CheckoutTime();
+		setCheckoutTime(CheckoutTime.currentTime());
 	}
 	
 	/**
-	 * Function that signifies that the Material object has been returned and its CheckoutTime
-	 * instance variable can be set to null, signifying that it is not checked out.
+	 * Function that signifies that the Material object has been returned, resetting its checkout
+	 * time to NOT_CHECKED_OUT to signify that it is not checked out.
 	 * 
 	 */
 	
 	public void returnMaterial() {
-		checkedOut = null;
+		checkedOut = NOT_CHECKED_OUT;
 	}
 	
 	/**
 	 * Function that requests whether or not this Material object is available to be checked out,
-	 * calculated by checking whether or not the CheckoutTime instance variable is null or not.
+	 * calculated by checking whether or not a checkout time is currently recorded.
 	 * 
 	 * @return - Returns a boolean value informing the caller of whether or not the Material can be checked out
 	 */
 	
 	public boolean isAvailable() {
-		return checkedOut == null;
+		return checkedOut == NOT_CHECKED_OUT;
 	}
 
 	/**
-	 * Function that tests whether or not the Material object is overdue by comparing the elapsed number
-	 * of days to the time limit described by the MaterialType object given to this Material object.
+	 * Function that tests whether or not the Material object is overdue by comparing the current time
+	 * to the overdue time that was calculated when it was checked out.
+	 * 
+	 * A Material is overdue once it has been out for more than its time limit in whole days, which is
+	 * the same point at which MaterialsCatalogue.calculateOverdueCost() starts charging for it.
 	 * 
-	 * @return
+	 * @return - Returns a boolean value signifying whether or not this Material is checked out and overdue
 	 */
 	
 	public boolean testOverdue() {
-		return checkedOut.elapsedTimeDays() > type.getTimeLimit();
+		return !isAvailable() && CheckoutTime.currentTime() >= overdueTime;
 	}
 	
 //---  Getter Methods   -----------------------------------------------------------------------
@@ -97,6 +120,17 @@ public class Material extends CatalogueItem{
 		return type.getName();
 	}
 	
+	/**
+	 * Getter method to request the ordinal of this Material object's MaterialType in the MaterialTypeRegistry, for
+	 * indexing per-type tables without hashing the type's name
+	 * 
+	 * @return - Returns an int value representing the ordinal of the MaterialType associated with this Material object
+	 */
+	
+	public int getMaterialTypeOrdinal() {
+		return type.getOrdinal();
+	}
+	
 	/**
 	 * Getter method to request how many days have passed (rounded) since this Material was checked out
 	 * 
@@ -104,10 +138,36 @@ public class Material extends CatalogueItem{
 	 */
 	
 	public int getDaysCheckedOut() {
-		if(checkedOut == null) {
+		if(isAvailable()) {
 			return -1;
 		}
-		return checkedOut.elapsedTimeDays();
+		return CheckoutTime.elapsedTimeDays(checkedOut);
+	}
+	
+	/**
+	 * Getter method to request the time, in milliseconds, at which this Material was checked out.
+	 * 
+	 * @return - Returns a long value representing when this Material was checked out, or -1 if it is available
+	 */
+	
+	public long getCheckoutTime() {
+		if(isAvailable()) {
+			return -1;
+		}
+		return checkedOut;
+	}
+	
+	/**
+	 * Getter method to request the time, in milliseconds, at which this Material becomes overdue.
+	 * 
+	 * @return - Returns a long value representing when this Material becomes overdue, or Long.MAX_VALUE if it is available
+	 */
+	
+	public long getOverdueTime() {
+		if(isAvailable()) {
+			return Long.MAX_VALUE;
+		}
+		return overdueTime;
 	}
 	
 	/**
@@ -131,19 +191,68 @@ public class Material extends CatalogueItem{
 		return type.getOverdueCost();
 	}
 	
+	/**
+	 * Getter method to request the title of this Material.
+	 * 
+	 * @return - Returns a String object representing the title of this Material, or null if it has not been described
+	 */
+	
+	public String getTitle() {
+		return title;
+	}
+	
+	/**
+	 * Getter method to request the author (or director, artist, etc.) of this Material.
+	 * 
+	 * @return - Returns a String object representing the author of this Material, or null if it has not been described
+	 */
+	
+	public String getAuthor() {
+		return author;
+	}
+	
+	/**
+	 * Getter method to request the subject keywords of this Material.
+	 * 
+	 * @return - Returns a String[] containing a copy of the keywords of this Material, empty if it has not been described
+	 */
+	
+	public String[] getKeywords() {
+		return keywords == null ? new String[0] : keywords.clone();
+	}
+	
 //---  Setter Methods   -----------------------------------------------------------------------
 	
 	/**
 	 * Setter method to assign a specific time of checkout to this Material object.
 	 * 
 	 * This function is used for testing purposes to create a fictional history for this object; usual
-	 * behaviours of the Material class should not require the usage of this function.
+	 * behaviours of the Material class should not require the usage of this function. The overdue time
+	 * is calculated here from the MaterialType's time limit (in weeks) plus the one day of grace.
 	 * 
 	 * @param in - long value representing the time, in milliseconds, that this Material object should be designated as having been checked out at
 	 */
 	
 	public void setCheckoutTime(long in) {
-		checkedOut = new CheckoutTime(in);
+		checkedOut = in;
+		overdueTime = in + (MaterialsCatalogue.DURATION_WEEK * type.getTimeLimit() + 1) * CheckoutTime.DURATION_DAY;
+	}
+	
+	/**
+	 * Setter method to assign the descriptive details of this Material that it can be searched for by.
+	 * 
+	 * This should be done through MaterialsCatalogue.describeMaterial() so that the catalogue's MaterialSearchIndex
+	 * is kept up to date; changing the details directly leaves the index finding the Material by its old ones.
+	 * 
+	 * @param inTitle - String object representing the title of this Material, or null
+	 * @param inAuthor - String object representing the author of this Material, or null
+	 * @param inKeywords - String[] containing the subject keywords of this Material, or null
+	 */
+	
+	public void setDetails(String inTitle, String inAuthor, String[] inKeywords) {
+		title = inTitle;
+		author = inAuthor;
+		keywords = inKeywords == null ? null : inKeywords.clone();
 	}
 
 }
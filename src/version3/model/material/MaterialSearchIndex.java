@@ -0,0 +1,562 @@
+package version3.model.material;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * This class is an inverted index over the titles, authors and keywords of the Materials in a MaterialsCatalogue, so
+ * that Materials can be searched for by the words that describe them instead of only looked up by id.
+ *
+ * Every word (letters and digits, lower-cased) maps to a posting list: the ids of the Materials whose details contain
+ * it, kept in a growable int[] and sorted only when a search needs it. The words are kept in a TreeMap, so the words
+ * starting with a prefix are one contiguous range of it.
+ *
+ * A query is a list of terms that must all match (so "dune herbert" finds Materials with both words); a term ending in
+ * '*' matches every word starting with it ("herb*"). A search walks the ids of its rarest term in increasing order and
+ * keeps an id once every other term matches it. Since the candidates only ever increase, each other term keeps a cursor
+ * in each of its posting lists and gallops forward from it (doubling its step, then a binary search), so intersecting
+ * with a long list costs little more than the short one; a prefix that matches more than PROBE_LISTS words is checked
+ * against the Material's own words instead of against every one of its lists. Since the ids are walked in order, the
+ * search stops as soon as it has the number of results asked for, and its cost depends on how rare the rarest term is
+ * rather than on the size of the catalogue.
+ *
+ * The index is updated as Materials are described, one posting list entry per word. Every public function is
+ * synchronized, as a search may sort posting lists.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class MaterialSearchIndex {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** char value that marks the end of a query term as a prefix*/
+	public static final char PREFIX_MARK = '*';
+	/** int value denoting the largest number of posting lists a prefix term is checked against by binary search*/
+	private static final int PROBE_LISTS = 8;
+	/** int value denoting how many ids a new posting list has room for*/
+	private static final int INITIAL_POSTINGS = 4;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** TreeMap<<r>String, Postings> object mapping each word to the ids of the Materials described by it*/
+	private TreeMap<String, Postings> words;
+	/** MaterialsCatalogue object holding the Materials indexed, used to check a Material's own words*/
+	private MaterialsCatalogue materials;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the MaterialSearchIndex class that prepares an empty index over the provided catalogue.
+	 *
+	 * @param in - MaterialsCatalogue object whose Materials are indexed
+	 */
+
+	public MaterialSearchIndex(MaterialsCatalogue in) {
+		words = new TreeMap<String, Postings>();
+		materials = in;
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds a Material to the index under every word of its current details.
+	 *
+	 * @param m - Material object being indexed
+	 */
+
+	public synchronized void add(Material m) {
+		for(String word : describe(m)) {
+			Postings list = words.get(word);
+			if(list == null) {
+				list = new Postings();
+				words.put(word, list);
+			}
+			list.add(m.getId());
+		}
+	}
+
+	/**
+	 * Function that removes a Material from the index under every word of its current details, such as before its
+	 * details are changed.
+	 *
+	 * @param m - Material object being removed from the index
+	 */
+
+	public synchronized void remove(Material m) {
+		for(String word : describe(m)) {
+			Postings list = words.get(word);
+			if(list != null && list.remove(m.getId()) && list.size == 0) {
+				words.remove(word);
+			}
+		}
+	}
+
+	/**
+	 * Function that finds the Materials matching every term of the query, in increasing order of id.
+	 *
+	 * @param query - String object holding the terms to match, separated by spaces; a term ending in '*' is a prefix
+	 * @param limit - int value representing the most ids to return
+	 * @return - Returns an int[] containing the ids of up to limit matching Materials, in increasing order
+	 */
+
+	public synchronized int[] search(String query, int limit) {
+		ArrayList<String> terms = new ArrayList<String>();
+		ArrayList<Boolean> prefixes = new ArrayList<Boolean>();
+		parse(query, terms, prefixes);
+		if(terms.isEmpty() || limit <= 0) {
+			return new int[0];
+		}
+		int count = terms.size();
+		Postings[][] lists = new Postings[count][];
+		long[] sizes = new long[count];
+		int rarest = 0;
+		for(int i = 0; i < count; i++) {
+			lists[i] = match(terms.get(i), prefixes.get(i));
+			for(Postings p : lists[i]) {
+				p.sort();
+				sizes[i] += p.size;
+			}
+			if(sizes[i] == 0) {
+				return new int[0];
+			}
+			if(sizes[i] < sizes[rarest]) {
+				rarest = i;
+			}
+		}
+		int[][] cursors = new int[count][];
+		for(int i = 0; i < count; i++) {
+			cursors[i] = new int[lists[i].length];
+		}
+		int[] out = new int[(int)Math.min(limit, sizes[rarest])];
+		int found = 0;
+		Merge candidates = new Merge(lists[rarest]);
+		while(found < out.length && candidates.hasNext()) {
+			int id = candidates.next();
+			boolean keep = true;
+			for(int i = 0; i < count && keep; i++) {
+				keep = i == rarest || contains(lists[i], cursors[i], terms.get(i), prefixes.get(i), id);
+			}
+			if(keep) {
+				out[found++] = id;
+			}
+		}
+		return found == out.length ? out : Arrays.copyOf(out, found);
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests how many different words are in the index.
+	 *
+	 * @return - Returns an int value representing the number of indexed words
+	 */
+
+	public synchronized int getWordCount() {
+		return words.size();
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that finds the posting lists a term matches: the list of the word itself, or for a prefix the lists
+	 * of every word starting with it.
+	 *
+	 * @param term - String object representing the lower-cased term
+	 * @param prefix - boolean value signifying whether the term is a prefix
+	 * @return - Returns a Postings[] containing the matching posting lists, empty if there are none
+	 */
+
+	private Postings[] match(String term, boolean prefix) {
+		if(!prefix) {
+			Postings list = words.get(term);
+			return list == null ? new Postings[0] : new Postings[] {list};
+		}
+		Collection<Postings> range = words.subMap(term, true, term + Character.MAX_VALUE, false).values();
+		return range.toArray(new Postings[range.size()]);
+	}
+
+	/**
+	 * Helper method that tests whether the Material with the provided id matches a term, by galloping forward through
+	 * the term's posting lists or, for a prefix with many lists, by looking at the Material's own words. The ids tested
+	 * against a term must only ever increase, as the cursors never move backward.
+	 *
+	 * @param lists - Postings[] containing the term's posting lists, already sorted
+	 * @param cursors - int[] holding the position reached in each of the lists by the previous tests
+	 * @param term - String object representing the lower-cased term
+	 * @param prefix - boolean value signifying whether the term is a prefix
+	 * @param id - int value representing the id of the Material being tested
+	 * @return - Returns a boolean value; true if the Material matches the term
+	 */
+
+	private boolean contains(Postings[] lists, int[] cursors, String term, boolean prefix, int id) {
+		if(lists.length <= PROBE_LISTS) {
+			boolean out = false;
+			for(int i = 0; i < lists.length; i++) {
+				Postings p = lists[i];
+				cursors[i] = gallop(p.ids, cursors[i], p.size, id);
+				out = out || (cursors[i] < p.size && p.ids[cursors[i]] == id);
+			}
+			return out;
+		}
+		Material m = materials.getMaterial(id);
+		if(m == null) {
+			return false;
+		}
+		if(hasWord(m.getTitle(), term, prefix) || hasWord(m.getAuthor(), term, prefix)) {
+			return true;
+		}
+		for(String keyword : m.getKeywords()) {
+			if(hasWord(keyword, term, prefix)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Helper method that finds the first position at or after from whose id is not less than the provided id, by
+	 * doubling its step until it passes the id and then binary searching the last step.
+	 *
+	 * @param ids - int[] holding ids in increasing order
+	 * @param from - int value representing the position to start from
+	 * @param size - int value representing how many entries of ids are used
+	 * @param id - int value representing the id being looked for
+	 * @return - Returns an int value representing the first position whose id is at least id, or size if there is none
+	 */
+
+	private static int gallop(int[] ids, int from, int size, int id) {
+		if(from >= size || ids[from] >= id) {
+			return from;
+		}
+		int low = from;
+		int step = 1;
+		int high = from + 1;
+		while(high < size && ids[high] < id) {
+			low = high;
+			step <<= 1;
+			high = low + step;
+		}
+		int at = Arrays.binarySearch(ids, low + 1, Math.min(high, size), id);
+		return at >= 0 ? at : -at - 1;
+	}
+
+	/**
+	 * Helper method that tests whether text contains a word equal to (or, for a prefix, starting with) the provided
+	 * term, splitting and lower-casing it the same way tokenize() does but without building any Strings.
+	 *
+	 * @param text - String object being searched, or null
+	 * @param term - String object representing the lower-cased term
+	 * @param prefix - boolean value signifying whether the term is a prefix
+	 * @return - Returns a boolean value; true if one of the words of text matches the term
+	 */
+
+	private static boolean hasWord(String text, String term, boolean prefix) {
+		if(text == null) {
+			return false;
+		}
+		int start = -1;
+		for(int i = 0; i <= text.length(); i++) {
+			boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if(word && start < 0) {
+				start = i;
+			}
+			else if(!word && start >= 0) {
+				int length = i - start;
+				if(length == term.length() || (prefix && length > term.length())) {
+					boolean same = true;
+					for(int k = 0; k < term.length() && same; k++) {
+						same = Character.toLowerCase(text.charAt(start + k)) == term.charAt(k);
+					}
+					if(same) {
+						return true;
+					}
+				}
+				start = -1;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Helper method that splits a query into its lower-cased terms, noting which are prefixes. A term that holds
+	 * punctuation is split the same way the details are, and only its last piece keeps the prefix mark.
+	 *
+	 * @param query - String object holding the query
+	 * @param terms - ArrayList<<r>String> object that the terms are added to
+	 * @param prefixes - ArrayList<<r>Boolean> object that whether each term is a prefix is added to
+	 */
+
+	private static void parse(String query, ArrayList<String> terms, ArrayList<Boolean> prefixes) {
+		if(query == null) {
+			return;
+		}
+		for(String part : query.trim().split("\\s+")) {
+			boolean prefix = !part.isEmpty() && part.charAt(part.length() - 1) == PREFIX_MARK;
+			ArrayList<String> pieces = new ArrayList<String>();
+			tokenize(part, pieces);
+			for(int i = 0; i < pieces.size(); i++) {
+				terms.add(pieces.get(i));
+				prefixes.add(prefix && i == pieces.size() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Helper method that lists the distinct words of a Material's title, author and keywords.
+	 *
+	 * @param m - Material object whose details are split into words
+	 * @return - Returns an ArrayList<<r>String> object containing each lower-cased word once
+	 */
+
+	private static ArrayList<String> describe(Material m) {
+		ArrayList<String> out = new ArrayList<String>();
+		tokenize(m.getTitle(), out);
+		tokenize(m.getAuthor(), out);
+		for(String keyword : m.getKeywords()) {
+			tokenize(keyword, out);
+		}
+		return out;
+	}
+
+	/**
+	 * Helper method that splits text into lower-cased runs of letters and digits, adding each one not already listed.
+	 *
+	 * @param text - String object being split, or null
+	 * @param out - ArrayList<<r>String> object that the words are added to
+	 */
+
+	private static void tokenize(String text, ArrayList<String> out) {
+		if(text == null) {
+			return;
+		}
+		int start = -1;
+		for(int i = 0; i <= text.length(); i++) {
+			boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+			if(word && start < 0) {
+				start = i;
+			}
+			else if(!word && start >= 0) {
+				StringBuilder lower = new StringBuilder(i - start);
+				for(int k = start; k < i; k++) {
+					lower.append(Character.toLowerCase(text.charAt(k)));
+				}
+				String token = lower.toString();
+				if(!out.contains(token)) {
+					out.add(token);
+				}
+				start = -1;
+			}
+		}
+	}
+
+	/**
+	 * This private Class holds the ids of the Materials described by one word. Ids are appended as Materials are
+	 * described and the list is only sorted (and any repeats dropped) when a search needs it in order.
+	 *
+	 */
+
+	private static class Postings {
+
+		/** int[] object holding the ids; only the first size entries are used*/
+		private int[] ids;
+		/** int value representing how many ids are held*/
+		private int size;
+		/** boolean value representing whether the ids are known to be in increasing order without repeats*/
+		private boolean sorted;
+
+		/**
+		 * Constructor for the Postings class that prepares an empty list.
+		 *
+		 */
+
+		private Postings() {
+			ids = new int[INITIAL_POSTINGS];
+			sorted = true;
+		}
+
+		/**
+		 * Function that appends an id, noting whether the list is still in order.
+		 *
+		 * @param id - int value representing the id of a Material described by the word
+		 */
+
+		private void add(int id) {
+			if(size == ids.length) {
+				ids = Arrays.copyOf(ids, size << 1);
+			}
+			sorted = sorted && (size == 0 || ids[size - 1] < id);
+			ids[size++] = id;
+		}
+
+		/**
+		 * Function that removes an id, if it is held.
+		 *
+		 * @param id - int value representing the id of a Material no longer described by the word
+		 * @return - Returns a boolean value; true if the id was held and removed
+		 */
+
+		private boolean remove(int id) {
+			sort();
+			int at = Arrays.binarySearch(ids, 0, size, id);
+			if(at < 0) {
+				return false;
+			}
+			System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+			size--;
+			return true;
+		}
+
+		/**
+		 * Function that puts the ids in increasing order and drops any repeats, if that hasn't been done since the last
+		 * out of order id was added.
+		 *
+		 */
+
+		private void sort() {
+			if(sorted) {
+				return;
+			}
+			Arrays.sort(ids, 0, size);
+			int kept = 0;
+			for(int i = 0; i < size; i++) {
+				if(kept == 0 || ids[kept - 1] != ids[i]) {
+					ids[kept++] = ids[i];
+				}
+			}
+			size = kept;
+			sorted = true;
+		}
+
+	}
+
+	/**
+	 * This private Class walks the union of several sorted posting lists in increasing order without repeats, by
+	 * keeping a small binary heap of the lists ordered by their next id.
+	 *
+	 */
+
+	private static class Merge {
+
+		/** Postings[] object holding the lists being merged*/
+		private Postings[] lists;
+		/** int[] object holding the position of the next id in each list*/
+		private int[] positions;
+		/** int[] object holding the indices of the lists that still have ids, as a heap ordered by their next id*/
+		private int[] heap;
+		/** int value representing how many lists are in the heap*/
+		private int size;
+		/** int value representing the last id returned, so that repeats across lists are skipped*/
+		private int last;
+
+		/**
+		 * Constructor for the Merge class that starts at the smallest id of the provided lists.
+		 *
+		 * @param in - Postings[] containing sorted lists to merge
+		 */
+
+		private Merge(Postings[] in) {
+			lists = in;
+			positions = new int[in.length];
+			heap = new int[in.length];
+			for(int i = 0; i < in.length; i++) {
+				if(in[i].size > 0) {
+					heap[size++] = i;
+				}
+			}
+			for(int i = (size >>> 1) - 1; i >= 0; i--) {
+				siftDown(i);
+			}
+		}
+
+		/**
+		 * Function that requests whether another id remains.
+		 *
+		 * @return - Returns a boolean value; true if next() has another id to return
+		 */
+
+		private boolean hasNext() {
+			return size > 0;
+		}
+
+		/**
+		 * Function that returns the next smallest id not yet returned.
+		 *
+		 * @return - Returns an int value representing the next id of the union
+		 */
+
+		private int next() {
+			last = head();
+			skipRepeats();
+			return last;
+		}
+
+		/**
+		 * Helper method that moves past every id at the top of the heap equal to the last one returned.
+		 *
+		 */
+
+		private void skipRepeats() {
+			while(size > 0 && head() == last) {
+				int list = heap[0];
+				if(++positions[list] == lists[list].size) {
+					heap[0] = heap[--size];
+				}
+				siftDown(0);
+			}
+		}
+
+		/**
+		 * Helper method that reads the next id of the list at the top of the heap.
+		 *
+		 * @return - Returns an int value representing the smallest id not yet passed
+		 */
+
+		private int head() {
+			return value(heap[0]);
+		}
+
+		/**
+		 * Helper method that reads the next id of a list.
+		 *
+		 * @param list - int value representing the index of the list
+		 * @return - Returns an int value representing the list's next id
+		 */
+
+		private int value(int list) {
+			return lists[list].ids[positions[list]];
+		}
+
+		/**
+		 * Helper method that restores the heap order below the provided slot.
+		 *
+		 * @param at - int value representing the slot to sift down from
+		 */
+
+		private void siftDown(int at) {
+			while(true) {
+				int least = at;
+				int left = (at << 1) + 1;
+				if(left < size && value(heap[left]) < value(heap[least])) {
+					least = left;
+				}
+				if(left + 1 < size && value(heap[left + 1]) < value(heap[least])) {
+					least = left + 1;
+				}
+				if(least == at) {
+					return;
+				}
+				int swap = heap[at];
+				heap[at] = heap[least];
+				heap[least] = swap;
+				at = least;
+			}
+		}
+
+	}
+
+}
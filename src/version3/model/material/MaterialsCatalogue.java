@@ -4,6 +4,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 import version3.model.catalogue.Catalogue;
+import version3.model.catalogue.CatalogueItem;
+import version3.model.catalogue.CatalogueStorage;
+import version3.model.material.materialtype.MaterialType;
 import version3.model.material.materialtype.MaterialTypeRegistry;
 
 /**
@@ -13,6 +16,11 @@ import version3.model.material.materialtype.MaterialTypeRegistry;
  * This class also provides tools for generating a Material object based on provided
  * input so that calling classes can avoid a dependency on the Material class.
  * 
+ * Checking Materials out and returning them goes through this class (rather than directly through
+ * the Material) so that the OverdueIndex it keeps stays up to date; that index orders the checked out
+ * Materials by when they become overdue so that overdue queries don't have to scan the catalogue. The same
+ * goes for the AvailabilityIndex, which keeps a bitset of the available Materials of each MaterialType.
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -27,12 +35,103 @@ public class MaterialsCatalogue extends Catalogue {
 	
 //---  Instance Variables   -------------------------------------------------------------------
 	
+	/** OverdueIndex object holding every checked out Material in this catalogue ordered by the time at which it becomes overdue*/
+	private OverdueIndex overdue;
+	/** MaterialSearchIndex object mapping the words of every described Material's details to the Material*/
+	private MaterialSearchIndex search;
+	/** AvailabilityIndex object holding which Materials of each MaterialType are stocked and available*/
+	private AvailabilityIndex availability;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the MaterialsCatalogue class that prepares an empty OverdueIndex, MaterialSearchIndex and
+	 * AvailabilityIndex.
+	 * 
+	 */
+	
 	public MaterialsCatalogue() {
 		super();
+		overdue = new OverdueIndex();
+		search = new MaterialSearchIndex(this);
+		availability = new AvailabilityIndex();
+	}
+	
+	/**
+	 * Constructor for the MaterialsCatalogue class that keeps its Materials in the provided CatalogueStorage, such as
+	 * the MappedCatalogueStorage a LibrarySnapshot is loaded into.
+	 * 
+	 * Materials already in the storage do not pass through addResource(), so whatever fills the storage should also
+	 * add them to getAvailabilityIndex().
+	 * 
+	 * @param in - CatalogueStorage object that the Materials are kept in
+	 */
+	
+	public MaterialsCatalogue(CatalogueStorage in) {
+		super(in);
+		overdue = new OverdueIndex();
+		search = new MaterialSearchIndex(this);
+		availability = new AvailabilityIndex();
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
 	
+	/**
+	 * Function that adds a Material to this Catalogue and to the AvailabilityIndex under its MaterialType.
+	 * 
+	 * @param in - CatalogueItem object (a Material) being added to this Catalogue
+	 */
+	
+	@Override
+	public void addResource(CatalogueItem in) {
+		super.addResource(in);
+		availability.add((Material)in);
+	}
+	
+	/**
+	 * Function that checks out the Material associated to the provided id value and records it in the
+	 * OverdueIndex according to when it will become overdue.
+	 * 
+	 * @param id - int value representing the id of the Material being checked out
+	 */
+	
+	public void checkoutMaterial(int id) {
+		Material m = getMaterial(id);
+		m.checkoutMaterial();
+		overdue.add(m, m.getOverdueTime());
+		availability.update(m);
+	}
+	
+	/**
+	 * Function that returns the Material associated to the provided id value, removing it from the OverdueIndex.
+	 * 
+	 * @param id - int value representing the id of the Material being returned
+	 */
+	
+	public void returnMaterial(int id) {
+		Material m = getMaterial(id);
+		overdue.remove(m);
+		m.returnMaterial();
+		availability.update(m);
+	}
+	
+	/**
+	 * Function that assigns the title, author and keywords of the Material associated to the provided id value and
+	 * re-indexes it in the MaterialSearchIndex under its new details.
+	 * 
+	 * @param id - int value representing the id of the Material being described
+	 * @param title - String object representing the title of the Material, or null
+	 * @param author - String object representing the author of the Material, or null
+	 * @param keywords - String[] containing the subject keywords of the Material, or null
+	 */
+	
+	public void describeMaterial(int id, String title, String author, String[] keywords) {
+		Material m = getMaterial(id);
+		search.remove(m);
+		m.setDetails(title, author, keywords);
+		search.add(m);
+	}
+	
 	/**
 	 * This function performs a check of whether or not a Material can be checked out in the calling
 	 * function by informing the caller of whether the Material object prompted by the
@@ -44,7 +143,7 @@ public class MaterialsCatalogue extends Catalogue {
 	 */
 	
 	public boolean validateCheckoutAvailability(int id, int[] matIds) {
-		return checkOverdueMaterials(matIds) && checkAvailableMaterial(id);
+		return !checkOverdueMaterials(matIds) && checkAvailableMaterial(id);
 	}
 	
 	/**
@@ -68,9 +167,6 @@ public class MaterialsCatalogue extends Catalogue {
 	 */
 	
 	public boolean checkOverdueMaterials(int[] ids) {
-		if(ids.length == 0) {
-			return true;
-		}
 		for(int i : ids) {
 			if(checkOverdueMaterial(i)) {
 				return true;
@@ -101,8 +197,24 @@ public class MaterialsCatalogue extends Catalogue {
 	 */
 	
 	public int calculateOverdueCost(int id) {
+		return calculateOverdueCost(id, CheckoutTime.currentTime());
+	}
+	
+	/**
+	 * Function that calculates the overdue cost that the Material associated to the provided id would have if it were
+	 * returned at the provided time, such as for assessing every outstanding loan as of one moment.
+	 * 
+	 * @param id - int value representing the id of the Material whose overdue cost is being calculated
+	 * @param time - long value representing the time, in milliseconds, at which the cost is calculated
+	 * @return - Returns an int value representing the overdue cost of the Material at that time (0 if it is available or not yet overdue)
+	 */
+	
+	public int calculateOverdueCost(int id, long time) {
 		Material m = getMaterial(id);
-		int days = m.getDaysCheckedOut();
+		if(m.isAvailable()) {
+			return 0;
+		}
+		int days = (int)((time - m.getCheckoutTime()) / CheckoutTime.DURATION_DAY);
 		days -= DURATION_WEEK * m.getOverdueLimit();
 		if(days < 0) {
 			return 0;
@@ -122,7 +234,20 @@ public class MaterialsCatalogue extends Catalogue {
 	 */
 	
 	public Material compileMaterial(int matId, String mType) {
-		return new Material(matId, MaterialTypeRegistry.getMaterialType(mType));
+		return compileMaterial(matId, MaterialTypeRegistry.getMaterialType(mType));
+	}
+	
+	/**
+	 * Function that generates a Material object using the provided int id and an already looked-up MaterialType, for
+	 * callers that have just checked the type exists and shouldn't have to look it up a second time.
+	 * 
+	 * @param matId - int value representing the id of the Material being created
+	 * @param mType - MaterialType object being associated to the new Material object
+	 * @return - Returns a Material object that is constructed using the provided id and type values
+	 */
+	
+	public Material compileMaterial(int matId, MaterialType mType) {
+		return new Material(matId, mType);
 	}
 	
 //---  Getter Methods   -----------------------------------------------------------------------
@@ -135,12 +260,95 @@ public class MaterialsCatalogue extends Catalogue {
 	
 	public ArrayList<Material> getMaterials(){
 		ArrayList<Material> out = new ArrayList<Material>();
-		for(int i : getKeys()) {
+		for(int i : getIds()) {
 			out.add(getMaterial(i));
 		}
 		return out;
 	}
 	
+	/**
+	 * Getter method that returns every checked out Material that is overdue as of the provided time, using
+	 * the OverdueIndex so that only the overdue Materials are visited.
+	 * 
+	 * @param time - long value representing the time, in milliseconds, to test overdue status at
+	 * @return - Returns an ArrayList<<r>Material> object containing the overdue Materials, in no particular order
+	 */
+	
+	public ArrayList<Material> getOverdueMaterials(long time){
+		return overdue.getOverdue(time);
+	}
+	
+	/**
+	 * Getter method that returns the checked out Material that will become overdue soonest (which may already be overdue).
+	 * 
+	 * @return - Returns the Material object that becomes overdue next, or null if no Materials are checked out
+	 */
+	
+	public Material getNextOverdueMaterial() {
+		return overdue.getNext();
+	}
+	
+	/**
+	 * Getter method that returns the ids of the Materials whose details match every term of the provided query, using
+	 * the MaterialSearchIndex; a term ending in '*' matches any word starting with it.
+	 * 
+	 * @param query - String object holding the terms to search for, separated by spaces
+	 * @param limit - int value representing the most ids to return
+	 * @return - Returns an int[] containing the ids of up to limit matching Materials, in increasing order
+	 */
+	
+	public int[] searchMaterials(String query, int limit) {
+		return search.search(query, limit);
+	}
+	
+	/**
+	 * Getter method that returns the id of the earliest stocked available Material of the named MaterialType (the
+	 * lowest-numbered, for a catalogue stocked in id order), using the AvailabilityIndex rather than testing each Material.
+	 * 
+	 * @param type - String object representing the name of the MaterialType
+	 * @return - Returns an int value representing the id of an available Material of that type, or AvailabilityIndex.NO_MATERIAL if there is none
+	 */
+	
+	public int findAvailableMaterial(String type) {
+		MaterialType found = MaterialTypeRegistry.getMaterialType(type);
+		return found == null ? AvailabilityIndex.NO_MATERIAL : availability.getNextAvailable(found.getOrdinal(), AvailabilityIndex.NO_MATERIAL);
+	}
+	
+	/**
+	 * Getter method that returns how many Materials of the named MaterialType are available.
+	 * 
+	 * @param type - String object representing the name of the MaterialType
+	 * @return - Returns an int value representing the number of available Materials of that type
+	 */
+	
+	public int countAvailableMaterials(String type) {
+		MaterialType found = MaterialTypeRegistry.getMaterialType(type);
+		return found == null ? 0 : availability.getAvailableCount(found.getOrdinal());
+	}
+	
+	/**
+	 * Getter method that returns the ids of the available Materials of any of the named MaterialTypes; unknown names
+	 * are ignored. To intersect them with, or subtract them from, other sets of Materials a word at a time, use the
+	 * slot-space BitSets of getAvailabilityIndex() instead.
+	 * 
+	 * @param types - String[] containing the names of the MaterialTypes
+	 * @return - Returns an int[] containing the id of each available Material of those types, in the order they were stocked
+	 */
+	
+	public int[] getAvailableMaterials(String ... types) {
+		return availability.toIds(availability.getAvailable(getOrdinals(types)));
+	}
+	
+	/**
+	 * Getter method that returns the AvailabilityIndex kept by this Catalogue.
+	 * 
+	 * @return - Returns the AvailabilityIndex object holding which Materials of each MaterialType are available
+	 */
+	
+	public AvailabilityIndex getAvailabilityIndex() {
+		return availability;
+	}
+	
 	/**
 	 * Getter method that returns the Material associated to the provided id int value
 	 * 
@@ -151,5 +359,46 @@ public class MaterialsCatalogue extends Catalogue {
 	public Material getMaterial(int id) {
 		return (Material)getResource(id);
 	}
+	
+//---  Setter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Setter method that assigns a specific time of checkout to the Material associated to the provided id
+	 * value and re-positions it in the OverdueIndex to match.
+	 * 
+	 * Like Material.setCheckoutTime(), this is meant for creating a fictional history for testing or for
+	 * restoring saved state, not for the usual checkout process.
+	 * 
+	 * @param id - int value representing the id of the Material being assigned a checkout time
+	 * @param time - long value representing the time, in milliseconds, at which the Material should be considered checked out
+	 */
+	
+	public void setCheckoutTime(int id, long time) {
+		Material m = getMaterial(id);
+		m.setCheckoutTime(time);
+		overdue.add(m, m.getOverdueTime());
+		availability.update(m);
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that looks up the ordinals of the named MaterialTypes, leaving out any name that is not registered.
+	 * 
+	 * @param types - String[] containing the names of the MaterialTypes
+	 * @return - Returns an int[] containing the ordinal of each registered MaterialType named
+	 */
+	
+	private static int[] getOrdinals(String[] types) {
+		int[] out = new int[types.length];
+		int size = 0;
+		for(String type : types) {
+			MaterialType found = MaterialTypeRegistry.getMaterialType(type);
+			if(found != null) {
+				out[size++] = found.getOrdinal();
+			}
+		}
+		return Arrays.copyOf(out, size);
+	}
 
 }
@@ -0,0 +1,253 @@
+package version3.model.material;
+
+import java.util.ArrayList;
+
+/**
+ * This class keeps every checked out Material in a binary min-heap ordered by the time at which it
+ * becomes overdue, so that the MaterialsCatalogue can answer "what is overdue right now?" and "what
+ * becomes overdue next?" without testing every Material it stores.
+ *
+ * The heap is stored as two parallel arrays (the Materials and their overdue times) and each Material
+ * remembers its own position in the heap, which lets a returned Material be removed in logarithmic time
+ * instead of having to be searched for.
+ *
+ * Finding the next Material to become overdue is a look at the top of the heap; finding every Material
+ * overdue as of some time walks down from the top and stops at any branch whose top is not yet overdue,
+ * so it only visits the overdue Materials (and their direct children).
+ *
+ * The public functions are synchronized so that a ConcurrentLibrary can check out and return different
+ * Materials from several threads at once; each call holds the lock only for its own heap operation.
+ *
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class OverdueIndex {
+
+//---  Constants   ----------------------------------------------------------------------------
+
+	/** int value representing how many entries the heap arrays can hold before their first resize*/
+	private static final int INITIAL_CAPACITY = 16;
+
+//---  Instance Variables   -------------------------------------------------------------------
+
+	/** Material[] object holding the checked out Materials in heap order*/
+	private Material[] heap;
+	/** long[] object holding the time, in milliseconds, at which the Material at the same index of heap becomes overdue*/
+	private long[] times;
+	/** int value representing how many Materials are currently in the heap*/
+	private int size;
+
+//---  Constructors   -------------------------------------------------------------------------
+
+	/**
+	 * Constructor for the OverdueIndex class that prepares an empty heap.
+	 *
+	 */
+
+	public OverdueIndex() {
+		heap = new Material[INITIAL_CAPACITY];
+		times = new long[INITIAL_CAPACITY];
+	}
+
+//---  Operations   ---------------------------------------------------------------------------
+
+	/**
+	 * Function that adds a Material to the heap with the provided overdue time; if the Material is already
+	 * in the heap, its overdue time is updated instead.
+	 *
+	 * @param m - Material object being added to the index
+	 * @param overdueTime - long value representing the time, in milliseconds, at which the Material becomes overdue
+	 */
+
+	public synchronized void add(Material m, long overdueTime) {
+		if(m.indexPosition >= 0) {
+			remove(m);
+		}
+		if(size == heap.length) {
+			grow();
+		}
+		place(m, overdueTime, size++);
+		siftUp(size - 1);
+	}
+
+	/**
+	 * Function that removes a Material from the heap; nothing happens if the Material was not in it.
+	 *
+	 * @param m - Material object being removed from the index
+	 */
+
+	public synchronized void remove(Material m) {
+		int pos = m.indexPosition;
+		if(pos < 0 || pos >= size || heap[pos] != m) {
+			return;
+		}
+		m.indexPosition = -1;
+		size--;
+		if(pos != size) {
+			place(heap[size], times[size], pos);
+			heap[size] = null;
+			siftDown(pos);
+			siftUp(pos);
+		}
+		else {
+			heap[size] = null;
+		}
+	}
+
+//---  Getter Methods   -----------------------------------------------------------------------
+
+	/**
+	 * Getter method that requests the Material which will become (or already became) overdue soonest.
+	 *
+	 * @return - Returns the Material object at the top of the heap, or null if no Materials are checked out
+	 */
+
+	public synchronized Material getNext() {
+		return size == 0 ? null : heap[0];
+	}
+
+	/**
+	 * Getter method that requests the time at which the Material returned by getNext() becomes overdue.
+	 *
+	 * @return - Returns a long value representing a time in milliseconds, or Long.MAX_VALUE if no Materials are checked out
+	 */
+
+	public synchronized long getNextTime() {
+		return size == 0 ? Long.MAX_VALUE : times[0];
+	}
+
+	/**
+	 * Getter method that requests every Material whose overdue time is at or before the provided time.
+	 *
+	 * @param time - long value representing the time, in milliseconds, to test the Materials against
+	 * @return - Returns an ArrayList<<r>Material> object containing every Material overdue as of the provided time, in no particular order
+	 */
+
+	public synchronized ArrayList<Material> getOverdue(long time){
+		ArrayList<Material> out = new ArrayList<Material>();
+		collect(0, time, out);
+		return out;
+	}
+
+	/**
+	 * Getter method that requests the number of Materials currently held in this index.
+	 *
+	 * @return - Returns an int value representing how many checked out Materials are indexed
+	 */
+
+	public synchronized int size() {
+		return size;
+	}
+
+//---  Support Methods   ----------------------------------------------------------------------
+
+	/**
+	 * Helper method that walks the heap from the provided position, adding every Material whose overdue time
+	 * is at or before the provided time; a subtree whose top is not overdue cannot contain overdue Materials,
+	 * so it is skipped entirely. An explicit stack is used to avoid recursion on very deep heaps.
+	 *
+	 * @param start - int value representing the heap position to start from
+	 * @param time - long value representing the cut-off time in milliseconds
+	 * @param out - ArrayList<<r>Material> object that overdue Materials are added to
+	 */
+
+	private void collect(int start, long time, ArrayList<Material> out) {
+		if(start >= size) {
+			return;
+		}
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = start;
+		while(top > 0) {
+			int pos = stack[--top];
+			if(times[pos] > time) {
+				continue;
+			}
+			out.add(heap[pos]);
+			int child = 2 * pos + 1;
+			for(int i = child; i <= child + 1 && i < size; i++) {
+				if(top == stack.length) {
+					int[] bigger = new int[stack.length * 2];
+					System.arraycopy(stack, 0, bigger, 0, top);
+					stack = bigger;
+				}
+				stack[top++] = i;
+			}
+		}
+	}
+
+	/**
+	 * Helper method that moves the entry at the provided position up the heap until its parent is not later than it.
+	 *
+	 * @param pos - int value representing the heap position of the entry being moved
+	 */
+
+	private void siftUp(int pos) {
+		Material m = heap[pos];
+		long t = times[pos];
+		while(pos > 0) {
+			int parent = (pos - 1) >>> 1;
+			if(times[parent] <= t) {
+				break;
+			}
+			place(heap[parent], times[parent], pos);
+			pos = parent;
+		}
+		place(m, t, pos);
+	}
+
+	/**
+	 * Helper method that moves the entry at the provided position down the heap until neither child is earlier than it.
+	 *
+	 * @param pos - int value representing the heap position of the entry being moved
+	 */
+
+	private void siftDown(int pos) {
+		Material m = heap[pos];
+		long t = times[pos];
+		int half = size >>> 1;
+		while(pos < half) {
+			int child = 2 * pos + 1;
+			if(child + 1 < size && times[child + 1] < times[child]) {
+				child++;
+			}
+			if(t <= times[child]) {
+				break;
+			}
+			place(heap[child], times[child], pos);
+			pos = child;
+		}
+		place(m, t, pos);
+	}
+
+	/**
+	 * Helper method that writes a Material and its overdue time to a heap position and tells the Material where it now is.
+	 *
+	 * @param m - Material object being placed
+	 * @param t - long value representing the Material's overdue time
+	 * @param pos - int value representing the heap position being written to
+	 */
+
+	private void place(Material m, long t, int pos) {
+		heap[pos] = m;
+		times[pos] = t;
+		m.indexPosition = pos;
+	}
+
+	/**
+	 * Helper method that doubles the length of the heap arrays.
+	 *
+	 */
+
+	private void grow() {
+		Material[] newHeap = new Material[heap.length * 2];
+		long[] newTimes = new long[times.length * 2];
+		System.arraycopy(heap, 0, newHeap, 0, size);
+		System.arraycopy(times, 0, newTimes, 0, size);
+		heap = newHeap;
+		times = newTimes;
+	}
+
+}
@@ -0,0 +1,93 @@
+package version3.model.material;
+
+/**
+ * This class implements LibraryClock for simulations and tests: its time starts wherever it is told to and only moves
+ * when it is advanced by hand, or, if it is given a speed, runs that many times faster than real time (a speed of 86400
+ * makes every real second a simulated day). A year of loans and fines can therefore be simulated in seconds.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class SimulationClock implements LibraryClock {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** long value representing the simulated time, in milliseconds, at the moment recorded in base*/
+	private long start;
+	/** long value representing the System.nanoTime() at which start was last set*/
+	private long base;
+	/** double value representing how many simulated milliseconds pass per real millisecond; 0 for a clock that only moves by hand*/
+	private double speed;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the SimulationClock class that starts at the provided time and only moves when advanced.
+	 * 
+	 * @param time - long value representing the starting time in milliseconds since the epoch
+	 */
+	
+	public SimulationClock(long time) {
+		this(time, 0);
+	}
+	
+	/**
+	 * Constructor for the SimulationClock class that starts at the provided time and runs at the provided speed.
+	 * 
+	 * @param time - long value representing the starting time in milliseconds since the epoch
+	 * @param rate - double value representing how many simulated milliseconds pass per real millisecond; 0 to only move when advanced
+	 */
+	
+	public SimulationClock(long time, double rate) {
+		speed = rate;
+		setTime(time);
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that moves the clock forward (or back, if negative) by the provided number of milliseconds.
+	 * 
+	 * @param millis - long value representing how many milliseconds to advance
+	 */
+	
+	public synchronized void advance(long millis) {
+		setTime(currentTimeMillis() + millis);
+	}
+	
+	/**
+	 * Function that moves the clock forward by the provided number of days.
+	 * 
+	 * @param days - int value representing how many days to advance
+	 */
+	
+	public void advanceDays(int days) {
+		advance(days * CheckoutTime.DURATION_DAY);
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public synchronized long currentTimeMillis() {
+		if(speed == 0) {
+			return start;
+		}
+		return start + (long)((System.nanoTime() - base) / 1000000.0 * speed);
+	}
+	
+//---  Setter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Setter method that moves the clock to the provided time.
+	 * 
+	 * @param time - long value representing the new time in milliseconds since the epoch
+	 */
+	
+	public synchronized void setTime(long time) {
+		start = time;
+		base = System.nanoTime();
+	}
+	
+}
@@ -0,0 +1,21 @@
+package version3.model.material;
+
+/**
+ * This class implements LibraryClock by reading System.currentTimeMillis() every time it is asked; it is the clock
+ * CheckoutTime uses by default and behaves exactly as the Library always has.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class SystemClock implements LibraryClock {
+
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+	
+}
@@ -0,0 +1,106 @@
+package version3.model.material;
+
+/**
+ * This class implements LibraryClock with a cached time that a background thread refreshes on a fixed interval, so
+ * reading the time (which every checkout does several times while validating) is a single field read instead of a call
+ * into the operating system. Loans are measured in days, so a time that is up to one interval old makes no difference.
+ * 
+ * The background thread is a daemon, so it does not keep the program running, but close() stops it when the clock is
+ * no longer needed.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class TickingClock implements LibraryClock, AutoCloseable {
+
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** long value denoting the default interval, in milliseconds, between refreshes of the cached time*/
+	public static final long DEFAULT_INTERVAL = 1000;
+	
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** long value holding the time, in milliseconds, as of the last refresh*/
+	private volatile long now;
+	/** long value holding the epoch day as of the last refresh*/
+	private volatile long today;
+	/** boolean value signifying that the clock has been closed and its thread should stop*/
+	private volatile boolean closed;
+	/** Thread object that refreshes the cached time*/
+	private Thread ticker;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the TickingClock class that refreshes its time every DEFAULT_INTERVAL milliseconds.
+	 * 
+	 */
+	
+	public TickingClock() {
+		this(DEFAULT_INTERVAL);
+	}
+	
+	/**
+	 * Constructor for the TickingClock class that refreshes its time on the provided interval.
+	 * 
+	 * @param interval - long value representing the milliseconds between refreshes
+	 */
+	
+	public TickingClock(long interval) {
+		tick();
+		ticker = new Thread(() -> {
+			while(!closed) {
+				try {
+					Thread.sleep(interval);
+				}
+				catch(InterruptedException e) {
+					return;
+				}
+				tick();
+			}
+		}, "TickingClock");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that stops the background thread; the clock then keeps reporting the last time it read.
+	 * 
+	 */
+	
+	@Override
+	public void close() {
+		closed = true;
+		ticker.interrupt();
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	@Override
+	public long currentTimeMillis() {
+		return now;
+	}
+	
+	@Override
+	public long currentDay() {
+		return today;
+	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * Helper method that refreshes the cached time and day from the system clock.
+	 * 
+	 */
+	
+	private void tick() {
+		long time = System.currentTimeMillis();
+		now = time;
+		today = time / CheckoutTime.DURATION_DAY;
+	}
+	
+}
@@ -47,4 +47,16 @@ public class MaterialTypeRegistry extends Registry{
 		return (MaterialType)getEntry(nom);
 	}
 	
+	/**
+	 * Getter method that returns the MaterialType object that was given the provided ordinal when it was registered,
+	 * letting code that keeps per-type information in arrays map an index back to its MaterialType.
+	 * 
+	 * @param ordinal - int value representing the ordinal of a registered MaterialType
+	 * @return - Returns the MaterialType object with that ordinal, or null if there is none
+	 */
+	
+	public static MaterialType getMaterialType(int ordinal) {
+		return (MaterialType)getEntry(ordinal);
+	}
+	
 }
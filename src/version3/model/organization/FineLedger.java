@@ -0,0 +1,98 @@
+package version3.model.organization;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class keeps the running total of fines owed by an Organization in a way that many threads can
+ * add to at once without queueing up behind each other, which matters for large Organizations whose
+ * members are returning overdue Materials from many desks at the same time.
+ * 
+ * The total is held in a LongAdder, which spreads additions over several internal counters (stripes)
+ * and only combines them when the total is read. Additions therefore never lock.
+ * 
+ * Deductions (payments) do lock, but only against other deductions: because the only thing that can happen
+ * to the total while a payment is checked is that more fines are added, a total read during a payment can
+ * only be lower than the true one, so a payment that passes the check can never overdraw the ledger.
+ * The same reasoning makes the threshold check safe: when only additions are in flight, the total read lies
+ * between the totals before and after them, so it is a value the ledger really held.
+ * 
+ * @author Ada Clevinger
+ * @version 3.0
+ *
+ */
+
+public class FineLedger {
+
+//---  Instance Variables   -------------------------------------------------------------------
+	
+	/** LongAdder object holding the running total of fines; though represented as a positive number, it represents debt*/
+	private LongAdder balance;
+	
+//---  Constructors   -------------------------------------------------------------------------
+	
+	/**
+	 * Constructor for the FineLedger class that starts the ledger with no fines owed.
+	 * 
+	 */
+	
+	public FineLedger() {
+		balance = new LongAdder();
+	}
+	
+//---  Operations   ---------------------------------------------------------------------------
+	
+	/**
+	 * Function that adds fines to the ledger as long as the provided value is a positive integer; this never blocks.
+	 * 
+	 * @param in - int value representing the amount of fines being added
+	 * @return - Returns a boolean signifying whether or not the fines were added
+	 */
+	
+	public boolean add(int in) {
+		if(in <= 0) {
+			return false;
+		}
+		balance.add(in);
+		return true;
+	}
+	
+	/**
+	 * Function that removes fines from the ledger as long as the provided value is positive and does not
+	 * exceed the fines currently owed.
+	 * 
+	 * @param in - int value representing the amount of fines being paid
+	 * @return - Returns a boolean signifying whether or not the payment was legal and was deducted
+	 */
+	
+	public synchronized boolean deduct(int in) {
+		if(in <= 0 || balance.sum() < in) {
+			return false;
+		}
+		balance.add(-in);
+		return true;
+	}
+	
+	/**
+	 * Function that checks whether the fines owed are at or below the provided limit.
+	 * 
+	 * @param limit - int value representing the largest permitted amount of fines
+	 * @return - Returns a boolean signifying whether or not the fines owed are within the limit
+	 */
+	
+	public boolean isWithin(int limit) {
+		return balance.sum() <= limit;
+	}
+	
+//---  Getter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Getter method that requests the total fines owed.
+	 * 
+	 * @return - Returns an int value representing the fines currently recorded in this ledger
+	 */
+	
+	public int getBalance() {
+		return (int)balance.sum();
+	}
+	
+}
@@ -11,6 +11,9 @@ import version3.model.catalogue.CatalogueItem;
  * An Organization in this model is associated to Library Users by their integer id values, and collectively
  * possesses the fines accrued by its composite users.
  * 
+ * The fines are kept in a FineLedger so that members of one Organization can be fined from different
+ * threads at the same time (when the Library is a ConcurrentLibrary) without contending on a lock.
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -22,8 +25,8 @@ public class Organization extends CatalogueItem{
 	
 	/** String object representing the name of the Organization modeled by this object*/
 	private String name;
-	/** int value representing the total number of fines accrued by this Organization; though represented as a positive number, it represents debt*/
-	private int fines;
+	/** FineLedger object keeping the total number of fines accrued by this Organization; though represented as a positive number, it represents debt*/
+	private FineLedger fines;
 	/** HashSet<<r>Integer> object containing the integer id values associated to Users in the Library model who belong to this Organization*/
 	private HashSet<Integer> members;
 	
@@ -40,7 +43,7 @@ public class Organization extends CatalogueItem{
 	public Organization(int id, String nom) {
 		super(id);
 		name = nom;
-		fines = 0;
+		fines = new FineLedger();
 		members = new HashSet<Integer>();
 	}
 	
@@ -54,11 +57,7 @@ public class Organization extends CatalogueItem{
 	 */
 	
 	public boolean addFines(int in) {
-		if(in <= 0) {
-			return false;
-		}
-		fines += in;
-		return true;
+		return fines.add(in);
 	}
 	
 	/**
@@ -70,11 +69,18 @@ public class Organization extends CatalogueItem{
 	 */
 	
 	public boolean deductFines(int in) {
-		if(in <= 0 || fines - in < 0) {
-			return false;
-		}
-		fines -= in;
-		return true;
+		return fines.deduct(in);
+	}
+	
+	/**
+	 * Function that checks whether this Organization's fines are at or below the provided limit.
+	 * 
+	 * @param limit - int value representing the largest amount of fines permitted
+	 * @return - Returns a boolean signifying whether or not this Organization's fines are within the limit
+	 */
+	
+	public boolean verifyFinesWithin(int limit) {
+		return fines.isWithin(limit);
 	}
 	
 	/**
@@ -117,7 +123,7 @@ public class Organization extends CatalogueItem{
 	 */
 	
 	public int getFines() {
-		return fines;
+		return fines.getBalance();
 	}
 
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 
 import version3.model.catalogue.Catalogue;
+import version3.model.catalogue.IntObjectMap;
 
 /**
  * This class extends the Catalogue class to provide Catalogue services for managing Organization
@@ -15,6 +16,10 @@ import version3.model.catalogue.Catalogue;
  * To permit this, the class assigns int id values to each new Organization, not requiring any management at
  * a higher level of this complication.
  * 
+ * Finding the Organization of a User used to mean asking every Organization whether it had that User
+ * as a member; since that happens on every checkout and return, the class now keeps a direct index of
+ * User id to Organization that addUserToOrganization maintains.
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -26,6 +31,8 @@ public class OrganizationCatalogue extends Catalogue {
 	
 	/** HashMap<<r>String, Integer> object that maps the String name of Organization objects to their associated int id for use in the Catalogue*/
 	private HashMap<String, Integer> idMapping;
+	/** IntObjectMap<<r>Organization> object that maps the int id of each User to the Organization they were added to, for direct look-up by userId*/
+	private IntObjectMap<Organization> userIndex;
 	/** int value representing the maximum permissable fines that an Organization can have before their composite members can no longer check out Materials*/
 	private int maxFines;
 	/** int value representing how many Organizations have been added to this Catalogue to ensure unique id values for each added Organization*/
@@ -44,6 +51,7 @@ public class OrganizationCatalogue extends Catalogue {
 		super();
 		maxFines = in;
 		idMapping = new HashMap<String, Integer>();
+		userIndex = new IntObjectMap<Organization>();
 	}
 	
 //---  Operations   ---------------------------------------------------------------------------
@@ -61,19 +69,24 @@ public class OrganizationCatalogue extends Catalogue {
 		if(use == null) {
 			return false;
 		}
-		return use.getFines() <= maxFines;
+		return use.verifyFinesWithin(maxFines);
 	}
 	
 	/**
 	 * Function that attaches a User represented by an int id value to an Organization, permitting a reverse look-up
 	 * whereby Organizations can be accessed by finding which contains a provided int id value.
 	 * 
+	 * The User is also recorded in the userIndex so that getOrganizationByUser() does not need to search; if
+	 * the User had been placed in another Organization previously, this assignment replaces it in the index.
+	 * 
 	 * @param userId - int value representing the id of a User that will be added to an Organization
 	 * @param nom - String object representing the name of the Organization to which the user represented by the provided int id value will be added to
 	 */
 	
 	public void addUserToOrganization(int userId, String nom) {
-		getOrganization(nom).addUser(userId);
+		Organization org = getOrganization(nom);
+		org.addUser(userId);
+		userIndex.put(userId, org);
 	}
 	
 	/**
@@ -101,7 +114,7 @@ public class OrganizationCatalogue extends Catalogue {
 	
 	public ArrayList<Organization> getOrganizations(){
 		ArrayList<Organization> out = new ArrayList<Organization>();
-		for(int i : getKeys()) {
+		for(int i : getIds()) {
 			out.add((Organization)getResource(i));
 		}
 		return out;
@@ -109,19 +122,14 @@ public class OrganizationCatalogue extends Catalogue {
 	
 	/**
 	 * Getter method that finds and returns an Organization object by finding which one has a provided int id representing
-	 * a User assigned as one of its composite members.
+	 * a User assigned as one of its composite members; this is a single look-up in the userIndex.
 	 * 
 	 * @param userId - int value representing the id value of a User
 	 * @return - Returns the Organization object that has the User represented as an int id value as a composite member
 	 */
 
 	public Organization getOrganizationByUser(int userId) {
-		for(String s : idMapping.keySet()) {
-			if(getOrganization(s).checkStatusMember(userId)) {
-				return getOrganization(s);
-			}
-		}
-		return null;
+		return userIndex.get(userId);
 	}
 	
 	/**
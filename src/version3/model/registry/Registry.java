@@ -1,5 +1,7 @@
 package version3.model.registry;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 
 /**
@@ -11,6 +13,12 @@ import java.util.HashMap;
  * One concern I have realized is that multiple child classes of Registry may still use the same registry HashMap; this needs
  * testing and may require some reworking if it doesn't quite work as intended.
  * 
+ * The contents are published as an immutable copy that is replaced whole each time an entry is registered, so looking an
+ * entry up never takes a lock and is safe while another thread registers. Registering is rare (a handful of MaterialTypes
+ * at startup), so copying the contents each time costs nothing that matters. Each entry is also given a dense ordinal
+ * (0, 1, 2, ... in order of registration) so that hot paths can keep per-entry information in arrays instead of hashing
+ * the entry's name.
+ * 
  * @author Ada Clevinger
  * @version 2.0
  *
@@ -20,24 +28,37 @@ public abstract class Registry {
 
 //---  Constants   ----------------------------------------------------------------------------
 	
-	/** static HashMap<<r>String, RegistryItem> object that stores RegistryItem-type objects with their names used to access them*/
-	private static HashMap<String, RegistryItem> registry;
+	/** static Contents object holding the current (never modified) contents of the registry; replaced whole whenever an entry is registered*/
+	private static volatile Contents registry = new Contents(new HashMap<String, RegistryItem>(), new RegistryItem[0]);
 	
 //---  Operations   ---------------------------------------------------------------------------
 	
 	/**
-	 * Function that registers a new entry into the Registry-type object; it puts the provided RegistryItem-type
-	 * object into the storage registry HashMap and uses the name received from the getName() function of RegistryItem
-	 * for the key value.
+	 * Function that registers a new entry into the Registry-type object, using the name received from the getName()
+	 * function of RegistryItem as the key value. The new entry is given the next unused ordinal, unless it replaces an
+	 * entry of the same name, in which case it takes over that entry's ordinal.
+	 * 
+	 * The current contents are copied, the entry added to the copy, and the copy then published in place of the original,
+	 * so readers never see a half-finished change and never have to wait for one.
 	 * 
 	 * @param in - RegistryItem-type object being added to this registry
 	 */
 	
-	public static void registerEntry(RegistryItem in) {
-		if(registry == null) {
-			registry = new HashMap<String, RegistryItem>();
+	public static synchronized void registerEntry(RegistryItem in) {
+		Contents current = registry;
+		HashMap<String, RegistryItem> names = new HashMap<String, RegistryItem>(current.names);
+		RegistryItem previous = names.put(in.getName(), in);
+		RegistryItem[] ordinals;
+		if(previous != null) {
+			ordinals = current.ordinals.clone();
+			in.assignOrdinal(previous.getOrdinal());
 		}
-		registry.put(in.getName(), in);
+		else {
+			ordinals = Arrays.copyOf(current.ordinals, current.ordinals.length + 1);
+			in.assignOrdinal(current.ordinals.length);
+		}
+		ordinals[in.getOrdinal()] = in;
+		registry = new Contents(names, ordinals);
 	}
 	
 //---  Getter Methods   -----------------------------------------------------------------------
@@ -46,11 +67,75 @@ public abstract class Registry {
 	 * Getter method that requests the RegistryItem-type object associated with the provided name
 	 * 
 	 * @param name - String object representing the name associated with a RegistryItem-type object
-	 * @return - Returns a RegistryItem-type object accessed using the provided name as the key value in the registry HashMap
+	 * @return - Returns a RegistryItem-type object accessed using the provided name as the key value in the registry, or null if there is none
 	 */
 	
 	public static RegistryItem getEntry(String name) {
-		return registry.get(name);
+		return registry.names.get(name);
+	}
+	
+	/**
+	 * Getter method that requests the RegistryItem-type object that was given the provided ordinal when it was registered.
+	 * 
+	 * @param ordinal - int value representing the ordinal of a registered RegistryItem-type object
+	 * @return - Returns the RegistryItem-type object with that ordinal, or null if no entry has it
+	 */
+	
+	public static RegistryItem getEntry(int ordinal) {
+		RegistryItem[] ordinals = registry.ordinals;
+		return ordinal >= 0 && ordinal < ordinals.length ? ordinals[ordinal] : null;
+	}
+	
+	/**
+	 * Getter method that requests how many entries have been registered; every ordinal from 0 up to (but not including)
+	 * this value belongs to an entry, so tables indexed by ordinal can be sized with it.
+	 * 
+	 * @return - Returns an int value representing the number of registered entries
+	 */
+	
+	public static int getEntryCount() {
+		return registry.ordinals.length;
+	}
+	
+	/**
+	 * Getter method that requests every RegistryItem-type object that has been registered, such as for writing them all
+	 * to a LibrarySnapshot.
+	 * 
+	 * @return - Returns an ArrayList<<r>RegistryItem> object containing every registered entry, in order of ordinal
+	 */
+	
+	public static ArrayList<RegistryItem> getEntries(){
+		return new ArrayList<RegistryItem>(Arrays.asList(registry.ordinals));
+	}
+	
+//---  Support Methods   ----------------------------------------------------------------------
+	
+	/**
+	 * This private Class holds one published version of the registry's contents; once constructed it is never changed,
+	 * so it can be read from any number of threads without locking.
+	 *
+	 */
+	
+	private static class Contents {
+		
+		/** HashMap<<r>String, RegistryItem> object that maps each entry's name to the entry*/
+		private final HashMap<String, RegistryItem> names;
+		/** RegistryItem[] object that holds each entry at the index of its ordinal*/
+		private final RegistryItem[] ordinals;
+		
+		/**
+		 * Constructor for the Contents class that wraps the provided name map and ordinal table, neither of which may be
+		 * changed afterwards.
+		 * 
+		 * @param inNames - HashMap<<r>String, RegistryItem> object mapping names to entries
+		 * @param inOrdinals - RegistryItem[] object holding each entry at the index of its ordinal
+		 */
+		
+		private Contents(HashMap<String, RegistryItem> inNames, RegistryItem[] inOrdinals) {
+			names = inNames;
+			ordinals = inOrdinals;
+		}
+		
 	}
 	
 }
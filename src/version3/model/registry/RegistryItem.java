@@ -15,6 +15,8 @@ public abstract class RegistryItem {
 	
 	/** String object representing the name used to access this object within its encompassing Registry-type object*/
 	private String name;
+	/** int value representing the position this object was given when registered, or -1 if it has not been registered*/
+	private volatile int ordinal;
 	
 //---  Constructors   -------------------------------------------------------------------------
 	
@@ -26,6 +28,7 @@ public abstract class RegistryItem {
 	
 	public RegistryItem(String nom) {
 		name = nom;
+		ordinal = -1;
 	}
 	
 //---  Getter Methods   -----------------------------------------------------------------------
@@ -40,4 +43,27 @@ public abstract class RegistryItem {
 		return name;
 	}
 	
+	/**
+	 * Getter method that returns the ordinal assigned to this RegistryItem-type object when it was registered; ordinals
+	 * are dense, starting from 0, so they can be used to index arrays of per-entry information.
+	 * 
+	 * @return - Returns an int value representing this object's ordinal, or -1 if it has not been registered
+	 */
+	
+	public int getOrdinal() {
+		return ordinal;
+	}
+	
+//---  Setter Methods   -----------------------------------------------------------------------
+	
+	/**
+	 * Setter method used by Registry to assign this RegistryItem-type object its ordinal when it is registered.
+	 * 
+	 * @param in - int value representing the ordinal given to this object
+	 */
+	
+	void assignOrdinal(int in) {
+		ordinal = in;
+	}
+	
 }
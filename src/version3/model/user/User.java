@@ -95,6 +95,18 @@ public class User extends CatalogueItem{
 		return getCheckedOutCount() < matIds.length;
 	}
 	
+	/**
+	 * Function that verifies whether or not this User can check out the provided number of additional
+	 * Materials at once without going over their limit.
+	 * 
+	 * @param count - int value representing how many more Materials the User wants to check out
+	 * @return - Returns a boolean value signifying whether or not the User can check out that many more Materials
+	 */
+	
+	public boolean verifyCanCheckOut(int count) {
+		return getCheckedOutCount() + count <= matIds.length;
+	}
+	
 //---  Getter Methods   -----------------------------------------------------------------------
 	
 	 /**
@@ -48,6 +48,18 @@ public class UserCatalogue extends Catalogue{
 		return getUser(id).verifyCanCheckOut();
 	}
 	
+	/**
+	 * Function that validates whether a User can checkout the provided number of Materials at once.
+	 * 
+	 * @param id - int value representing the id associated with a User who is being tested
+	 * @param count - int value representing how many Materials the User wants to check out together
+	 * @return - Returns a boolean value representing whether or not the denoted User may check out that many more Materials
+	 */
+	
+	public boolean validateUserCheckout(int id, int count) {
+		return getUser(id).verifyCanCheckOut(count);
+	}
+	
 	/**
 	 * Function that instantiates and returns a new User object according to the arguments provided
 	 * 
@@ -81,7 +93,7 @@ public class UserCatalogue extends Catalogue{
 	
 	public ArrayList<User> getUsers(){
 		ArrayList<User> out = new ArrayList<User>();
-		for(int i : getKeys()) {
+		for(int i : getIds()) {
 			out.add(getUser(i));
 		}
 		return out;
@@ -3,9 +3,62 @@ package version3.test;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
 import version3.controller.MainController;
+import version3.controller.batch.BatchInterpreter;
+import version3.controller.conversion.ConvertModel;
+import version3.controller.conversion.DisplayPage;
+import version3.controller.server.LibraryServer;
+import version3.model.catalogue.HashCatalogueStorage;
+import version3.model.catalogue.IntCatalogueStorage;
+import version3.model.catalogue.MappedCatalogueStorage;
+import version3.model.catalogue.OrderedIdIndex;
+import version3.model.library.ConcurrentLibrary;
+import version3.model.library.LatencyHistogram;
+import version3.model.library.LiabilityReport;
 import version3.model.library.Library;
+import version3.model.library.LibraryEvent;
+import version3.model.library.LibraryEventBus;
+import version3.model.library.LibraryMetrics;
+import version3.model.library.LibrarySnapshot;
+import version3.model.library.ProjectedLiabilityView;
+import version3.model.library.ReservationBook;
+import version3.model.library.WriteAheadLog;
+import version3.model.material.AvailabilityIndex;
+import version3.model.material.CheckoutTime;
+import version3.model.material.Material;
+import version3.model.material.SimulationClock;
+import version3.model.material.SystemClock;
+import version3.model.material.TickingClock;
+import version3.model.material.materialtype.MaterialType;
 import version3.model.material.materialtype.MaterialTypeRegistry;
+import version3.model.user.User;
+import version3.view.CommandLineInterface;
 
 /**
  * 
@@ -72,13 +125,19 @@ class JUnitTest {
 		assertTrue(instance.stockMaterial(2, "Book"));
 		assertTrue(instance.stockMaterial(1, "DVD"));
 		
-		instance.getMaterialCatalogue().getMaterial(2).setCheckoutTime((NOW - OVERDUE_TIME_GALLANT * DURATION_DAY));
-		instance.getMaterialCatalogue().getMaterial(1).setCheckoutTime((NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY));
+		instance.getMaterialCatalogue().setCheckoutTime(2, (NOW - OVERDUE_TIME_GALLANT * DURATION_DAY));
+		instance.getMaterialCatalogue().setCheckoutTime(1, (NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY));
 		
 		instance.getUserCatalogue().getUser(420).addMaterial(1);
 		instance.getUserCatalogue().getUser(7).addMaterial(2);
 		
 		
+		//Test that the MaterialsCatalogue knows Goofus' DVD is overdue but Gallant's book is not, without scanning for it
+		
+		assertEquals(1, instance.getMaterialCatalogue().getOverdueMaterials(NOW).size());
+		assertEquals(1, instance.getMaterialCatalogue().getOverdueMaterials(NOW).get(0).getId());
+		assertEquals(1, instance.getMaterialCatalogue().getNextOverdueMaterial().getId());
+		
 		//Test that the organizations have fines of 0 by default; currently no way to instantiate an organization with a fine
 		
 		assertEquals(instance.getOrganizationFine(GOOFUS_ORG), 0);
@@ -102,6 +161,11 @@ class JUnitTest {
 		//Test that the fee is the exact amount we expect when a DVD has been out for 150 days; after a week it is late, so 143 days of overtime with $5 per day (715)
 		
 		assertEquals(instance.getOrganizationFine(GOOFUS_ORG), (OVERDUE_TIME_GOOFUS - 1 * 7) * 5);
+		
+		//Test that returned Materials are no longer tracked as overdue
+		
+		assertEquals(0, instance.getMaterialCatalogue().getOverdueMaterials(NOW).size());
+		assertNull(instance.getMaterialCatalogue().getNextOverdueMaterial());
 	
 		//Test that Gallant can checkout a new material but Goofus cannot due to oustanding fines
 		
@@ -131,4 +195,1107 @@ class JUnitTest {
 		
 	}
 
+	/**
+	 * 
+	 * Test function that checks the default IntCatalogueStorage behaves the same as the original HashMap based
+	 * storage (now HashCatalogueStorage), including when enough items are added that it has to grow several times
+	 * and when ids are negative or far apart.
+	 * 
+	 */
+	
+	@Test
+	public void testCatalogueStorage() {
+		IntCatalogueStorage fast = new IntCatalogueStorage();
+		HashCatalogueStorage slow = new HashCatalogueStorage();
+		
+		for(int i = -5000; i < 5000; i++) {
+			User u = new User(i * 7919, GOOFUS_ORG, 5);
+			fast.put(u);
+			slow.put(u);
+		}
+		
+		assertEquals(slow.size(), fast.size());
+		for(int id : slow.keys()) {
+			assertEquals(slow.get(id), fast.get(id));
+		}
+		assertNull(fast.get(1));
+		
+		//Replacing an item with the same id should not change the size of the storage
+		
+		User replacement = new User(0, GALLANT_ORG, 5);
+		fast.put(replacement);
+		assertEquals(slow.size(), fast.size());
+		assertEquals(replacement, fast.get(0));
+	}
+
+	/**
+	 * 
+	 * Test function that has several threads race each other to check out the same Materials from a ConcurrentLibrary;
+	 * if the locking is correct, every Material is checked out exactly once and nobody ends up holding more than five.
+	 * 
+	 */
+	
+	@Test
+	public void testConcurrentLibrary() throws InterruptedException {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		
+		ConcurrentLibrary instance = new ConcurrentLibrary();
+		int materialCount = 200;
+		int userCount = 64;
+		for(int i = 0; i < materialCount; i++) {
+			assertTrue(instance.stockMaterial(i, "Book"));
+		}
+		for(int i = 0; i < userCount; i++) {
+			assertTrue(instance.enrolUser(i, i % 2 == 0 ? GOOFUS_ORG : GALLANT_ORG));
+		}
+		
+		java.util.concurrent.atomic.AtomicInteger successes = new java.util.concurrent.atomic.AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for(int t = 0; t < threads.length; t++) {
+			int offset = t;
+			threads[t] = new Thread(() -> {
+				for(int i = 0; i < materialCount; i++) {
+					int material = (i + offset * 25) % materialCount;
+					int user = (i * 7 + offset) % userCount;
+					if(instance.checkoutMaterial(user, material)) {
+						successes.incrementAndGet();
+					}
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread t : threads) {
+			t.join();
+		}
+		
+		int held = 0;
+		for(int i = 0; i < userCount; i++) {
+			int count = instance.getUserCatalogue().getUser(i).getCheckedOutCount();
+			assertTrue(count <= 5);
+			held += count;
+		}
+		assertEquals(successes.get(), held);
+		
+		int checkedOut = 0;
+		for(int i = 0; i < materialCount; i++) {
+			checkedOut += instance.getMaterialCatalogue().getMaterial(i).isAvailable() ? 0 : 1;
+		}
+		assertEquals(successes.get(), checkedOut);
+	}
+
+	/**
+	 * 
+	 * Test function for checking out and returning several Materials at once, making sure that a batch with a bad item
+	 * in it changes nothing and reports which item was the problem.
+	 * 
+	 */
+	
+	@Test
+	public void testBatchCheckout() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		
+		Library instance = new Library();
+		assertTrue(instance.enrolUser(7, GALLANT_ORG));
+		for(int i = 1; i <= 7; i++) {
+			assertTrue(instance.stockMaterial(i, i % 2 == 0 ? "Book" : "DVD"));
+		}
+		
+		//A batch containing an unknown material and a repeated material is rejected as a whole
+		
+		assertArrayEquals(new int[] {Library.RESULT_NOT_APPLIED, Library.RESULT_UNKNOWN_ID, Library.RESULT_UNAVAILABLE}, instance.checkoutMaterials(7, new int[] {1, 99, 1}));
+		assertEquals(0, instance.getUserCatalogue().getUser(7).getCheckedOutCount());
+		
+		//A good batch is applied in full, and the user can still check out more afterwards up to their limit of five
+		
+		assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, instance.checkoutMaterials(7, new int[] {1, 2, 3}));
+		assertTrue(instance.checkoutMaterial(7, 4));
+		assertArrayEquals(new int[] {Library.RESULT_CHECKOUT_LIMIT, Library.RESULT_CHECKOUT_LIMIT}, instance.checkoutMaterials(7, new int[] {5, 6}));
+		
+		//Returning a material the user doesn't have rejects the whole batch; returning overdue materials charges the organization once
+		
+		assertArrayEquals(new int[] {Library.RESULT_NOT_APPLIED, Library.RESULT_NOT_HELD}, instance.returnMaterials(7, new int[] {1, 5}));
+		instance.getMaterialCatalogue().setCheckoutTime(1, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+		instance.getMaterialCatalogue().setCheckoutTime(2, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+		assertArrayEquals(new int[] {Library.RESULT_OVERDUE}, instance.checkoutMaterials(7, new int[] {5}));
+		assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, instance.returnMaterials(7, new int[] {1, 2}));
+		assertEquals(instance.getOrganizationFine(GALLANT_ORG), (OVERDUE_TIME_GOOFUS - 7) * 5 + (OVERDUE_TIME_GOOFUS - 28) * 1);
+		assertEquals(2, instance.getUserCatalogue().getUser(7).getCheckedOutCount());
+	}
+
+	/**
+	 * 
+	 * Test function for recording a Library's changes in a WriteAheadLog and replaying them into a new Library, making sure
+	 * that loans keep their original checkout times, fines are charged as they were, and a torn final record is ignored.
+	 * 
+	 */
+	
+	@Test
+	public void testWriteAheadLog() throws IOException {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		Path file = Files.createTempFile("library", ".wal");
+		try {
+			Library original = new Library();
+			WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_ALWAYS);
+			original.assignWriteAheadLog(log);
+			assertTrue(original.enrolUser(1, GOOFUS_ORG));
+			assertTrue(original.enrolUser(2, GALLANT_ORG));
+			for(int i = 1; i <= 4; i++) {
+				assertTrue(original.stockMaterial(i, i % 2 == 0 ? "Book" : "DVD"));
+			}
+			assertTrue(original.checkoutMaterial(1, 1));
+			assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, original.checkoutMaterials(2, new int[] {2, 3}));
+			original.getMaterialCatalogue().setCheckoutTime(1, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+			assertTrue(original.returnMaterial(1, 1));
+			assertTrue(original.payFee(GOOFUS_ORG, 10));
+			assertFalse(original.checkoutMaterial(1, 2));
+			log.close();
+			
+			Library restored = new Library();
+			assertEquals(13L, WriteAheadLog.replay(file, restored));
+			assertEquals(original.getOrganizationFine(GOOFUS_ORG), restored.getOrganizationFine(GOOFUS_ORG));
+			assertEquals(original.getOrganizationFine(GALLANT_ORG), restored.getOrganizationFine(GALLANT_ORG));
+			assertEquals(0, restored.getUserCatalogue().getUser(1).getCheckedOutCount());
+			assertEquals(2, restored.getUserCatalogue().getUser(2).getCheckedOutCount());
+			assertEquals(original.getMaterialCatalogue().getMaterial(3).getCheckoutTime(), restored.getMaterialCatalogue().getMaterial(3).getCheckoutTime());
+			assertTrue(restored.getMaterialCatalogue().checkAvailableMaterial(1));
+			assertFalse(restored.getMaterialCatalogue().checkAvailableMaterial(2));
+			
+			//Cutting the last record short makes replay stop before it instead of misreading it
+			
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)){
+				channel.truncate(channel.size() - 3);
+			}
+			assertEquals(12L, WriteAheadLog.replay(file, new Library()));
+			
+			//The torn record is cut off, so changes logged after reopening are replayed rather than hidden behind it
+			
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+				channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 1, 2, 3}));
+			}
+			Library resumed = new Library();
+			assertEquals(12L, WriteAheadLog.replay(file, resumed));
+			WriteAheadLog reopened = new WriteAheadLog(file, WriteAheadLog.SYNC_ALWAYS);
+			resumed.assignWriteAheadLog(reopened);
+			assertTrue(resumed.payFee(GOOFUS_ORG, 10));
+			assertTrue(resumed.stockMaterial(5, "Book"));
+			reopened.close();
+			Library again = new Library();
+			assertEquals(14L, WriteAheadLog.replay(file, again));
+			assertEquals(resumed.getOrganizationFine(GOOFUS_ORG), again.getOrganizationFine(GOOFUS_ORG));
+			assertNotNull(again.getMaterialCatalogue().getMaterial(5));
+			
+			//Opening a log on a file with a corrupted tail cuts it off as well
+			
+			long length = Files.size(file);
+			try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)){
+				channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 9, 7, 7, 7, 7, 7, 7, 7, 7, 7}));
+			}
+			new WriteAheadLog(file, WriteAheadLog.SYNC_NONE).close();
+			assertEquals(length, Files.size(file));
+			assertEquals(length, WriteAheadLog.recover(file));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for writing a Library to a LibrarySnapshot and loading it back, making sure that fines, loans,
+	 * details and reservations survive and that Materials nobody has asked for are not built until they are needed.
+	 * 
+	 */
+	
+	@Test
+	public void testLibrarySnapshot() throws Exception {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		Path file = Files.createTempFile("library", ".snapshot");
+		try {
+			Library original = new Library();
+			assertTrue(original.enrolUser(1, GOOFUS_ORG));
+			assertTrue(original.enrolUser(2, GALLANT_ORG));
+			for(int i = 1; i <= 1000; i++) {
+				assertTrue(original.stockMaterial(i, i % 2 == 0 ? "Book" : "DVD"));
+			}
+			assertTrue(original.checkoutMaterial(1, 10));
+			assertTrue(original.checkoutMaterial(2, 11));
+			original.getMaterialCatalogue().setCheckoutTime(10, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+			assertTrue(original.checkoutMaterial(2, 12));
+			assertTrue(original.returnMaterial(2, 12));
+			original.getOrganizationCatalogue().getOrganization(GALLANT_ORG).addFines(40);
+			assertTrue(original.describeMaterial(20, "Dune", "Frank Herbert", new String[] {"desert", "ecology"}));
+			assertTrue(original.describeMaterial(21, "Dune Messiah", "Frank Herbert", null));
+			assertTrue(original.reserveMaterial(1, 11));
+			LibrarySnapshot.write(original, file);
+			
+			Library restored = new ConcurrentLibrary();
+			LibrarySnapshot.load(file, restored);
+			assertEquals(1000, restored.getMaterialCatalogue().getSize());
+			assertEquals(original.getOrganizationFine(GALLANT_ORG), restored.getOrganizationFine(GALLANT_ORG));
+			assertArrayEquals(new int[] {10}, restored.getUserCatalogue().getUser(1).getCheckedOut());
+			assertEquals(restored.getMaterialCatalogue().getMaterial(10), restored.getMaterialCatalogue().getNextOverdueMaterial());
+			assertEquals(original.getMaterialCatalogue().getMaterial(11).getCheckoutTime(), restored.getMaterialCatalogue().getMaterial(11).getCheckoutTime());
+			
+			//Materials that were never asked for are still only in the mapped file, but appear as soon as they are used
+			
+			MappedCatalogueStorage storage = (MappedCatalogueStorage)restored.getMaterialCatalogue().getStorage();
+			assertFalse(storage.isLoaded(500));
+			
+			//The AvailabilityIndex is filled from the mapped records without building the Materials
+			
+			assertEquals(499, restored.countAvailableMaterials("Book"));
+			assertEquals(499, restored.countAvailableMaterials("DVD"));
+			assertEquals(2, restored.findAvailableMaterial("Book"));
+			assertFalse(storage.isLoaded(2));
+			
+			//Details and reservations come back from the details section, so nothing needs the old log replayed
+			
+			assertArrayEquals(new int[] {20, 21}, restored.searchMaterials("herbert dune", 10));
+			assertArrayEquals(new int[] {20}, restored.searchMaterials("ecology", 10));
+			assertEquals("Dune Messiah", restored.getMaterialCatalogue().getMaterial(21).getTitle());
+			assertEquals(0, restored.getMaterialCatalogue().getMaterial(21).getKeywords().length);
+			assertArrayEquals(new int[] {1}, restored.getReservations(11));
+			
+			//Listing every Material streams them from the file without keeping them
+			
+			StringWriter listing = new StringWriter();
+			CommandLineInterface.assignConvertModel(new ConvertModel(restored));
+			CommandLineInterface.assignOutput(listing);
+			try {
+				CommandLineInterface.displayMaterials();
+			}
+			finally {
+				CommandLineInterface.assignOutput(new OutputStreamWriter(System.out));
+			}
+			String[] lines = listing.toString().split(System.lineSeparator());
+			assertEquals(1001, lines.length);
+			assertTrue(listing.toString().contains(" - ID: 500, Type: Book, Status: Available to Check Out"));
+			assertFalse(storage.isLoaded(500));
+			assertTrue(restored.checkoutMaterial(2, 500));
+			assertTrue(storage.isLoaded(500));
+			assertEquals("Book", restored.getMaterialCatalogue().getMaterial(500).getMaterialType());
+			
+			//Threads decoding the same record at once without a lock still all end up with one shared object
+			
+			ExecutorService pool = Executors.newFixedThreadPool(4);
+			try {
+				ArrayList<Future<Material>> reads = new ArrayList<Future<Material>>();
+				for(int i = 0; i < 8; i++) {
+					reads.add(pool.submit(() -> restored.getMaterialCatalogue().getMaterial(700)));
+				}
+				for(Future<Material> read : reads) {
+					assertSame(restored.getMaterialCatalogue().getMaterial(700), read.get());
+				}
+			}
+			finally {
+				pool.shutdown();
+			}
+			assertTrue(restored.stockMaterial(1001, "DVD"));
+			assertFalse(restored.stockMaterial(999, "DVD"));
+			assertEquals(1001, restored.getMaterialCatalogue().getIds().length);
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for the LibraryMetrics counters and latency histograms, making sure that each refused checkout is
+	 * counted against the rule that refused it and that the histogram's percentiles are close to the recorded values.
+	 * 
+	 */
+	
+	@Test
+	public void testLibraryMetrics() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		
+		Library instance = new ConcurrentLibrary();
+		LibraryMetrics metrics = new LibraryMetrics();
+		instance.assignLibraryMetrics(metrics);
+		instance.enrolUser(1, GOOFUS_ORG);
+		instance.enrolUser(2, GALLANT_ORG);
+		for(int i = 1; i <= 8; i++) {
+			instance.stockMaterial(i, "Book");
+		}
+		for(int i = 1; i <= 6; i++) {
+			instance.checkoutMaterial(1, i);
+		}
+		assertFalse(instance.checkoutMaterial(2, 1));
+		instance.getMaterialCatalogue().setCheckoutTime(1, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+		assertTrue(instance.returnMaterial(1, 1));
+		assertFalse(instance.checkoutMaterial(1, 7));
+		assertTrue(instance.checkoutMaterial(2, 8));
+		instance.getMaterialCatalogue().setCheckoutTime(8, NOW - OVERDUE_TIME_GOOFUS * DURATION_DAY);
+		assertFalse(instance.checkoutMaterial(2, 7));
+		assertFalse(instance.returnMaterial(2, 3));
+		
+		assertEquals(6L, metrics.getSuccesses(LibraryMetrics.OPERATION_CHECKOUT));
+		assertEquals(4L, metrics.getFailures(LibraryMetrics.OPERATION_CHECKOUT));
+		assertEquals(1L, metrics.getResultCount(Library.RESULT_CHECKOUT_LIMIT));
+		assertEquals(1L, metrics.getResultCount(Library.RESULT_UNAVAILABLE));
+		assertEquals(1L, metrics.getResultCount(Library.RESULT_FINES_LIMIT));
+		assertEquals(1L, metrics.getResultCount(Library.RESULT_OVERDUE));
+		assertEquals(1L, metrics.getResultCount(Library.RESULT_NOT_HELD));
+		assertEquals(8L, metrics.getSuccesses(LibraryMetrics.OPERATION_STOCK));
+		assertEquals(10L, metrics.getLatencies(LibraryMetrics.OPERATION_CHECKOUT).getCount());
+		
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+		assertTrue(Math.abs(histogram.getPercentile(50) - 500000) <= 500000 / 32);
+		assertTrue(Math.abs(histogram.getPercentile(99) - 990000) <= 990000 / 32);
+		assertEquals(1000000L, histogram.getPercentile(100));
+		assertEquals(1000L, histogram.getCount());
+	}
+
+	/**
+	 * 
+	 * Test function for running loans against a SimulationClock, making sure that moving the clock forward makes a loan
+	 * overdue and charges the right fine without waiting, and that a TickingClock keeps close to the system time.
+	 * 
+	 */
+	
+	@Test
+	public void testLibraryClock() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		SimulationClock clock = new SimulationClock(NOW);
+		CheckoutTime.assignClock(clock);
+		try {
+			Library instance = new Library();
+			instance.enrolUser(1, GALLANT_ORG);
+			instance.stockMaterial(1, "Book");
+			instance.stockMaterial(2, "Book");
+			assertTrue(instance.checkoutMaterial(1, 1));
+			assertEquals(NOW, instance.getMaterialCatalogue().getMaterial(1).getCheckoutTime());
+			
+			clock.advanceDays(28);
+			assertFalse(instance.getMaterialCatalogue().checkOverdueMaterial(1));
+			clock.advanceDays(12);
+			assertTrue(instance.getMaterialCatalogue().checkOverdueMaterial(1));
+			assertFalse(instance.checkoutMaterial(1, 2));
+			assertTrue(instance.returnMaterial(1, 1));
+			assertEquals(12, instance.getOrganizationFine(GALLANT_ORG));
+		}
+		finally {
+			CheckoutTime.assignClock(new SystemClock());
+		}
+		
+		try(TickingClock ticking = new TickingClock(10)){
+			assertTrue(Math.abs(ticking.currentTimeMillis() - System.currentTimeMillis()) < 1000);
+			assertEquals(ticking.currentTimeMillis() / DURATION_DAY, ticking.currentDay());
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for the MaterialTypeRegistry's ordinals and for reading it while another thread registers entries;
+	 * a registered name must never be missing, and re-registering a name keeps its ordinal.
+	 * 
+	 */
+	
+	@Test
+	public void testMaterialTypeRegistry() throws Exception {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		int book = MaterialTypeRegistry.getMaterialType("Book").getOrdinal();
+		assertSame(MaterialTypeRegistry.getMaterialType("Book"), MaterialTypeRegistry.getMaterialType(book));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		assertEquals(book, MaterialTypeRegistry.getMaterialType("Book").getOrdinal());
+		assertNull(MaterialTypeRegistry.getMaterialType(MaterialTypeRegistry.getEntryCount()));
+		
+		Library instance = new Library();
+		instance.stockMaterial(1, "Book");
+		assertEquals(book, instance.getMaterialCatalogue().getMaterial(1).getMaterialTypeOrdinal());
+		assertFalse(instance.stockMaterial(2, "Scroll"));
+		
+		int first = MaterialTypeRegistry.getEntryCount();
+		AtomicBoolean failed = new AtomicBoolean();
+		AtomicBoolean done = new AtomicBoolean();
+		Thread reader = new Thread(() -> {
+			while(!done.get()) {
+				int count = MaterialTypeRegistry.getEntryCount();
+				for(int i = 0; i < count; i++) {
+					MaterialType type = MaterialTypeRegistry.getMaterialType(i);
+					if(type == null || MaterialTypeRegistry.getMaterialType(type.getName()) == null) {
+						failed.set(true);
+					}
+				}
+			}
+		});
+		reader.start();
+		for(int i = 0; i < 200; i++) {
+			MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Registry Test " + i,  1, 1));
+		}
+		done.set(true);
+		reader.join();
+		assertFalse(failed.get());
+		assertEquals(first + 200, MaterialTypeRegistry.getEntryCount());
+		for(int i = 0; i < 200; i++) {
+			assertEquals(first + i, MaterialTypeRegistry.getMaterialType("Registry Test " + i).getOrdinal());
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for paged listings, making sure that pages come back in id order whatever order the items were
+	 * added in, that cursors carry on where the last page ended, and that items added between pages are picked up.
+	 * 
+	 */
+	
+	@Test
+	public void testPagedListing() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		Library instance = new Library();
+		for(int i = 0; i < 250; i++) {
+			assertTrue(instance.stockMaterial((i * 97) % 250 + 1, "Book"));
+		}
+		ConvertModel convert = new ConvertModel(instance);
+		DisplayPage page = convert.getMaterialPage(null, 100);
+		assertEquals(100, page.getRows().size());
+		assertEquals("1", page.getRows().get(0).getIndexData(0));
+		assertEquals("100", page.getRows().get(99).getIndexData(0));
+		assertEquals("101", page.getCursor());
+		
+		assertTrue(instance.stockMaterial(1000, "Book"));
+		assertTrue(instance.stockMaterial(-5, "Book"));
+		page = convert.getMaterialPage(page.getCursor(), 100);
+		assertEquals("101", page.getRows().get(0).getIndexData(0));
+		page = convert.getMaterialPage(page.getCursor(), 100);
+		assertEquals(51, page.getRows().size());
+		assertEquals("1000", page.getRows().get(50).getIndexData(0));
+		assertNull(page.getCursor());
+		assertEquals("-5", convert.getMaterialPage(null, 1).getRows().get(0).getIndexData(0));
+		
+		//Enough ids to merge the index's buffer several times
+		
+		int[] ids = new int[20000];
+		for(int i = 0; i < ids.length; i++) {
+			ids[i] = i * 2;
+		}
+		OrderedIdIndex index = new OrderedIdIndex(new int[] {});
+		for(int i = ids.length - 1; i >= 0; i--) {
+			index.add(ids[(i * 7919) % ids.length]);
+		}
+		assertEquals(ids.length, index.size());
+		assertArrayEquals(ids, index.getIdsFrom(0, ids.length));
+		assertArrayEquals(new int[] {102, 104, 106}, index.getIdsFrom(101, 3));
+		assertEquals(0, index.getIdsFrom(ids.length * 2, 10).length);
+	}
+
+	/**
+	 * 
+	 * Test function for the batch command mode, making sure each kind of command is run and answered with the right
+	 * result code, that bad lines are reported rather than stopping the run, and that 'end' stops it.
+	 * 
+	 */
+	
+	@Test
+	public void testBatchInterpreter() throws IOException {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		String script = String.join("\n",
+				"# set up",
+				"organization Frontier Militia",
+				"organization Frontier Militia",
+				"stock 1 Book",
+				"stock 2 Book",
+				"",
+				"stock 3 DVD",
+				"enrol 7   Frontier Militia  ",
+				"CHECKOUT 7 1",
+				"checkout 7 1",
+				"checkout 7 2 3",
+				"return 7 1\r",
+				"return 7 9",
+				"return 99 1",
+				"pay 5 Frontier Militia",
+				"stock x Book",
+				"frobnicate 1 2",
+				"end",
+				"stock 4 Book");
+		Library instance = new Library();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BatchInterpreter batch = new BatchInterpreter(instance);
+		assertEquals(15, batch.run(new ByteArrayInputStream(script.getBytes(StandardCharsets.UTF_8)), out));
+		assertEquals("0\n9\n0\n0\n0\n0\n0\n5\n0 0\n0\n6\n1\n9\n10\n10\n", out.toString(StandardCharsets.UTF_8));
+		assertEquals(LibraryMetrics.RESULT_NAMES.length, BatchInterpreter.CODE_REFUSED);
+		assertArrayEquals(new int[] {2, 3}, instance.getUserCatalogue().getUser(7).getCheckedOut());
+		assertNull(instance.getMaterialCatalogue().getMaterial(4));
+		
+		out.reset();
+		new MainController(instance, new ByteArrayInputStream("checkout 7 4 2\nreturn 7 2".getBytes(StandardCharsets.UTF_8)), out);
+		assertEquals("1 5\n0\n", out.toString(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 
+	 * Test function for the network server, connecting many loopback clients at once (all held open together) that each
+	 * enrol a User and stock, check out and return a Material of their own through the one shared Library, and then
+	 * making sure a command that throws inside the Library is answered without ending its session.
+	 * 
+	 */
+	
+	@Test
+	public void testLibraryServer() throws Exception {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		ConcurrentLibrary instance = new ConcurrentLibrary() {
+			@Override
+			protected int performReturn(int userId, int materialId) {
+				if(materialId < 0) {
+					throw new IllegalStateException("return failure");
+				}
+				return super.performReturn(userId, materialId);
+			}
+		};
+		instance.addOrganization(GALLANT_ORG);
+		int clients = 200;
+		try(LibraryServer server = new LibraryServer(instance, 0, InetAddress.getLoopbackAddress())){
+			server.start();
+			CountDownLatch connected = new CountDownLatch(clients);
+			ExecutorService pool = Executors.newFixedThreadPool(clients);
+			ArrayList<Future<String>> replies = new ArrayList<Future<String>>();
+			for(int i = 0; i < clients; i++) {
+				int user = i;
+				replies.add(pool.submit(() -> {
+					try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+						connected.countDown();
+						connected.await();
+						String script = "enrol " + user + " " + GALLANT_ORG + "\nstock " + (10000 + user) + " Book\ncheckout " + user + " " + (10000 + user) + "\n";
+						socket.getOutputStream().write(script.getBytes(StandardCharsets.UTF_8));
+						BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+						String out = in.readLine() + in.readLine() + in.readLine();
+						socket.getOutputStream().write(("return " + user + " " + (10000 + user) + "\nend\n").getBytes(StandardCharsets.UTF_8));
+						return out + in.readLine() + in.readLine();
+					}
+				}));
+			}
+			for(Future<String> reply : replies) {
+				assertEquals("0000null", reply.get(30, TimeUnit.SECONDS));
+			}
+			pool.shutdown();
+			assertEquals(clients, server.getAcceptedSessions());
+			try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())){
+				socket.getOutputStream().write(("return 0 -1\nenrol " + clients + " " + GALLANT_ORG + "\nend\n").getBytes(StandardCharsets.UTF_8));
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+				assertEquals(String.valueOf(BatchInterpreter.CODE_MALFORMED), in.readLine());
+				assertEquals("0", in.readLine());
+				assertEquals(null, in.readLine());
+			}
+		}
+		assertEquals(clients + 1, instance.getUserCatalogue().getSize());
+		assertEquals(clients, instance.getMaterialCatalogue().getSize());
+		for(int i = 0; i < clients; i++) {
+			assertTrue(instance.getMaterialCatalogue().getMaterial(10000 + i).isAvailable());
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for the LibraryEventBus, making sure that each change to a Library reaches the listeners in order,
+	 * that a failing listener doesn't stop the others, that a full ring drops events rather than blocking, and that
+	 * nothing is lost or duplicated when several threads publish at once.
+	 * 
+	 */
+	
+	@Test
+	public void testLibraryEventBus() throws Exception {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		Library instance = new Library();
+		ConcurrentLinkedQueue<LibraryEvent> heard = new ConcurrentLinkedQueue<LibraryEvent>();
+		CountDownLatch done = new CountDownLatch(4);
+		try(LibraryEventBus bus = new LibraryEventBus()){
+			bus.subscribe(event -> {
+				throw new IllegalStateException("listener failure");
+			});
+			bus.subscribe(event -> {
+				heard.add(event);
+				done.countDown();
+			});
+			instance.assignEventBus(bus);
+			instance.stockMaterial(1, "Book");
+			assertTrue(instance.enrolUser(1, GALLANT_ORG));
+			assertTrue(instance.checkoutMaterial(1, 1));
+			assertFalse(instance.checkoutMaterial(1, 1));
+			assertTrue(instance.returnMaterial(1, 1));
+			instance.getOrganizationCatalogue().getOrganization(GALLANT_ORG).addFines(10);
+			assertTrue(instance.payFee(GALLANT_ORG, 10));
+			assertTrue(done.await(5, TimeUnit.SECONDS));
+			assertEquals(4, bus.getFailures());
+		}
+		LibraryEvent[] events = heard.toArray(new LibraryEvent[0]);
+		assertEquals(4, events.length);
+		assertEquals(LibraryEvent.TYPE_ENROL, events[0].getType());
+		assertEquals(GALLANT_ORG, events[0].getOrganization());
+		assertEquals(LibraryEvent.TYPE_CHECKOUT, events[1].getType());
+		assertEquals(1, events[1].getMaterialId());
+		assertEquals(LibraryEvent.TYPE_RETURN, events[2].getType());
+		assertEquals(0, events[2].getAmount());
+		assertEquals(LibraryEvent.TYPE_PAYMENT, events[3].getType());
+		assertEquals(10, events[3].getAmount());
+		
+		//A listener that can't keep up fills the ring, after which events are dropped instead of waited on
+		
+		CountDownLatch release = new CountDownLatch(1);
+		try(LibraryEventBus bus = new LibraryEventBus(4)){
+			bus.subscribe(event -> {
+				try {
+					release.await();
+				}
+				catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+			int queued = 0;
+			for(int i = 0; i < 10; i++) {
+				queued += bus.publish(new LibraryEvent(LibraryEvent.TYPE_CHECKOUT, i, i, null, -1, NOW)) ? 1 : 0;
+			}
+			assertTrue(queued <= 5);
+			assertEquals(10 - queued, bus.getDropped());
+			release.countDown();
+		}
+		
+		//Several publishers at once; everything published is either delivered once or counted as dropped
+		
+		AtomicLong delivered = new AtomicLong();
+		AtomicLong sum = new AtomicLong();
+		int threads = 4;
+		int each = 50000;
+		AtomicLong published = new AtomicLong();
+		LibraryEventBus bus = new LibraryEventBus(1024);
+		bus.subscribe(event -> {
+			delivered.incrementAndGet();
+			sum.addAndGet(event.getMaterialId());
+		});
+		Thread[] publishers = new Thread[threads];
+		AtomicLong expected = new AtomicLong();
+		for(int t = 0; t < threads; t++) {
+			publishers[t] = new Thread(() -> {
+				for(int i = 0; i < each; i++) {
+					if(bus.publish(new LibraryEvent(LibraryEvent.TYPE_CHECKOUT, 0, i, null, -1, NOW))) {
+						published.incrementAndGet();
+						expected.addAndGet(i);
+					}
+				}
+			});
+			publishers[t].start();
+		}
+		for(Thread t : publishers) {
+			t.join();
+		}
+		bus.close();
+		assertEquals(published.get(), delivered.get());
+		assertEquals(expected.get(), sum.get());
+		assertEquals(threads * each, published.get() + bus.getDropped());
+	}
+
+	/**
+	 * 
+	 * Test function for assessFines(), making sure that every open loan's accrued fine is totalled to the right
+	 * Organization without anything being charged, across enough Users that the work is split over several workers.
+	 * 
+	 */
+	
+	@Test
+	public void testFineAssessment() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		SimulationClock clock = new SimulationClock(NOW);
+		CheckoutTime.assignClock(clock);
+		try {
+			Library instance = new ConcurrentLibrary();
+			int count = 20000;
+			for(int i = 0; i < count; i++) {
+				instance.enrolUser(i, i % 2 == 0 ? GALLANT_ORG : GOOFUS_ORG);
+				instance.stockMaterial(i, "Book");
+			}
+			for(int i = 0; i < count; i += 2) {
+				assertTrue(instance.checkoutMaterial(i, i));
+			}
+			clock.advanceDays(20);
+			for(int i = 1; i < count; i += 2) {
+				assertTrue(instance.checkoutMaterial(i, i));
+			}
+			clock.advanceDays(20);
+			assertTrue(instance.returnMaterial(0, 0));
+			
+			LiabilityReport report = instance.assessFines();
+			assertEquals(clock.currentTimeMillis(), report.getTime());
+			assertEquals(count / 2 - 1, report.getOpenLoans(GALLANT_ORG));
+			assertEquals(count / 2 - 1, report.getOverdueLoans(GALLANT_ORG));
+			assertEquals(12L * (count / 2 - 1), report.getLiability(GALLANT_ORG));
+			assertEquals(count / 2, report.getOpenLoans(GOOFUS_ORG));
+			assertEquals(0, report.getOverdueLoans(GOOFUS_ORG));
+			assertEquals(0, report.getLiability(GOOFUS_ORG));
+			assertEquals(count - 1, report.getTotalOpenLoans());
+			assertEquals(12L * (count / 2 - 1), report.getTotalLiability());
+			assertEquals(0, report.getLiability("Unknown"));
+			
+			//Nothing is charged by an assessment; only the returned Material's fine has been
+			
+			assertEquals(12, instance.getOrganizationFine(GALLANT_ORG));
+			assertEquals(0, instance.getOrganizationFine(GOOFUS_ORG));
+			
+			LiabilityReport later = instance.assessFines(clock.currentTimeMillis() + 10 * DURATION_DAY);
+			assertEquals(22L * (count / 2 - 1), later.getLiability(GALLANT_ORG));
+			assertEquals(2L * (count / 2), later.getLiability(GOOFUS_ORG));
+			assertEquals(count - 1, later.getTotalOverdueLoans());
+			
+			//A Material with a negative id is a loan like any other
+			
+			assertTrue(instance.addOrganization("Border Patrol"));
+			assertTrue(instance.enrolUser(count, "Border Patrol"));
+			assertTrue(instance.enrolUser(count + 1, "Border Patrol"));
+			assertTrue(instance.stockMaterial(-5, "Book"));
+			assertTrue(instance.stockMaterial(count, "Book"));
+			assertTrue(instance.checkoutMaterial(count, -5));
+			assertTrue(instance.checkoutMaterial(count + 1, count));
+			LiabilityReport overdue = instance.assessFines(clock.currentTimeMillis() + 400 * DURATION_DAY);
+			assertEquals(2, overdue.getOpenLoans("Border Patrol"));
+			assertEquals(2, overdue.getOverdueLoans("Border Patrol"));
+			assertTrue(overdue.getLiability("Border Patrol") > 0);
+			assertEquals(0, overdue.getLiability("Border Patrol") % 2);
+		}
+		finally {
+			CheckoutTime.assignClock(new SystemClock());
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for the ProjectedLiabilityView, making sure that it loads the Library's existing loans and fines,
+	 * follows checkouts, returns, payments and day rollovers, and agrees with what the Library actually charges.
+	 * 
+	 */
+	
+	@Test
+	public void testProjectedLiabilityView() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		SimulationClock clock = new SimulationClock(NOW);
+		CheckoutTime.assignClock(clock);
+		try {
+			Library instance = new ConcurrentLibrary();
+			instance.enrolUser(1, GALLANT_ORG);
+			instance.enrolUser(2, GOOFUS_ORG);
+			instance.stockMaterial(1, "Book");
+			instance.stockMaterial(2, "Book");
+			instance.stockMaterial(3, "DVD");
+			assertTrue(instance.checkoutMaterial(2, 2));
+			instance.getMaterialCatalogue().setCheckoutTime(2, clock.currentTimeMillis() - 30 * DURATION_DAY);
+			instance.getOrganizationCatalogue().getOrganization(GOOFUS_ORG).addFines(5);
+			
+			//Loans and fines from before the view was assigned are loaded into it
+			
+			ProjectedLiabilityView view = new ProjectedLiabilityView();
+			instance.assignLiabilityView(view);
+			assertSame(view, instance.getLiabilityView());
+			assertEquals(2, view.getAccruedFines(GOOFUS_ORG));
+			assertEquals(7, view.getProjectedFines(GOOFUS_ORG));
+			assertEquals(0, view.getProjectedFines(GALLANT_ORG));
+			
+			assertTrue(instance.checkoutMaterial(1, 1));
+			assertTrue(instance.checkoutMaterial(1, 3));
+			clock.advanceDays(3);
+			assertTrue(instance.returnMaterial(1, 3));
+			clock.advanceDays(26);
+			assertEquals(1, view.getAccruedFines(GALLANT_ORG));
+			assertEquals(2 + 29, view.getAccruedFines(GOOFUS_ORG));
+			assertEquals(GOOFUS_ORG, view.getTopOrganizations(1).get(0));
+			assertEquals(2, view.getTopOrganizations(5).size());
+			
+			//The projection runs at most a day per loan ahead of what an assessment charges
+			
+			LiabilityReport report = instance.assessFines();
+			for(String org : new String[] {GALLANT_ORG, GOOFUS_ORG}) {
+				long ahead = view.getAccruedFines(org) - report.getLiability(org);
+				assertTrue(ahead >= 0 && ahead <= report.getOpenLoans(org) * 5);
+			}
+			
+			//Once returned and paid, the projection is exactly what was charged
+			
+			clock.advanceDays(10);
+			assertTrue(instance.returnMaterial(1, 1));
+			assertTrue(instance.returnMaterial(2, 2));
+			assertEquals(0, view.getAccruedFines(GALLANT_ORG));
+			assertEquals(instance.getOrganizationFine(GALLANT_ORG).longValue(), view.getProjectedFines(GALLANT_ORG));
+			assertEquals(instance.getOrganizationFine(GOOFUS_ORG).longValue(), view.getProjectedFines(GOOFUS_ORG));
+			assertTrue(instance.payFee(GOOFUS_ORG, 5));
+			assertEquals(instance.getOrganizationFine(GOOFUS_ORG).longValue(), view.getProjectedFines(GOOFUS_ORG));
+			
+			//Organizations added after the view was assigned are tracked as well
+			
+			instance.enrolUser(3, "Late Arrivals");
+			assertTrue(instance.checkoutMaterial(3, 3));
+			view.advance(clock.currentTimeMillis() + 9 * DURATION_DAY);
+			assertEquals(5 * 2, view.getProjectedFines("Late Arrivals"));
+			assertEquals(3, view.getTopOrganizations(5).size());
+			assertEquals(GOOFUS_ORG, view.getTopOrganizations(5).get(0));
+		}
+		finally {
+			CheckoutTime.assignClock(new SystemClock());
+		}
+	}
+
+	/**
+	 * 
+	 * Test function for searching Materials by their title, author and keywords, making sure that every word of a query
+	 * must match, that prefixes and case are handled, that re-describing a Material re-indexes it, and that the details
+	 * survive a WriteAheadLog replay.
+	 * 
+	 */
+	
+	@Test
+	public void testMaterialSearch() throws IOException {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		Path file = Files.createTempFile("library", ".wal");
+		try {
+			Library instance = new ConcurrentLibrary();
+			WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_NONE);
+			instance.assignWriteAheadLog(log);
+			assertTrue(instance.stockMaterial(3, "Book", "Dune", "Frank Herbert", new String[] {"science fiction", "desert"}));
+			assertTrue(instance.stockMaterial(1, "Book", "Children of Dune", "Frank Herbert", null));
+			assertTrue(instance.stockMaterial(2, "DVD", "Dune (1984)", "David Lynch", new String[] {"Science-Fiction", "film"}));
+			assertTrue(instance.stockMaterial(4, "Book", "The Left Hand of Darkness", "Ursula K. Le Guin", new String[] {"science fiction"}));
+			assertTrue(instance.stockMaterial(5, "Book"));
+			assertFalse(instance.stockMaterial(5, "Book", "Duplicate", null, null));
+			assertFalse(instance.describeMaterial(99, "Missing", null, null));
+			
+			assertArrayEquals(new int[] {1, 2, 3}, instance.searchMaterials("dune", 10));
+			assertArrayEquals(new int[] {1, 3}, instance.searchMaterials("DUNE herbert", 10));
+			assertArrayEquals(new int[] {2, 3, 4}, instance.searchMaterials("science fict*", 10));
+			assertArrayEquals(new int[] {1, 2, 3, 4}, instance.searchMaterials("d*", 10));
+			assertArrayEquals(new int[] {1, 2}, instance.searchMaterials("d*", 2));
+			assertArrayEquals(new int[] {4}, instance.searchMaterials("le guin", 10));
+			assertEquals(0, instance.searchMaterials("dune lynch herbert", 10).length);
+			assertEquals(0, instance.searchMaterials("nothing", 10).length);
+			assertEquals(0, instance.searchMaterials("   ", 10).length);
+			
+			//Re-describing a Material replaces the words it is found by
+			
+			assertTrue(instance.describeMaterial(2, "Blue Velvet", "David Lynch", null));
+			assertArrayEquals(new int[] {1, 3}, instance.searchMaterials("dune", 10));
+			assertArrayEquals(new int[] {2}, instance.searchMaterials("velv*", 10));
+			assertEquals("Blue Velvet", instance.getMaterialCatalogue().getMaterial(2).getTitle());
+			
+			log.close();
+			Library restored = new Library();
+			WriteAheadLog.replay(file, restored);
+			assertArrayEquals(new int[] {1, 3}, restored.searchMaterials("dune", 10));
+			assertArrayEquals(new int[] {2}, restored.searchMaterials("lynch", 10));
+			assertArrayEquals(new String[] {"science fiction", "desert"}, restored.getMaterialCatalogue().getMaterial(3).getKeywords());
+			assertNull(restored.getMaterialCatalogue().getMaterial(5).getTitle());
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+		
+		//A prefix matching many words is checked against each candidate's own words rather than every posting list
+		
+		Library large = new Library();
+		for(int i = 0; i < 20000; i++) {
+			large.stockMaterial(i, "Book", "Volume " + i, i % 2 == 0 ? "Even Author" : "Odd Author", new String[] {"word" + i});
+		}
+		assertEquals(10000, large.searchMaterials("odd word*", 20000).length);
+		assertArrayEquals(new int[] {1, 3, 5}, large.searchMaterials("odd word*", 3));
+		assertArrayEquals(new int[] {4242}, large.searchMaterials("volume 4242", 10));
+	}
+
+	/**
+	 * 
+	 * Test function for the AvailabilityIndex, making sure that checkouts and returns keep the available Materials of
+	 * each type, and their counts, in step with the Materials themselves, including Materials with negative or very
+	 * large ids.
+	 * 
+	 */
+	
+	@Test
+	public void testAvailabilityIndex() {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("DVD",  1, 5));
+		Library instance = new ConcurrentLibrary();
+		assertTrue(instance.enrolUser(1, GOOFUS_ORG));
+		assertTrue(instance.enrolUser(2, GALLANT_ORG));
+		for(int i = 0; i < 300; i++) {
+			assertTrue(instance.stockMaterial(i, i % 3 == 0 ? "DVD" : "Book"));
+		}
+		assertEquals(200, instance.countAvailableMaterials("Book"));
+		assertEquals(100, instance.countAvailableMaterials("DVD"));
+		assertEquals(0, instance.countAvailableMaterials("Scroll"));
+		assertEquals(AvailabilityIndex.NO_MATERIAL, instance.findAvailableMaterial("Scroll"));
+		assertEquals(1, instance.findAvailableMaterial("Book"));
+		assertEquals(0, instance.findAvailableMaterial("DVD"));
+		
+		//Checking out the first available Book each time walks along the bitset
+		
+		for(int i = 0; i < 3; i++) {
+			assertTrue(instance.checkoutMaterial(1, instance.findAvailableMaterial("Book")));
+		}
+		assertEquals(5, instance.findAvailableMaterial("Book"));
+		assertEquals(197, instance.countAvailableMaterials("Book"));
+		assertFalse(instance.checkoutMaterial(2, 4));
+		assertEquals(197, instance.countAvailableMaterials("Book"));
+		assertTrue(instance.returnMaterial(1, 2));
+		assertEquals(2, instance.findAvailableMaterial("Book"));
+		assertEquals(198, instance.countAvailableMaterials("Book"));
+		
+		//Batches go through the same hooks, and a checkout time set directly counts as a checkout
+		
+		int[] dvds = new int[] {0, 3, 6};
+		assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, instance.checkoutMaterials(2, dvds));
+		assertEquals(9, instance.findAvailableMaterial("DVD"));
+		instance.getMaterialCatalogue().setCheckoutTime(9, NOW);
+		assertEquals(12, instance.findAvailableMaterial("DVD"));
+		assertEquals(96, instance.countAvailableMaterials("DVD"));
+		
+		//Types can be combined and compared 64 Materials at a time, in slot space
+		
+		AvailabilityIndex index = instance.getMaterialCatalogue().getAvailabilityIndex();
+		int book = MaterialTypeRegistry.getMaterialType("Book").getOrdinal();
+		int dvd = MaterialTypeRegistry.getMaterialType("DVD").getOrdinal();
+		BitSet either = index.getAvailable(book, dvd, 99);
+		assertEquals(294, either.cardinality());
+		assertEquals(294, instance.getMaterialCatalogue().getAvailableMaterials("Book", "DVD", "Scroll").length);
+		BitSet wanted = index.toSlots(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 1000);
+		wanted.and(either);
+		assertArrayEquals(new int[] {2, 5, 7, 8}, index.toIds(wanted));
+		assertEquals(200, index.getStockedCount(book));
+		
+		//Negative and very large ids take the next slots like any other, so nothing is left out
+		
+		assertTrue(instance.stockMaterial(-5, "Book"));
+		assertTrue(instance.stockMaterial(Integer.MAX_VALUE - 1, "Book"));
+		assertEquals(202, index.getStockedCount(book));
+		assertEquals(200, instance.countAvailableMaterials("Book"));
+		assertEquals(200, index.getAvailable(book).cardinality());
+		assertEquals(302, index.getStocked(book, dvd).length());
+		assertEquals(2, instance.findAvailableMaterial("Book"));
+		assertEquals(299, index.getNextAvailable(book, 298));
+		assertEquals(-5, index.getNextAvailable(book, 299));
+		assertEquals(Integer.MAX_VALUE - 1, index.getNextAvailable(book, -5));
+		assertEquals(AvailabilityIndex.NO_MATERIAL, index.getNextAvailable(book, Integer.MAX_VALUE - 1));
+		assertTrue(instance.checkoutMaterial(2, -5));
+		assertEquals(199, instance.countAvailableMaterials("Book"));
+		assertEquals(Integer.MAX_VALUE - 1, index.getNextAvailable(book, 299));
+		assertTrue(instance.returnMaterial(2, -5));
+		assertEquals(-5, index.getNextAvailable(book, 299));
+		assertEquals(200, instance.countAvailableMaterials("Book"));
+		
+		//A catalogue whose ids start in the millions, stocked out of order, is indexed just as densely
+		
+		Library high = new Library();
+		assertTrue(high.enrolUser(1, GALLANT_ORG));
+		for(int i = 0; i < 5000; i++) {
+			assertTrue(high.stockMaterial(1000000 + (i * 7919) % 5000, "Book"));
+		}
+		AvailabilityIndex highIndex = high.getMaterialCatalogue().getAvailabilityIndex();
+		assertEquals(5000, high.countAvailableMaterials("Book"));
+		assertEquals(5000, highIndex.getAvailable(book).cardinality());
+		assertEquals(5000, highIndex.getStocked(book).length());
+		assertEquals(5000, high.getMaterialCatalogue().getAvailableMaterials("Book").length);
+		assertEquals(1000000, high.findAvailableMaterial("Book"));
+		assertTrue(high.checkoutMaterial(1, 1000000));
+		assertEquals(1000000 + 7919 % 5000, high.findAvailableMaterial("Book"));
+		assertEquals(4999, highIndex.getAvailable(book).cardinality());
+	}
+
+	/**
+	 * 
+	 * Test function for reservations, making sure that a returned Material goes to the first eligible User in its
+	 * queue, that Users who cannot have it are passed over, and that the queues survive a WriteAheadLog replay.
+	 * 
+	 */
+	
+	@Test
+	public void testReservations() throws IOException {
+		MaterialTypeRegistry.registerEntry(MaterialTypeRegistry.compileMaterialType("Book",  4, 1));
+		Path file = Files.createTempFile("library", ".wal");
+		try {
+			Library instance = new ConcurrentLibrary();
+			WriteAheadLog log = new WriteAheadLog(file, WriteAheadLog.SYNC_NONE);
+			instance.assignWriteAheadLog(log);
+			for(int i = 1; i <= 4; i++) {
+				assertTrue(instance.enrolUser(i, i % 2 == 0 ? GALLANT_ORG : GOOFUS_ORG));
+			}
+			for(int i = 1; i <= 8; i++) {
+				assertTrue(instance.stockMaterial(i, "Book"));
+			}
+			assertTrue(instance.checkoutMaterial(1, 1));
+			
+			assertTrue(instance.reserveMaterial(2, 1));
+			assertFalse(instance.reserveMaterial(2, 1));
+			assertFalse(instance.reserveMaterial(1, 1));
+			assertFalse(instance.reserveMaterial(3, 2));
+			assertFalse(instance.reserveMaterial(99, 1));
+			assertFalse(instance.reserveMaterial(3, 99));
+			assertTrue(instance.reserveMaterial(3, 1));
+			assertTrue(instance.reserveMaterial(4, 1));
+			assertArrayEquals(new int[] {2, 3, 4}, instance.getReservations(1));
+			assertTrue(instance.cancelReservation(3, 1));
+			assertFalse(instance.cancelReservation(3, 1));
+			assertArrayEquals(new int[] {2, 4}, instance.getReservations(1));
+			
+			//User 2 is at the checkout limit when Material 1 comes back, so loses their place to User 4
+			
+			assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, instance.checkoutMaterials(2, new int[] {2, 3, 4, 5, 6}));
+			assertTrue(instance.returnMaterial(1, 1));
+			assertFalse(instance.getUserCatalogue().getUser(1).hasMaterial(1));
+			assertTrue(instance.getUserCatalogue().getUser(4).hasMaterial(1));
+			assertEquals(0, instance.getReservations(1).length);
+			
+			//A batch return hands on each reserved Material, and a Material nobody waits for stays on the shelf
+			
+			assertTrue(instance.reserveMaterial(3, 2));
+			assertTrue(instance.reserveMaterial(1, 3));
+			assertTrue(instance.reserveMaterial(3, 3));
+			assertTrue(instance.reserveMaterial(1, 1));
+			assertArrayEquals(new int[] {Library.RESULT_SUCCESS, Library.RESULT_SUCCESS, Library.RESULT_SUCCESS}, instance.returnMaterials(2, new int[] {2, 3, 4}));
+			assertArrayEquals(new int[] {2}, instance.getUserCatalogue().getUser(3).getCheckedOut());
+			assertArrayEquals(new int[] {3}, instance.getUserCatalogue().getUser(1).getCheckedOut());
+			assertArrayEquals(new int[] {3}, instance.getReservations(3));
+			assertTrue(instance.getMaterialCatalogue().getMaterial(4).isAvailable());
+			
+			log.close();
+			Library restored = new Library();
+			WriteAheadLog.replay(file, restored);
+			assertArrayEquals(new int[] {3}, restored.getReservations(3));
+			assertArrayEquals(new int[] {1}, restored.getReservations(1));
+			assertEquals(0, restored.getReservations(2).length);
+			assertTrue(restored.getUserCatalogue().getUser(3).hasMaterial(2));
+			assertTrue(restored.returnMaterial(4, 1));
+			assertTrue(restored.getUserCatalogue().getUser(1).hasMaterial(1));
+		}
+		finally {
+			Files.deleteIfExists(file);
+		}
+		
+		//A long queue wraps around its array as Users are served from the front and join at the back
+		
+		ReservationBook book = new ReservationBook();
+		int[] expected = new int[50];
+		for(int i = 0; i < 100; i++) {
+			assertTrue(book.add(7, i));
+			if(i % 2 == 1) {
+				assertEquals(i / 2, book.getNext(7));
+				assertTrue(book.remove(7, i / 2));
+			}
+		}
+		for(int i = 0; i < 50; i++) {
+			expected[i] = 50 + i;
+		}
+		assertArrayEquals(expected, book.getWaiting(7));
+		assertTrue(book.remove(7, 75));
+		assertFalse(book.remove(7, 75));
+		assertEquals(76, book.getWaiting(7)[25]);
+		assertEquals(1, book.getReservedCount());
+		for(int i = 50; i < 100; i++) {
+			book.remove(7, i);
+		}
+		assertEquals(0, book.getReservedCount());
+		assertEquals(-1, book.getNext(7));
+	}
+
 }
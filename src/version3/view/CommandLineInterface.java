@@ -1,7 +1,15 @@
 package version3.view;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+
 import version3.controller.conversion.ConvertModel;
 import version3.controller.conversion.DisplayFormat;
+import version3.controller.conversion.DisplayPage;
 
 /**
  * This static class handles the UI component of the project, greatly changed from version 2.
@@ -26,6 +34,10 @@ import version3.controller.conversion.DisplayFormat;
  * divorced from the display and its visual display updates very statically (as in static vs. continuous,
  * not static as in memory allocation).
  * 
+ * Listings are printed one row at a time as ConvertModel converts them, into a buffered PrintWriter that is flushed
+ * once the listing is done, so viewing a very large Library neither builds the whole listing in memory nor writes to
+ * the terminal a line at a time.
+ * 
  * @author Ada Clevinger
  * @version 3.0
  *
@@ -33,10 +45,17 @@ import version3.controller.conversion.DisplayFormat;
 
 public class CommandLineInterface {
 
+//---  Constants   ----------------------------------------------------------------------------
+	
+	/** int value representing the size, in chars, of the buffer that output is gathered in before being written*/
+	private static final int BUFFER_SIZE = 1 << 16;
+	
 //---  Instance Variables   -------------------------------------------------------------------
 	
 	/** ConvertModel object used to access Model data when necessary, this Class acting as an intermediary to provide a generic data format (DisplayFormat)*/
 	private static ConvertModel reference;
+	/** PrintWriter object, buffered, that everything this Class displays is written to; flushed at the end of each display function*/
+	private static PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), BUFFER_SIZE));
 	
 //---  Operations   ---------------------------------------------------------------------------
 
@@ -47,7 +66,7 @@ public class CommandLineInterface {
 	 */
 	
 	public static void start() {
-		System.out.println("Welcome to the Library!\nPlease use the following commands.");
+		out.println("Welcome to the Library!\nPlease use the following commands.");
 		libraryInputCommands();
 	}
 	
@@ -60,10 +79,12 @@ public class CommandLineInterface {
 	 */
 	
 	public static void displayUsers() {
-		System.out.println("Users Registered to Library:");
-		for(DisplayFormat d : reference.getUserData()) {
-			displayUser(d);
+		out.println("Users Registered to Library:");
+		Iterator<DisplayFormat> rows = reference.iterateUserData();
+		while(rows.hasNext()) {
+			displayUser(rows.next());
 		}
+		out.flush();
 	}
 	
 	/**
@@ -74,9 +95,9 @@ public class CommandLineInterface {
 	 */
 	
 	private static void displayUser(DisplayFormat d) {
-		System.out.print(" - ID: " + d.getIndexData(0) + ", Organization: \"" + d.getIndexData(1) + "\", Checked Out Materials: ");
+		out.print(" - ID: " + d.getIndexData(0) + ", Organization: \"" + d.getIndexData(1) + "\", Checked Out Materials: ");
 		if(d.getData().size() == 2) {
-			System.out.println("None");
+			out.println("None");
 		}
 		else {
 			for(int i = 2; i < d.getData().size(); i++) {
@@ -92,10 +113,12 @@ public class CommandLineInterface {
 	 */
 	
 	public static void displayMaterials() {
-		System.out.println("Materials in Library:");
-		for(DisplayFormat d : reference.getMaterialData()) {
-			displayMaterial(d);
+		out.println("Materials in Library:");
+		Iterator<DisplayFormat> rows = reference.iterateMaterialData();
+		while(rows.hasNext()) {
+			displayMaterial(rows.next());
 		}
+		out.flush();
 	}
 	
 	/**
@@ -108,7 +131,8 @@ public class CommandLineInterface {
 	private static void displayMaterial(DisplayFormat d) {
 		String elapsed = d.getIndexData(2);
 		String checkout = ", Status: " + (elapsed == null ? "Available to Check Out" : ("Checked out for " + elapsed + " days."));
-		System.out.println(" - ID: " + d.getIndexData(0) + ", Type: " + d.getIndexData(1) + checkout);
+		String title = d.getIndexData(3) == null ? "" : ", Title: " + d.getIndexData(3) + (d.getIndexData(4) == null ? "" : " by " + d.getIndexData(4));
+		out.println(" - ID: " + d.getIndexData(0) + ", Type: " + d.getIndexData(1) + title + checkout);
 	
 	}
 	
@@ -119,10 +143,12 @@ public class CommandLineInterface {
 	 */
 	
 	public static void displayOrganizations() {
-		System.out.println("Organizations Registered to Library");
-		for(DisplayFormat d : reference.getOrganizationData()) {
-			displayOrganization(d);
+		out.println("Organizations Registered to Library");
+		Iterator<DisplayFormat> rows = reference.iterateOrganizationData();
+		while(rows.hasNext()) {
+			displayOrganization(rows.next());
 		}
+		out.flush();
 	}
 	
 	/**
@@ -133,12 +159,102 @@ public class CommandLineInterface {
 	 */
 	
 	private static void displayOrganization(DisplayFormat d) {
-		System.out.println(" - ID: " + d.getIndexData(0) + ", Title: " + d.getIndexData(1) + ", Fines: $" + d.getIndexData(2));
+		out.println(" - ID: " + d.getIndexData(0) + ", Title: " + d.getIndexData(1) + ", Fines: $" + d.getIndexData(2));
+	}
+	
+	/**
+	 * Function that commands this class to display one page of the Users in the Library model, in id order,
+	 * followed by the cursor the user can give to see the next page.
+	 * 
+	 * @param cursor - String object representing the cursor shown after the previous page, or null for the first page
+	 * @param size - int value representing the most Users to display
+	 * @throws NumberFormatException - Thrown if the cursor is not one this class displayed
+	 */
+	
+	public static void displayUserPage(String cursor, int size) {
+		DisplayPage page = reference.getUserPage(cursor, size);
+		out.println("Users Registered to Library:");
+		for(DisplayFormat d : page.getRows()) {
+			displayUser(d);
+		}
+		displayCursor(page);
+	}
+	
+	/**
+	 * Function that commands this class to display one page of the Materials in the Library model, in id order,
+	 * followed by the cursor the user can give to see the next page.
+	 * 
+	 * @param cursor - String object representing the cursor shown after the previous page, or null for the first page
+	 * @param size - int value representing the most Materials to display
+	 * @throws NumberFormatException - Thrown if the cursor is not one this class displayed
+	 */
+	
+	public static void displayMaterialPage(String cursor, int size) {
+		DisplayPage page = reference.getMaterialPage(cursor, size);
+		out.println("Materials in Library:");
+		for(DisplayFormat d : page.getRows()) {
+			displayMaterial(d);
+		}
+		displayCursor(page);
 	}
 	
 	/**
-	 * Function that displays the provided text to the user; it's just a wrapper of System.out.println,
-	 * but I wanted to ensure all display-related behavior was firmly in the View.
+	 * Function that commands this class to display one page of the Organizations in the Library model, in id order,
+	 * followed by the cursor the user can give to see the next page.
+	 * 
+	 * @param cursor - String object representing the cursor shown after the previous page, or null for the first page
+	 * @param size - int value representing the most Organizations to display
+	 * @throws NumberFormatException - Thrown if the cursor is not one this class displayed
+	 */
+	
+	public static void displayOrganizationPage(String cursor, int size) {
+		DisplayPage page = reference.getOrganizationPage(cursor, size);
+		out.println("Organizations Registered to Library");
+		for(DisplayFormat d : page.getRows()) {
+			displayOrganization(d);
+		}
+		displayCursor(page);
+	}
+	
+	/**
+	 * Function that commands this class to display the Materials whose title, author or keywords match every word of
+	 * the provided query, in id order.
+	 * 
+	 * @param query - String object holding the words to search for
+	 * @param limit - int value representing the most Materials to display
+	 */
+	
+	public static void displayMaterialSearch(String query, int limit) {
+		ArrayList<DisplayFormat> found = reference.searchMaterialData(query, limit);
+		out.println("Materials matching '" + query + "':");
+		for(DisplayFormat d : found) {
+			displayMaterial(d);
+		}
+		if(found.isEmpty()) {
+			out.println(" - No Materials matched.");
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Function that ends a page of a listing by telling the user how to see the next page, or that there are no more.
+	 * 
+	 * @param page - DisplayPage object that has just been displayed
+	 */
+	
+	private static void displayCursor(DisplayPage page) {
+		if(page.getCursor() == null) {
+			out.println("End of listing.");
+		}
+		else {
+			out.println("More remain; give the cursor " + page.getCursor() + " to see the next page.");
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Function that displays the provided text to the user; it's just a wrapper of println (on the output assigned
+	 * to this class), but I wanted to ensure all display-related behavior was firmly in the View.
 	 * 
 	 * Also, if the UI changes, then the Controller can stay put while this function handles the changes
 	 * (hopefully, if it gets more complex you might have to trash most everything).
@@ -147,7 +263,8 @@ public class CommandLineInterface {
 	 */
 	
 	public static void displayText(String text) {
-		System.out.println(text);
+		out.println(text);
+		out.flush();
 	}
 
 //---  Setter Methods   -----------------------------------------------------------------------
@@ -163,6 +280,18 @@ public class CommandLineInterface {
 		reference = in;
 	}
 	
+	/**
+	 * Setter method that assigns where this class writes what it displays (System.out by default), such as a file that
+	 * a very large listing should be saved to; the provided Writer is buffered by this class.
+	 * 
+	 * @param in - Writer object that displayed text is written to from now on
+	 */
+	
+	public static void assignOutput(Writer in) {
+		out.flush();
+		out = new PrintWriter(new BufferedWriter(in, BUFFER_SIZE));
+	}
+	
 //---  Helper Methods   -----------------------------------------------------------------------
 	
 	/**
@@ -171,12 +300,16 @@ public class CommandLineInterface {
 	 */
 	
 	public static void libraryInputCommands() {
-		System.out.println("View:\n - Users\n - Materials\n - Organizations");
-		System.out.println("Add:\n - User\n - Material\n - Organization");
-		System.out.println("Checkout/Return Material");
-		System.out.println("Pay Fee");
-		System.out.println("For example, the command 'View Materials' would display the Materials in the Library.");
-		System.out.println("Type 'help' to see these commands again.");
+		out.println("View:\n - Users\n - Materials\n - Organizations");
+		out.println("Page:\n - Users\n - Materials\n - Organizations");
+		out.println("Add:\n - User\n - Material\n - Organization");
+		out.println("Describe/Search Materials");
+		out.println("Checkout/Return/Reserve Material");
+		out.println("Pay Fee");
+		out.println("Bulk Load");
+		out.println("For example, the command 'View Materials' would display the Materials in the Library.");
+		out.println("Type 'help' to see these commands again.");
+		out.flush();
 	}
 
 }